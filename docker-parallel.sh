@@ -108,6 +108,30 @@ run_tests() {
     mvn clean test -Dsuites="$test_suite" -Dheadless=true
 }
 
+# Run one shard of a suite: shard <index> <total> [suite]
+run_shard() {
+    local index="$1"
+    local total="$2"
+    local test_suite="${3:-testng-docker-all-parallel.xml}"
+
+    if [ -z "$index" ] || [ -z "$total" ]; then
+        log_error "Usage: $0 shard <index> <total> [suite]"
+        exit 1
+    fi
+
+    log_info "Running shard $index of $total with suite: $test_suite"
+    cd "$PROJECT_ROOT"
+    mvn test -Dsuites="$test_suite" -Dheadless=true -Dshard.index="$index" -Dshard.total="$total"
+}
+
+# Merge shard report fragments (reports/shards/shard-*) into reports/merged
+merge_reports() {
+    log_info "Merging shard reports..."
+    cd "$PROJECT_ROOT"
+    mvn -q compile exec:java -Dexec.mainClass=core.reporting.ReportMerger -Dexec.args="$*"
+    log_success "Merged report: reports/merged"
+}
+
 # Run all parallel tests
 run_all_parallel() {
     log_info "Running all parallel tests (class-level parallelization)..."
@@ -143,6 +167,8 @@ Commands:
     logs            Show Selenium Hub logs
     test            Run parallel tests (testng-docker-parallel.xml)
     test-all        Run all parallel tests (testng-docker-all-parallel.xml)
+    shard I N [suite]  Run shard I (0-based) of N, balanced by recorded test durations
+    merge-reports   Merge reports/shards/shard-* into reports/merged
     grid-status     Check Selenium Grid status
     restart         Restart all containers
     help            Show this help message
@@ -154,6 +180,10 @@ Examples:
     # Run tests
     ./docker-parallel.sh test
 
+    # Run 3 shards (one per machine/container), then merge their reports
+    ./docker-parallel.sh shard 0 3
+    ./docker-parallel.sh merge-reports
+
     # Check status
     ./docker-parallel.sh status
 
@@ -187,6 +217,13 @@ main() {
         test-all)
             run_all_parallel
             ;;
+        shard)
+            run_shard "$2" "$3" "$4"
+            ;;
+        merge-reports)
+            shift
+            merge_reports "$@"
+            ;;
         grid-status)
             grid_status
             ;;
@@ -1,28 +1,291 @@
 package core.config;
 
-import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 /**
- * Central configuration manager
+ * Central configuration manager.
+ *
+ * Configuration is resolved once into an immutable snapshot, highest precedence first:
+ *   1. system properties (-Dkey=value)
+ *   2. environment variables named E2E_ + the key upper-cased with dots and dashes as underscores
+ *      (E2E_EXECUTION_MODE); the prefix keeps unrelated variables such as BROWSER or HOME out
+ *   3. the profile file config-&lt;config.profile&gt;.properties, if config.profile is set
+ *   4. config.properties
+ * Reads never lock; typed values are parsed once per snapshot. System properties and the
+ * environment are read when the snapshot is built, so a later System.setProperty only takes
+ * effect after {@link #reload()}. {@link #reload()} (or a change to a config file when
+ * config.watch=ON) builds a new snapshot and swaps it in atomically.
  */
 public final class ConfigManager {
 
-    private static Properties props = new Properties();
+    private static final Path CONFIG_DIR = Paths.get("src/test/resources");
+    private static final String BASE_FILE = "config.properties";
+    private static final Object MISSING = new Object();
+    private static final String ENV_PREFIX = "E2E_";
+
+    private static volatile Snapshot snapshot;
+    private static WatchService watcher;
 
     static {
         try {
-            props.load(new FileInputStream("src/test/resources/config.properties"));
+            snapshot = Snapshot.load();
         } catch (Exception e) {
             throw new RuntimeException("Failed to load config", e);
         }
+        if (snapshot.isOn("config.watch")) {
+            startWatching();
+        }
     }
 
+    private ConfigManager() {}
+
     public static String get(String key) {
-        return System.getProperty(key, props.getProperty(key));
+        return snapshot.get(key);
     }
 
     public static boolean isOn(String key) {
-        return "ON".equalsIgnoreCase(get(key));
+        return snapshot.isOn(key);
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        Snapshot s = snapshot;
+        Object value = s.typed(key, s.ints, "int", Integer::valueOf);
+        return value == MISSING ? defaultValue : (Integer) value;
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        Snapshot s = snapshot;
+        Object value = s.typed(key, s.longs, "long", Long::valueOf);
+        return value == MISSING ? defaultValue : (Long) value;
+    }
+
+    /** true/false, on/off and yes/no, case-insensitive. */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        Snapshot s = snapshot;
+        Object value = s.typed(key, s.booleans, "boolean", ConfigManager::parseBoolean);
+        return value == MISSING ? defaultValue : (Boolean) value;
+    }
+
+    /** ISO-8601 (PT30S), a number with an ms/s/m/h suffix, or a plain number of milliseconds. */
+    public static Duration getDuration(String key, Duration defaultValue) {
+        Snapshot s = snapshot;
+        Object value = s.typed(key, s.durations, "duration", ConfigManager::parseDuration);
+        return value == MISSING ? defaultValue : (Duration) value;
+    }
+
+    /** Keys defined more than once within one config file (the last definition wins). */
+    public static Set<String> duplicateKeys() {
+        return snapshot.duplicates;
+    }
+
+    /** The environment variable that overrides a key: E2E_ + key upper-cased, dots and dashes as underscores. */
+    static String envName(String key) {
+        return ENV_PREFIX + key.toUpperCase(Locale.ROOT).replace('.', '_').replace('-', '_');
+    }
+
+    /**
+     * Re-reads system properties, environment and config files into a new snapshot. Readers keep
+     * using the old one until the swap; if loading fails the old snapshot stays in place.
+     */
+    public static synchronized void reload() {
+        try {
+            snapshot = Snapshot.load();
+        } catch (Exception e) {
+            System.err.println("Config reload failed, keeping previous values: " + e.getMessage());
+        }
+    }
+
+    private static synchronized void startWatching() {
+        if (watcher != null) return;
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            CONFIG_DIR.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            System.err.println("Config watch disabled: " + e.getMessage());
+            return;
+        }
+        Thread thread = new Thread(ConfigManager::watchLoop, "config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    Object context = event.context();
+                    if (context instanceof Path && snapshot.files.contains(context.toString())) {
+                        changed = true;
+                    }
+                }
+                key.reset();
+                if (changed) {
+                    Thread.sleep(100); // editors write in several steps
+                    reload();
+                    System.out.println("Config reloaded from " + CONFIG_DIR);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // watcher stopped
+        }
+    }
+
+    private static Boolean parseBoolean(String value) {
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "true": case "on": case "yes": return Boolean.TRUE;
+            case "false": case "off": case "no": return Boolean.FALSE;
+            default: throw new IllegalArgumentException(value);
+        }
+    }
+
+    private static Duration parseDuration(String value) {
+        String v = value.toLowerCase(Locale.ROOT);
+        try {
+            if (v.startsWith("p")) return Duration.parse(value);
+            if (v.endsWith("ms")) return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2).trim()));
+            if (v.endsWith("s")) return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1).trim()));
+            if (v.endsWith("m")) return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1).trim()));
+            if (v.endsWith("h")) return Duration.ofHours(Long.parseLong(v.substring(0, v.length() - 1).trim()));
+            return Duration.ofMillis(Long.parseLong(v));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(value, e);
+        }
+    }
+
+    // package-private so tests can build one from their own files, environment and properties
+    static final class Snapshot {
+        private final Map<String, String> values;
+        private final Map<String, String> env;
+        private final Set<String> files;
+        final Set<String> duplicates;
+        private final Map<String, Object> envOnly = new ConcurrentHashMap<>();
+        private final Map<String, Object> ints = new ConcurrentHashMap<>();
+        private final Map<String, Object> longs = new ConcurrentHashMap<>();
+        private final Map<String, Object> booleans = new ConcurrentHashMap<>();
+        private final Map<String, Object> durations = new ConcurrentHashMap<>();
+
+        private Snapshot(Map<String, String> values, Map<String, String> env, Set<String> files, Set<String> duplicates) {
+            this.values = values;
+            this.env = env;
+            this.files = files;
+            this.duplicates = duplicates;
+        }
+
+        static Snapshot load() throws IOException {
+            return load(CONFIG_DIR, System.getenv(), System.getProperties());
+        }
+
+        static Snapshot load(Path dir, Map<String, String> env, Properties system) throws IOException {
+            Set<String> files = new LinkedHashSet<>();
+            Set<String> duplicates = new LinkedHashSet<>();
+
+            Map<String, String> values = new HashMap<>(read(dir.resolve(BASE_FILE), duplicates));
+            files.add(BASE_FILE);
+
+            String profile = system.getProperty("config.profile", env.getOrDefault(envName("config.profile"), values.get("config.profile")));
+            if (profile != null && !profile.isBlank()) {
+                String name = "config-" + profile.trim() + ".properties";
+                files.add(name);
+                Path file = dir.resolve(name);
+                if (Files.exists(file)) {
+                    values.putAll(read(file, duplicates));
+                } else {
+                    System.err.println("Config profile file not found: " + file);
+                }
+            }
+
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                String fromEnv = env.get(envName(entry.getKey()));
+                if (fromEnv != null) entry.setValue(fromEnv);
+            }
+            for (String key : system.stringPropertyNames()) {
+                values.put(key, system.getProperty(key));
+            }
+
+            if (!duplicates.isEmpty()) {
+                System.err.println("Config keys defined more than once (last definition wins): " + duplicates);
+            }
+            return new Snapshot(values, env, Collections.unmodifiableSet(files), Collections.unmodifiableSet(duplicates));
+        }
+
+        String get(String key) {
+            String value = values.get(key);
+            if (value != null) return value;
+            // keys absent from every file can still come from the environment
+            Object cached = envOnly.get(key);
+            if (cached == null) cached = envOnly.computeIfAbsent(key, k -> {
+                String fromEnv = env.get(envName(key));
+                return fromEnv == null ? MISSING : fromEnv;
+            });
+            return cached == MISSING ? null : (String) cached;
+        }
+
+        boolean isOn(String key) {
+            return "ON".equalsIgnoreCase(get(key));
+        }
+
+        Object typed(String key, Map<String, Object> cache, String type, Function<String, Object> parser) {
+            Object cached = cache.get(key);
+            if (cached != null) return cached;
+            return cache.computeIfAbsent(key, k -> {
+                String value = get(key);
+                if (value == null || value.isBlank()) return MISSING;
+                try {
+                    return parser.apply(value.trim());
+                } catch (RuntimeException e) {
+                    System.err.println("Invalid " + type + " for config key " + key + ": " + value);
+                    return MISSING;
+                }
+            });
+        }
+
+        // Properties.load calls put() once per entry, which is where repeated keys show up
+        private static Map<String, String> read(Path file, Set<String> duplicates) throws IOException {
+            Map<String, String> entries = new HashMap<>();
+            Properties props = new Properties() {
+                @Override
+                public synchronized Object put(Object key, Object value) {
+                    String k = stripBom(key.toString());
+                    if (entries.put(k, value.toString()) != null) {
+                        duplicates.add(k + " (" + file.getFileName() + ")");
+                    }
+                    return null;
+                }
+            };
+            try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                props.load(reader);
+            }
+            return entries;
+        }
+
+        private static String stripBom(String key) {
+            int i = 0;
+            while (i < key.length() && key.charAt(i) == '\uFEFF') i++;
+            return key.substring(i);
+        }
     }
 }
@@ -0,0 +1,121 @@
+package core.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-side queries over the execution history written by {@link SqlLogger}.
+ * Each call opens its own connection, so it can run while the writer is active; records still
+ * in the writer's queue are not visible until {@link SqlLogger#flush(long)}.
+ */
+public final class ExecutionHistory {
+
+    private ExecutionHistory() {}
+
+    /** Most recent executions of a test, newest first. */
+    public static List<ExecutionRecord> recent(String testName, int limit) {
+        return query("SELECT * FROM test_execution WHERE test_name = ? ORDER BY id DESC LIMIT ?", ps -> {
+            ps.setString(1, testName);
+            ps.setInt(2, limit);
+        }, rs -> {
+            List<ExecutionRecord> out = new ArrayList<>();
+            while (rs.next()) out.add(read(rs));
+            return out;
+        });
+    }
+
+    /** All executions recorded for one run, in insertion order. */
+    public static List<ExecutionRecord> run(String runId) {
+        return query("SELECT * FROM test_execution WHERE run_id = ? ORDER BY id", ps -> ps.setString(1, runId), rs -> {
+            List<ExecutionRecord> out = new ArrayList<>();
+            while (rs.next()) out.add(read(rs));
+            return out;
+        });
+    }
+
+    /** Average duration per test over its last {@code lastN} passing executions. */
+    public static Map<String, Long> averageDurations(int lastN) {
+        return query("SELECT test_name, AVG(duration_ms) FROM ("
+                + "SELECT test_name, duration_ms, ROW_NUMBER() OVER (PARTITION BY test_name ORDER BY id DESC) rn "
+                + "FROM test_execution WHERE status = 'PASS') t WHERE rn <= ? GROUP BY test_name", ps -> ps.setInt(1, lastN), rs -> {
+            Map<String, Long> out = new LinkedHashMap<>();
+            while (rs.next()) out.put(rs.getString(1), rs.getLong(2));
+            return out;
+        });
+    }
+
+    /** Share of FAIL among the last {@code lastN} executions of a test (0 when never run). */
+    public static double failureRate(String testName, int lastN) {
+        return query("SELECT COUNT(*), SUM(CASE WHEN status = 'FAIL' THEN 1 ELSE 0 END) FROM ("
+                + "SELECT status FROM test_execution WHERE test_name = ? AND status IN ('PASS', 'FAIL') "
+                + "ORDER BY id DESC LIMIT ?) t", ps -> {
+            ps.setString(1, testName);
+            ps.setInt(2, lastN);
+        }, rs -> {
+            rs.next();
+            long total = rs.getLong(1);
+            return total == 0 ? 0.0 : rs.getLong(2) / (double) total;
+        });
+    }
+
+    /** Tests that both passed and failed within their last {@code lastN} executions. */
+    public static List<String> flakyTests(int lastN) {
+        return query("SELECT test_name FROM ("
+                + "SELECT test_name, status, ROW_NUMBER() OVER (PARTITION BY test_name ORDER BY id DESC) rn "
+                + "FROM test_execution WHERE status IN ('PASS', 'FAIL')) t WHERE rn <= ? "
+                + "GROUP BY test_name HAVING COUNT(DISTINCT status) > 1 ORDER BY test_name", ps -> ps.setInt(1, lastN), rs -> {
+            List<String> out = new ArrayList<>();
+            while (rs.next()) out.add(rs.getString(1));
+            return out;
+        });
+    }
+
+    /** Failure signatures by number of occurrences across the last {@code runs} runs, most frequent first. */
+    public static Map<String, Long> topFailureSignatures(int runs) {
+        return query("SELECT failure_signature, COUNT(*) c FROM test_execution WHERE failure_signature IS NOT NULL "
+                + "AND run_id IN (SELECT run_id FROM test_execution GROUP BY run_id ORDER BY MAX(id) DESC LIMIT ?) "
+                + "GROUP BY failure_signature ORDER BY c DESC", ps -> ps.setInt(1, runs), rs -> {
+            Map<String, Long> out = new LinkedHashMap<>();
+            while (rs.next()) out.put(rs.getString(1), rs.getLong(2));
+            return out;
+        });
+    }
+
+    private static ExecutionRecord read(ResultSet rs) throws SQLException {
+        return new ExecutionRecord(
+                rs.getString("run_id"),
+                rs.getString("test_name"),
+                rs.getString("thread_name"),
+                rs.getTimestamp("start_time").getTime(),
+                rs.getTimestamp("end_time").getTime(),
+                rs.getString("status"),
+                rs.getString("failure_signature"),
+                rs.getString("message"));
+    }
+
+    private static <T> T query(String sql, Binder binder, Reader<T> reader) {
+        try (Connection connection = SqlLogger.connect();
+             PreparedStatement ps = connection.prepareStatement(sql)) {
+            binder.bind(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                return reader.read(rs);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Execution history query failed: " + e.getMessage(), e);
+        }
+    }
+
+    private interface Binder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    private interface Reader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+}
@@ -0,0 +1,84 @@
+package core.db;
+
+import core.reporting.StreamingReporter;
+import org.testng.ITestResult;
+
+import java.util.regex.Pattern;
+
+/**
+ * One test execution as stored in the execution history.
+ */
+public final class ExecutionRecord {
+
+    private static final Pattern VOLATILE_PARTS = Pattern.compile("'[^']*'|\"[^\"]*\"|0x[0-9a-fA-F]+|\\d+");
+
+    public final String runId;
+    public final String testName;
+    public final String threadName;
+    public final long startMillis;
+    public final long endMillis;
+    public final String status;
+    public final String failureSignature;
+    public final String message;
+
+    public ExecutionRecord(String runId, String testName, String threadName, long startMillis, long endMillis,
+                           String status, String failureSignature, String message) {
+        this.runId = runId;
+        this.testName = testName;
+        this.threadName = threadName;
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+        this.status = status;
+        this.failureSignature = failureSignature;
+        this.message = message;
+    }
+
+    public static ExecutionRecord of(ITestResult result) {
+        String status;
+        switch (result.getStatus()) {
+            case ITestResult.SUCCESS: status = "PASS"; break;
+            case ITestResult.FAILURE: status = "FAIL"; break;
+            case ITestResult.SKIP: status = "SKIP"; break;
+            default: status = "UNKNOWN";
+        }
+        Throwable error = result.getThrowable();
+        return new ExecutionRecord(
+                StreamingReporter.runId(),
+                result.getMethod().getQualifiedName(),
+                Thread.currentThread().getName(),
+                result.getStartMillis(),
+                result.getEndMillis() > 0 ? result.getEndMillis() : System.currentTimeMillis(),
+                status,
+                "FAIL".equals(status) ? failureSignature(error) : null,
+                error == null ? null : error.getMessage());
+    }
+
+    public long durationMillis() {
+        return Math.max(0, endMillis - startMillis);
+    }
+
+    /**
+     * Groups failures with the same cause across runs: exception type, the first message line
+     * with numbers and quoted values masked, and the first stack frame outside JDK/Selenium/TestNG.
+     */
+    public static String failureSignature(Throwable error) {
+        if (error == null) return null;
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        String message = root.getMessage() == null ? "" : root.getMessage().split("\\R", 2)[0];
+        StringBuilder sig = new StringBuilder(root.getClass().getName());
+        if (!message.isEmpty()) {
+            sig.append(": ").append(VOLATILE_PARTS.matcher(message).replaceAll("#"));
+        }
+        for (StackTraceElement frame : root.getStackTrace()) {
+            String cls = frame.getClassName();
+            if (cls.startsWith("java.") || cls.startsWith("jdk.") || cls.startsWith("sun.")
+                    || cls.startsWith("org.openqa.") || cls.startsWith("org.testng.")) continue;
+            sig.append(" @ ").append(cls).append('.').append(frame.getMethodName());
+            break;
+        }
+        return sig.length() > 512 ? sig.substring(0, 512) : sig.toString();
+    }
+}
@@ -1,19 +1,189 @@
 package core.db;
 
+import core.config.ConfigManager;
 import core.reporting.ExtentManager;
+import core.reporting.RunMetrics;
+import core.reporting.StreamingReporter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * Simple SQL logger placeholder
+ * Execution history persistence.
+ * With history.db=ON, records go into a bounded queue (history.queue.capacity) and a single
+ * writer thread commits them to an embedded H2 database (history.db.url) in batched inserts, so
+ * test threads never wait on I/O. When the queue is full records are dropped and counted rather
+ * than blocking the test. Query the data through {@link ExecutionHistory}.
  */
 public final class SqlLogger {
 
+    private static final int MAX_BATCH = 500;
+    private static final String INSERT = "INSERT INTO test_execution "
+            + "(run_id, test_name, thread_name, start_time, end_time, duration_ms, status, failure_signature, message) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final BlockingQueue<ExecutionRecord> queue =
+            new ArrayBlockingQueue<>(Math.max(16, ConfigManager.getInt("history.queue.capacity", 10_000)));
+    private static final AtomicLong submitted = new AtomicLong();
+    private static final AtomicLong written = new AtomicLong();
+    private static Thread writer;
+    private static volatile boolean closing;
+
     private SqlLogger() {}
 
+    public static boolean isEnabled() {
+        return ConfigManager.isOn("history.db");
+    }
+
     public static void logExecution(String testName, String scenario, String user, String status, String logs) {
         System.out.println("SQL LOG -> " + testName + " | " + status + " | " + logs);
         try {
             // Best-effort: also write to Extent report without changing test outcome
             ExtentManager.log("SQL LOG -> " + testName + " | " + status + " | " + logs);
         } catch (Exception ignored) {}
+        long now = System.currentTimeMillis();
+        record(new ExecutionRecord(StreamingReporter.runId(), testName, Thread.currentThread().getName(),
+                now, now, status, null, logs));
+    }
+
+    /** Queues a record for the writer thread; never blocks. */
+    public static void record(ExecutionRecord record) {
+        if (!isEnabled() || closing) return;
+        ensureWriter();
+        if (queue.offer(record)) {
+            submitted.incrementAndGet();
+        } else {
+            RunMetrics.increment("history.records.dropped");
+        }
+    }
+
+    /** Waits until everything queued so far is committed (bounded by the timeout). */
+    public static boolean flush(long timeoutMs) {
+        long target = submitted.get();
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (written.get() < target) {
+            if (System.currentTimeMillis() > deadline || writer == null || !writer.isAlive()) return false;
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Commits what is queued and stops the writer (end of suite). */
+    public static void shutdown() {
+        Thread w;
+        synchronized (SqlLogger.class) {
+            w = writer;
+        }
+        if (w == null) return;
+        if (!flush(30_000)) {
+            System.err.println("Execution history: " + (submitted.get() - written.get()) + " records not written");
+        }
+        closing = true; // not interrupted: H2 closes its file channel on interrupt
+        try {
+            w.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static String url() {
+        String url = ConfigManager.get("history.db.url");
+        return url == null || url.isBlank() ? "jdbc:h2:./reports/history/executions" : url.trim();
+    }
+
+    static Connection connect() throws SQLException {
+        Connection connection = java.sql.DriverManager.getConnection(url(), "sa", "");
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS test_execution ("
+                    + "id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                    + "run_id VARCHAR(64) NOT NULL, "
+                    + "test_name VARCHAR(512) NOT NULL, "
+                    + "thread_name VARCHAR(128), "
+                    + "start_time TIMESTAMP, "
+                    + "end_time TIMESTAMP, "
+                    + "duration_ms BIGINT, "
+                    + "status VARCHAR(16) NOT NULL, "
+                    + "failure_signature VARCHAR(512), "
+                    + "message VARCHAR(2000))");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_execution_test ON test_execution (test_name, id)");
+            st.execute("CREATE INDEX IF NOT EXISTS idx_execution_run ON test_execution (run_id)");
+        }
+        return connection;
+    }
+
+    private static synchronized void ensureWriter() {
+        if (writer != null) return;
+        writer = new Thread(SqlLogger::run, "execution-history-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private static void run() {
+        List<ExecutionRecord> batch = new ArrayList<>(MAX_BATCH);
+        try (Connection connection = connect()) {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                while (!closing || !queue.isEmpty()) {
+                    ExecutionRecord first;
+                    try {
+                        first = queue.poll(200, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        continue;
+                    }
+                    if (first == null) continue;
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    write(connection, insert, batch);
+                    batch.clear();
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Execution history disabled: " + e.getMessage());
+            queue.clear();
+        }
+    }
+
+    private static void write(Connection connection, PreparedStatement insert, List<ExecutionRecord> batch) {
+        try {
+            for (ExecutionRecord r : batch) {
+                insert.setString(1, r.runId);
+                insert.setString(2, truncate(r.testName, 512));
+                insert.setString(3, truncate(r.threadName, 128));
+                insert.setTimestamp(4, new Timestamp(r.startMillis));
+                insert.setTimestamp(5, new Timestamp(r.endMillis));
+                insert.setLong(6, r.durationMillis());
+                insert.setString(7, r.status);
+                insert.setString(8, r.failureSignature);
+                insert.setString(9, truncate(r.message, 2000));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+            connection.commit();
+            RunMetrics.add("history.records.written", batch.size());
+        } catch (SQLException e) {
+            System.err.println("Execution history batch of " + batch.size() + " lost: " + e.getMessage());
+            try { connection.rollback(); } catch (SQLException ignored) {}
+        } finally {
+            // counted either way so flush() does not wait for records that will never land
+            written.addAndGet(batch.size());
+        }
+    }
+
+    private static String truncate(String value, int max) {
+        return value == null || value.length() <= max ? value : value.substring(0, max);
     }
 }
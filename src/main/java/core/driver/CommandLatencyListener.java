@@ -0,0 +1,58 @@
+package core.driver;
+
+import core.reporting.CommandLatency;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every call on the decorated driver (and the elements, navigation and switchTo objects
+ * it hands out) into {@link CommandLatency}. Failed calls are timed too.
+ */
+public final class CommandLatencyListener implements WebDriverListener {
+
+    public static final CommandLatencyListener INSTANCE = new CommandLatencyListener();
+
+    private static final Map<Method, Integer> ids = new ConcurrentHashMap<>();
+    private static final ThreadLocal<long[]> starts = ThreadLocal.withInitial(() -> new long[9]);
+
+    private CommandLatencyListener() {}
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        long[] stack = starts.get();
+        int depth = (int) stack[0];
+        if (depth < stack.length - 1) {
+            stack[depth + 1] = System.nanoTime();
+        }
+        stack[0] = depth + 1;
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        finish(method);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        finish(method);
+    }
+
+    private static void finish(Method method) {
+        long now = System.nanoTime();
+        long[] stack = starts.get();
+        int depth = (int) stack[0];
+        if (depth == 0) return;
+        stack[0] = depth - 1;
+        if (depth < stack.length) {
+            Integer id = ids.get(method);
+            if (id == null) {
+                id = ids.computeIfAbsent(method, m -> CommandLatency.commandId(m.getName()));
+            }
+            CommandLatency.record(id, now - stack[depth]);
+        }
+    }
+}
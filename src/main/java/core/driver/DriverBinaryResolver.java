@@ -0,0 +1,171 @@
+package core.driver;
+
+import core.config.ConfigManager;
+import io.github.bonigarcia.wdm.WebDriverManager;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Resolves local driver binaries once per JVM and remembers them in an on-disk manifest,
+ * so later runs start without any network lookups (and work on air-gapped agents).
+ */
+public final class DriverBinaryResolver {
+
+    private static final Map<String, String> resolved = new ConcurrentHashMap<>();
+
+    static Supplier<Path> manifestPath = DriverBinaryResolver::configuredManifestPath; // replaced by tests
+    static Function<String, String> browserStamp = DriverBinaryResolver::installedBrowserStamp; // replaced by tests
+    static BiConsumer<String, Properties> download = DriverBinaryResolver::download; // replaced by tests
+    static BooleanSupplier offline = () -> ConfigManager.isOn("driver.resolve.offline"); // replaced by tests
+    static LongSupplier clock = System::currentTimeMillis; // replaced by tests
+
+    private DriverBinaryResolver() {}
+
+    /**
+     * Makes sure the driver binary for the given browser ("chrome" or "firefox") is registered
+     * via its webdriver.*.driver system property.
+     */
+    public static void resolve(String browser) {
+        String key = browser.toLowerCase();
+        resolved.computeIfAbsent(key, DriverBinaryResolver::resolveOnce);
+    }
+
+    private static String resolveOnce(String browser) {
+        String systemProperty = driverSystemProperty(browser);
+        Path manifestPath = DriverBinaryResolver.manifestPath.get();
+        Properties manifest = load(manifestPath);
+        String browserStamp = DriverBinaryResolver.browserStamp.apply(browser);
+
+        String cached = manifest.getProperty(browser + ".driver.path");
+        boolean present = cached != null && new File(cached).canExecute();
+        if (present && !isStale(manifest, browser, browserStamp)) {
+            System.setProperty(systemProperty, cached);
+            return cached;
+        }
+
+        if (offline.getAsBoolean()) {
+            if (present) {
+                System.out.println("Offline driver resolution: using possibly stale " + browser + " driver " + cached);
+                System.setProperty(systemProperty, cached);
+                return cached;
+            }
+            throw new RuntimeException("Offline driver resolution requested but no " + browser
+                    + " driver is recorded in " + manifestPath);
+        }
+
+        try {
+            download.accept(browser, manifest);
+            manifest.setProperty(browser + ".browser.stamp", browserStamp);
+            manifest.setProperty(browser + ".resolved.at", String.valueOf(clock.getAsLong()));
+            store(manifest, manifestPath);
+            return manifest.getProperty(browser + ".driver.path");
+        } catch (RuntimeException e) {
+            if (present) {
+                System.err.println("Driver resolution failed (" + e.getMessage() + "); falling back to cached "
+                        + browser + " driver " + cached);
+                System.setProperty(systemProperty, cached);
+                return cached;
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isStale(Properties manifest, String browser, String browserStamp) {
+        if (!browserStamp.equals(manifest.getProperty(browser + ".browser.stamp"))) {
+            return true;
+        }
+        long maxAgeMs = TimeUnit.DAYS.toMillis(ConfigManager.getInt("driver.manifest.max.age.days", 30));
+        try {
+            long resolvedAt = Long.parseLong(manifest.getProperty(browser + ".resolved.at", "0").trim());
+            return clock.getAsLong() - resolvedAt > maxAgeMs;
+        } catch (NumberFormatException e) {
+            // hand-edited or truncated manifest: resolve again rather than fail driver setup
+            return true;
+        }
+    }
+
+    /** Forgets what this JVM resolved, so the next {@link #resolve(String)} reads the manifest again (tests only). */
+    static void reset() {
+        resolved.clear();
+    }
+
+    // WebDriverManager downloads (or finds in its cache) the driver and registers its system property
+    private static void download(String browser, Properties manifest) {
+        WebDriverManager wdm = manager(browser);
+        wdm.setup();
+        manifest.setProperty(browser + ".driver.path", wdm.getDownloadedDriverPath());
+        manifest.setProperty(browser + ".driver.version", String.valueOf(wdm.getDownloadedDriverVersion()));
+    }
+
+    // Browser upgrades replace the binary, so path + size + mtime identifies the installed version offline.
+    private static String installedBrowserStamp(String browser) {
+        try {
+            Optional<Path> path = manager(browser).getBrowserPath();
+            if (path.isPresent()) {
+                File f = path.get().toFile();
+                return f.getAbsolutePath() + "|" + f.length() + "|" + f.lastModified();
+            }
+        } catch (Exception ignored) {}
+        return "unknown";
+    }
+
+    private static WebDriverManager manager(String browser) {
+        if ("firefox".equals(browser)) {
+            return WebDriverManager.firefoxdriver();
+        }
+        return WebDriverManager.chromedriver();
+    }
+
+    private static String driverSystemProperty(String browser) {
+        return "firefox".equals(browser) ? "webdriver.gecko.driver" : "webdriver.chrome.driver";
+    }
+
+    private static Path configuredManifestPath() {
+        String configured = ConfigManager.get("driver.manifest.path");
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(System.getProperty("user.home"), ".cache", "selenium-e2e", "driver-manifest.properties");
+    }
+
+    private static Properties load(Path path) {
+        Properties props = new Properties();
+        if (Files.exists(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                props.load(in);
+            } catch (Exception e) {
+                System.err.println("Ignoring unreadable driver manifest " + path + ": " + e.getMessage());
+            }
+        }
+        return props;
+    }
+
+    private static synchronized void store(Properties props, Path path) {
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Path tmp = Files.createTempFile(path.toAbsolutePath().getParent(), "driver-manifest", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                props.store(out, "Resolved WebDriver binaries");
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            System.err.println("Could not write driver manifest " + path + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,14 +1,25 @@
 package core.driver;
 
 import core.config.ConfigManager;
-import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.PageLoadStrategy;
+import org.openqa.selenium.SessionNotCreatedException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
 import org.openqa.selenium.firefox.FirefoxDriver;
 import org.openqa.selenium.firefox.FirefoxOptions;
+import org.openqa.selenium.remote.AbstractDriverOptions;
 import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+import core.reporting.CommandLatency;
+import core.reporting.RunMetrics;
+import core.utils.ElementCache;
+
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Driver factory to create WebDriver instances for LOCAL, DOCKER (Selenium Grid), and remote (LAMBDATEST) execution.
@@ -18,6 +29,67 @@ public final class DriverFactory {
     private DriverFactory() {}
 
     public static WebDriver createDriver() {
+        return createDriver(NetworkProfile.current());
+    }
+
+    /**
+     * Creates a driver for the given network profile (null for none), for sessions started on
+     * behalf of a test from another thread.
+     */
+    public static WebDriver createDriver(NetworkProfile profile) {
+        long start = System.nanoTime();
+        WebDriver driver = createUndecoratedDriver(profile);
+        if (ConfigManager.isOn("driver.latency")) {
+            CommandLatency.record("newSession", System.nanoTime() - start);
+        }
+        WebDriver decorated = decorate(driver);
+        NetworkInterceptor.register(decorated, driver);
+        return decorated;
+    }
+
+    /**
+     * Applies the network profile's page load strategy; it is fixed for the session's lifetime,
+     * so pooled sessions keep the one they started with.
+     */
+    private static <T extends AbstractDriverOptions<?>> T withNetworkProfile(T options, NetworkProfile profile) {
+        if (profile != null && profile.isEager()) {
+            options.setPageLoadStrategy(PageLoadStrategy.EAGER);
+        }
+        return options;
+    }
+
+    /**
+     * Wraps the driver with the framework's WebDriver listeners, if any are enabled.
+     */
+    private static WebDriver decorate(WebDriver driver) {
+        List<WebDriverListener> listeners = new ArrayList<>();
+        if (ConfigManager.isOn("driver.latency")) {
+            listeners.add(CommandLatencyListener.INSTANCE);
+        }
+        if (ElementCache.isEnabled()) {
+            listeners.add(ElementCache.INVALIDATOR);
+        }
+        if (listeners.isEmpty()) {
+            return driver;
+        }
+        return new EventFiringDecorator<>(listeners.toArray(new WebDriverListener[0])).decorate(driver);
+    }
+
+    private static WebDriver createGridDriver(String gridUrl, Capabilities opts) {
+        GridAdmissionController.Admission admission =
+                GridAdmissionController.isEnabled() ? GridAdmissionController.shared().admit() : null;
+        try {
+            WebDriver driver = new RemoteWebDriver(new URL(gridUrl), opts);
+            if (admission != null) admission.started();
+            return driver;
+        } catch (Exception e) {
+            if (admission != null) admission.failed(e);
+            if (e instanceof SessionNotCreatedException) throw (SessionNotCreatedException) e;
+            throw new SessionNotCreatedException("Grid session creation failed at " + gridUrl + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static WebDriver createUndecoratedDriver(NetworkProfile profile) {
         String mode = ConfigManager.get("execution.mode");
         String browser = ConfigManager.get("browser");
 
@@ -25,26 +97,34 @@ public final class DriverFactory {
             mode = "LOCAL";
         }
 
-        // Docker Selenium Grid execution
+        // Docker Selenium Grid execution: admitted by GridAdmissionController, LOCAL only if grid.fallback.local=ON
         if ("DOCKER".equalsIgnoreCase(mode)) {
             String gridUrl = ConfigManager.get("docker.hub.url");
             if (gridUrl != null && gridUrl.startsWith("http")) {
-                try {
-                    if (browser == null || "CHROME".equalsIgnoreCase(browser)) {
-                        ChromeOptions opts = new ChromeOptions();
-                        opts.addArguments("--disable-gpu");
-                        opts.addArguments("--no-sandbox");
-                        opts.addArguments("--disable-dev-shm-usage");
-                        return new RemoteWebDriver(new URL(gridUrl), opts);
-                    } else if ("FIREFOX".equalsIgnoreCase(browser)) {
-                        FirefoxOptions opts = new FirefoxOptions();
-                        return new RemoteWebDriver(new URL(gridUrl), opts);
+                Capabilities opts = null;
+                if (browser == null || "CHROME".equalsIgnoreCase(browser)) {
+                    ChromeOptions chrome = new ChromeOptions();
+                    chrome.addArguments("--disable-gpu");
+                    chrome.addArguments("--no-sandbox");
+                    chrome.addArguments("--disable-dev-shm-usage");
+                    opts = withNetworkProfile(chrome, profile);
+                } else if ("FIREFOX".equalsIgnoreCase(browser)) {
+                    opts = withNetworkProfile(new FirefoxOptions(), profile);
+                }
+                if (opts != null) {
+                    try {
+                        return createGridDriver(gridUrl, opts);
+                    } catch (RuntimeException e) {
+                        if (!ConfigManager.isOn("grid.fallback.local")) throw e;
+                        System.err.println("Docker WebDriver creation failed, falling back to LOCAL (grid.fallback.local=ON): " + e.getMessage());
+                        RunMetrics.increment("grid.fallback.local");
                     }
-                } catch (Exception e) {
-                    System.err.println("Docker WebDriver creation failed, falling back to LOCAL: " + e.getMessage());
                 }
-            } else {
+            } else if (ConfigManager.isOn("grid.fallback.local")) {
                 System.out.println("DOCKER mode requested but docker.hub.url is not configured; falling back to LOCAL");
+            } else {
+                throw new SessionNotCreatedException("DOCKER mode requested but docker.hub.url is not configured "
+                        + "(set grid.fallback.local=ON to run locally instead)");
             }
         }
 
@@ -55,7 +135,7 @@ public final class DriverFactory {
                 try {
                     ChromeOptions opts = new ChromeOptions();
                     opts.addArguments("--disable-gpu");
-                    return new RemoteWebDriver(new URL(remoteUrl), opts);
+                    return new RemoteWebDriver(new URL(remoteUrl), withNetworkProfile(opts, profile));
                 } catch (Exception e) {
                     System.err.println("Remote WebDriver creation failed, falling back to LOCAL: " + e.getMessage());
                 }
@@ -66,22 +146,22 @@ public final class DriverFactory {
 
         // Default: LOCAL execution
         if (browser == null || "CHROME".equalsIgnoreCase(browser)) {
-            WebDriverManager.chromedriver().setup();
+            DriverBinaryResolver.resolve("chrome");
             ChromeOptions options = new ChromeOptions();
             options.addArguments("--no-sandbox");
             options.addArguments("--disable-dev-shm-usage");
             // run headless by default in CI if property set
-            if ("true".equalsIgnoreCase(System.getProperty("headless"))) {
+            if (ConfigManager.getBoolean("headless", false)) {
                 options.addArguments("--headless=new");
             }
-            return new ChromeDriver(options);
+            return new ChromeDriver(withNetworkProfile(options, profile));
         } else if ("FIREFOX".equalsIgnoreCase(browser)) {
-            WebDriverManager.firefoxdriver().setup();
+            DriverBinaryResolver.resolve("firefox");
             FirefoxOptions options = new FirefoxOptions();
-            if ("true".equalsIgnoreCase(System.getProperty("headless"))) {
+            if (ConfigManager.getBoolean("headless", false)) {
                 options.addArguments("--headless");
             }
-            return new FirefoxDriver(options);
+            return new FirefoxDriver(withNetworkProfile(options, profile));
         }
 
         throw new RuntimeException("Unsupported browser: " + browser);
@@ -1,29 +1,183 @@
 package core.driver;
 
+import core.config.ConfigManager;
+import core.execution.TestContext;
+import core.reporting.RunMetrics;
 import org.openqa.selenium.WebDriver;
 
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
 /**
- * Thread-safe WebDriver manager (Singleton + ThreadLocal)
+ * Thread-safe WebDriver manager; the driver lives in the current test's {@link TestContext}.
+ * When the session pool is enabled this is a thin view over the current thread's lease.
+ * With driver.lazy=ON, {@link #initDriver()} binds a handle that only acquires a session on the
+ * first WebDriver command; tests that never issue one never start a browser.
+ * With grid.capacity &gt; 0, at most that many tests hold a session at once (fair FIFO); the rest
+ * wait before session creation, so thread-count can exceed what the Grid can serve.
+ * Every acquired session is switched to the test's {@link NetworkProfile} (or has its rules cleared)
+ * and, for tests with a login role, restored to that role's cached login state ({@link SessionStateCache}).
  */
 public final class DriverManager {
 
-    private static ThreadLocal<WebDriver> driver = new ThreadLocal<>();
+    private static volatile Semaphore capacity;
 
     private DriverManager() {}
 
     public static WebDriver getDriver() {
-        return driver.get();
+        TestContext context = TestContext.peek();
+        return context == null ? null : context.getDriver();
     }
 
     // made public so callers outside the package (listeners/tests) can set the driver
     public static void setDriver(WebDriver webDriver) {
-        driver.set(webDriver);
+        TestContext.get().setDriver(webDriver);
+    }
+
+    /**
+     * The current thread's session, or null when there is none or its lazy handle never started
+     * one. For work that should not start a browser by itself (screenshots, video).
+     */
+    public static WebDriver getStartedDriver() {
+        return LazyDriver.unwrap(getDriver());
+    }
+
+    /**
+     * Runs the action once the current thread's session has started: right away for an eager
+     * driver, on the first command for a lazy one. Does nothing when no driver is bound.
+     */
+    public static void whenStarted(Runnable action) {
+        WebDriver webDriver = getDriver();
+        if (webDriver != null && !LazyDriver.whenStarted(webDriver, action)) {
+            action.run();
+        }
+    }
+
+    /**
+     * Leases a session from the pool, collects a prefetched one, or creates a fresh one,
+     * and binds it to the current thread (deferred to the first command with driver.lazy=ON).
+     */
+    public static WebDriver initDriver() {
+        WebDriver webDriver = ConfigManager.isOn("driver.lazy") ? LazyDriver.create(DriverManager::acquire) : acquire();
+        setDriver(webDriver);
+        return webDriver;
     }
 
     public static void quitDriver() {
-        if (driver.get() != null) {
-            driver.get().quit();
-            driver.remove();
+        TestContext context = TestContext.peek();
+        WebDriver webDriver = context == null ? null : context.getDriver();
+        if (webDriver != null) {
+            try {
+                WebDriver session = LazyDriver.unwrap(webDriver);
+                if (session == null) {
+                    if (LazyDriver.isUnused(webDriver)) RunMetrics.increment("driver.sessions.avoided");
+                } else {
+                    release(session);
+                }
+            } finally {
+                context.setDriver(null);
+                context.setNetworkProfile(null);
+                context.setSessionRole(null);
+                releaseCapacity(context);
+            }
+        }
+    }
+
+    /**
+     * Requests blocked/stubbed and bytes saved by the network profile of the current thread's
+     * session since the test acquired it, or null when no profile is active.
+     */
+    public static String networkSavings() {
+        WebDriver session = getStartedDriver();
+        return session == null ? null : NetworkInterceptor.takeSummary(session);
+    }
+
+    /** Tests currently waiting for a grid.capacity permit (0 when capacity is unlimited). */
+    public static int waitingForCapacity() {
+        Semaphore permits = capacity;
+        return permits == null ? 0 : permits.getQueueLength();
+    }
+
+    private static WebDriver acquire() {
+        TestContext context = TestContext.get();
+        boolean prefetch = !DriverPool.isEnabled() && DriverPrefetcher.isEnabled();
+        if (!prefetch || !DriverPrefetcher.handOverCapacity(context)) {
+            acquireCapacity(context);
+        }
+        try {
+            WebDriver webDriver;
+            if (DriverPool.isEnabled()) {
+                webDriver = DriverPool.lease();
+            } else if (prefetch) {
+                webDriver = DriverPrefetcher.take();
+            } else {
+                webDriver = DriverFactory.createDriver();
+            }
+            NetworkInterceptor.use(webDriver, NetworkProfile.current());
+            if (context.getSessionRole() != null) {
+                try {
+                    SessionStateCache.apply(webDriver, context.getSessionRole());
+                } catch (RuntimeException e) {
+                    release(webDriver);
+                    throw e;
+                }
+            }
+            return webDriver;
+        } catch (RuntimeException e) {
+            releaseCapacity(context);
+            throw e;
+        }
+    }
+
+    private static void release(WebDriver session) {
+        if (DriverPool.isEnabled()) {
+            DriverPool.release(session);
+        } else {
+            NetworkInterceptor.forget(session);
+            session.quit();
+            GridAdmissionController.notifySessionClosed();
+        }
+    }
+
+    private static void acquireCapacity(TestContext context) {
+        Semaphore permits = capacity();
+        if (permits == null || context.isCapacityHeld()) return;
+        long start = System.nanoTime();
+        long timeout = ConfigManager.getDuration("grid.capacity.timeout", Duration.ofMinutes(30)).toMillis();
+        try {
+            if (!permits.tryAcquire(timeout, TimeUnit.MILLISECONDS)) {
+                throw new RuntimeException("No grid capacity available after " + timeout + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for grid capacity", e);
+        }
+        context.setCapacityHeld(true);
+        RunMetrics.add("grid.capacity.wait.ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void releaseCapacity(TestContext context) {
+        if (!context.isCapacityHeld()) return;
+        context.setCapacityHeld(false);
+        capacity.release();
+    }
+
+    /** The grid.capacity permits, or null when capacity is unlimited; for sessions started ahead of their test. */
+    static Semaphore capacityPermits() {
+        return capacity();
+    }
+
+    private static Semaphore capacity() {
+        Semaphore permits = capacity;
+        if (permits == null) {
+            int size = ConfigManager.getInt("grid.capacity", 0);
+            if (size <= 0) return null;
+            synchronized (DriverManager.class) {
+                if (capacity == null) capacity = new Semaphore(size, true);
+                permits = capacity;
+            }
         }
+        return permits;
     }
 }
@@ -0,0 +1,298 @@
+package core.driver;
+
+import core.config.ConfigManager;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of warm WebDriver sessions. Tests lease a ready session and return it afterwards.
+ * Returned Chromium sessions are reset before reuse: all windows are replaced by one fresh tab
+ * (new sessionStorage and history), cookies of every domain are cleared and storage is cleared
+ * for every origin in the old tabs' history, all through DevTools. Other browsers cannot
+ * enumerate that state, so their sessions are quit on return instead of reused.
+ */
+public final class DriverPool {
+
+    private static final BlockingDeque<PooledSession> idle = new LinkedBlockingDeque<>();
+    private static final Map<WebDriver, PooledSession> leased =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+
+    // not a monitor: shutdown quits sessions over HTTP and must not pin a virtual thread's carrier
+    private static final ReentrantLock lifecycle = new ReentrantLock();
+    private static volatile Semaphore permits;
+    private static volatile boolean draining;
+    private static ScheduledExecutorService evictor;
+    private static boolean shutdownHookAdded;
+    private static volatile boolean warnedNoCdp;
+
+    // replaced by tests
+    static Supplier<WebDriver> factory = DriverFactory::createDriver;
+    static LongSupplier clock = System::currentTimeMillis;
+
+    private DriverPool() {}
+
+    public static boolean isEnabled() {
+        return ConfigManager.isOn("driver.pool.enabled");
+    }
+
+    /**
+     * @throws IllegalStateException after {@link #drainIdle()}, until the next {@link #shutdown()}
+     */
+    public static WebDriver lease() {
+        if (draining) throw new IllegalStateException("WebDriver pool is draining: the run is stopping");
+        init();
+        int timeout = ConfigManager.getInt("driver.pool.lease.timeout.seconds", 300);
+        try {
+            if (!permits.tryAcquire(timeout, TimeUnit.SECONDS)) {
+                throw new RuntimeException("No pooled WebDriver session available after " + timeout + "s");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a pooled WebDriver session", e);
+        }
+
+        try {
+            PooledSession session;
+            while ((session = idle.pollFirst()) != null) {
+                if (!isExpired(session) && isHealthy(session.driver)) {
+                    break;
+                }
+                destroy(session);
+            }
+            if (session == null) {
+                session = new PooledSession(factory.get());
+            }
+            session.uses++;
+            leased.put(session.driver, session);
+            return session.driver;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public static void release(WebDriver driver) {
+        if (driver == null) return;
+        PooledSession session = leased.remove(driver);
+        if (session == null) {
+            // not one of ours (e.g. created before the pool was enabled)
+            quietQuit(driver);
+            return;
+        }
+        try {
+            int maxUses = ConfigManager.getInt("driver.pool.max.uses", 50);
+            if (draining || session.uses >= maxUses || !reset(driver)) {
+                destroy(session);
+            } else {
+                session.lastReturned = clock.getAsLong();
+                idle.offerFirst(session);
+                // drainIdle() may have emptied the deque between the check above and the offer
+                if (draining && idle.remove(session)) destroy(session);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Quits idle sessions and stops new leases while the tests that hold a session finish; each
+     * of those sessions is quit when it is released. For ending a run early (fail-fast).
+     */
+    public static void drainIdle() {
+        lifecycle.lock();
+        try {
+            draining = true;
+            PooledSession session;
+            while ((session = idle.pollFirst()) != null) {
+                destroy(session);
+            }
+        } finally {
+            lifecycle.unlock();
+        }
+    }
+
+    /**
+     * Quits idle sessions and any still leased (their tests are over or being aborted); a later
+     * {@link #release} of such a session is a plain quit. The pool can be used again afterwards.
+     */
+    public static void shutdown() {
+        lifecycle.lock();
+        try {
+            PooledSession session;
+            while ((session = idle.pollFirst()) != null) {
+                destroy(session);
+            }
+            List<PooledSession> stillLeased;
+            synchronized (leased) {
+                stillLeased = new ArrayList<>(leased.values());
+                leased.clear();
+            }
+            for (PooledSession s : stillLeased) {
+                destroy(s);
+                permits.release();
+            }
+            if (evictor != null) {
+                evictor.shutdownNow();
+                evictor = null;
+            }
+            draining = false;
+        } finally {
+            lifecycle.unlock();
+        }
+    }
+
+    public static int idleCount() {
+        return idle.size();
+    }
+
+    public static int leasedCount() {
+        return leased.size();
+    }
+
+    private static void init() {
+        lifecycle.lock();
+        try {
+            if (permits == null) {
+                permits = new Semaphore(ConfigManager.getInt("driver.pool.size", 4), true);
+            }
+            if (evictor == null) {
+                evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread t = new Thread(r, "driver-pool-evictor");
+                    t.setDaemon(true);
+                    return t;
+                });
+                evictor.scheduleWithFixedDelay(DriverPool::evictIdle, 30, 30, TimeUnit.SECONDS);
+            }
+            if (!shutdownHookAdded) {
+                shutdownHookAdded = true;
+                Runtime.getRuntime().addShutdownHook(new Thread(DriverPool::shutdown, "driver-pool-shutdown"));
+            }
+        } finally {
+            lifecycle.unlock();
+        }
+    }
+
+    private static void evictIdle() {
+        Iterator<PooledSession> it = idle.iterator();
+        while (it.hasNext()) {
+            PooledSession session = it.next();
+            if (isExpired(session) && idle.remove(session)) {
+                destroy(session);
+            }
+        }
+    }
+
+    private static boolean isExpired(PooledSession session) {
+        long timeoutMs = ConfigManager.getInt("driver.pool.idle.timeout.seconds", 300) * 1000L;
+        return clock.getAsLong() - session.lastReturned > timeoutMs;
+    }
+
+    private static boolean isHealthy(WebDriver driver) {
+        try {
+            return driver.getWindowHandle() != null;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static boolean reset(WebDriver driver) {
+        HasCdp cdp = driver instanceof HasCdp ? (HasCdp) driver : NetworkInterceptor.cdp(driver);
+        if (cdp == null) {
+            if (!warnedNoCdp) {
+                warnedNoCdp = true;
+                System.err.println("Pooled sessions are only reused on Chromium browsers (clearing every origin's "
+                        + "state needs DevTools); other sessions are quit on return");
+            }
+            return false;
+        }
+        try {
+            try { driver.switchTo().alert().dismiss(); } catch (Exception ignored) {}
+
+            Set<String> origins = new LinkedHashSet<>();
+            Set<String> handles = driver.getWindowHandles();
+            for (String handle : handles) {
+                driver.switchTo().window(handle);
+                origins.addAll(visitedOrigins(cdp));
+            }
+            // a new tab starts with empty sessionStorage and history, so the old ones are just closed
+            String fresh = driver.switchTo().newWindow(WindowType.TAB).getWindowHandle();
+            for (String handle : handles) {
+                driver.switchTo().window(handle);
+                driver.close();
+            }
+            driver.switchTo().window(fresh);
+
+            cdp.executeCdpCommand("Network.clearBrowserCookies", Map.of());
+            for (String origin : origins) {
+                cdp.executeCdpCommand("Storage.clearDataForOrigin", Map.of("origin", origin, "storageTypes", "all"));
+            }
+            return true;
+        } catch (Exception e) {
+            System.err.println("Pooled WebDriver reset failed, recycling session: " + e.getMessage());
+            return false;
+        }
+    }
+
+    // origins of the current tab's history; state from cross-origin iframes is not covered
+    private static Set<String> visitedOrigins(HasCdp cdp) {
+        Set<String> origins = new LinkedHashSet<>();
+        Object entries = cdp.executeCdpCommand("Page.getNavigationHistory", Map.of()).get("entries");
+        if (!(entries instanceof List)) return origins;
+        for (Object entry : (List<?>) entries) {
+            if (!(entry instanceof Map)) continue;
+            try {
+                URI url = URI.create(String.valueOf(((Map<?, ?>) entry).get("url")));
+                if (url.getScheme() != null && url.getScheme().startsWith("http") && url.getAuthority() != null) {
+                    origins.add(url.getScheme() + "://" + url.getAuthority());
+                }
+            } catch (IllegalArgumentException ignored) {
+                // not a URL we can clear state for
+            }
+        }
+        return origins;
+    }
+
+    private static void destroy(PooledSession session) {
+        quietQuit(session.driver);
+    }
+
+    private static void quietQuit(WebDriver driver) {
+        NetworkInterceptor.forget(driver);
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            System.err.println("WebDriver quit failed: " + e.getMessage());
+        }
+        GridAdmissionController.notifySessionClosed();
+    }
+
+    private static final class PooledSession {
+        private final WebDriver driver;
+        private int uses;
+        private long lastReturned = clock.getAsLong();
+
+        private PooledSession(WebDriver driver) {
+            this.driver = driver;
+        }
+    }
+}
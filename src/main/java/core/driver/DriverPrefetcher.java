@@ -0,0 +1,245 @@
+package core.driver;
+
+import core.config.ConfigManager;
+import core.execution.TestContext;
+import core.execution.VirtualThreadExecutorFactory;
+import core.reporting.RunMetrics;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Creates each worker thread's next WebDriver in the background while the current test runs,
+ * so test start only has to collect a ready session.
+ * The next session is started with the requesting test's network profile; one whose page load
+ * strategy does not suit the test that collects it is quit and replaced inline. With grid.capacity
+ * set, a background start needs a free permit (it is skipped otherwise) and that permit passes to
+ * the test that collects the session. {@link #shutdown()} is final for the run: later tests
+ * create their sessions inline.
+ */
+public final class DriverPrefetcher {
+
+    private static final ThreadLocal<Deque<Prefetched>> ahead = ThreadLocal.withInitial(ArrayDeque::new);
+    // sessions not yet claimed; take() and shutdown() claim one by removing it
+    private static final Set<Prefetched> outstanding = ConcurrentHashMap.newKeySet();
+    private static final ReentrantLock lock = new ReentrantLock();
+
+    static Function<NetworkProfile, WebDriver> factory = DriverFactory::createDriver; // replaced by tests
+
+    private static ExecutorService executor;
+    private static volatile boolean shutdown;
+
+    private DriverPrefetcher() {}
+
+    /** Off on per-task virtual threads: a session prefetched for the thread's next test would never be taken. */
+    public static boolean isEnabled() {
+        return ConfigManager.isOn("driver.prefetch.enabled") && !VirtualThreadExecutorFactory.isActive();
+    }
+
+    /**
+     * Moves the grid.capacity permit of the current thread's next prefetched session to the test,
+     * so it does not wait for a second one. Returns false when there is none to move.
+     */
+    static boolean handOverCapacity(TestContext context) {
+        if (context.isCapacityHeld()) return false;
+        Prefetched next = ahead.get().peekFirst();
+        if (next == null || next.permit.getAndSet(null) == null) return false;
+        context.setCapacityHeld(true);
+        return true;
+    }
+
+    public static WebDriver take() {
+        Deque<Prefetched> queue = ahead.get();
+        Prefetched next = queue.pollFirst();
+        NetworkProfile profile = NetworkProfile.current();
+        WebDriver driver = null;
+
+        // not in outstanding: shutdown() already claimed it
+        if (next != null && outstanding.remove(next)) {
+            long waitStart = System.nanoTime();
+            try {
+                driver = next.future.join();
+                long waitedMs = (System.nanoTime() - waitStart) / 1_000_000;
+                if (isEager(next.profile) != isEager(profile)) {
+                    RunMetrics.increment("driver.prefetch.mismatched");
+                    quietQuit(driver);
+                    driver = null;
+                } else {
+                    RunMetrics.increment("driver.prefetch.hits");
+                    RunMetrics.add("driver.prefetch.waited.ms", waitedMs);
+                    RunMetrics.add("driver.prefetch.hidden.ms", Math.max(0, next.startupMs - waitedMs));
+                }
+            } catch (CompletionException | CancellationException e) {
+                System.err.println("Prefetched WebDriver creation failed, creating inline: " + e.getMessage());
+            } finally {
+                next.releasePermit();
+            }
+        }
+
+        if (driver == null) {
+            RunMetrics.increment("driver.prefetch.misses");
+            driver = createTimed(profile);
+        }
+
+        refill(queue, profile);
+        return driver;
+    }
+
+    /**
+     * Cancels pending prefetches and quits any session that was created but never handed out.
+     * No session is prefetched after this.
+     */
+    public static void shutdown() {
+        ExecutorService stopping;
+        lock.lock();
+        try {
+            if (shutdown) return;
+            shutdown = true;
+            stopping = executor;
+            executor = null;
+        } finally {
+            lock.unlock();
+        }
+        for (Prefetched p : outstanding) {
+            if (outstanding.remove(p)) {
+                discard(p);
+                RunMetrics.increment("driver.prefetch.cancelled");
+            }
+        }
+        if (stopping != null) {
+            stopping.shutdown();
+            try {
+                stopping.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        long hidden = RunMetrics.get("driver.prefetch.hidden.ms");
+        long total = RunMetrics.get("driver.startup.ms");
+        if (total > 0) {
+            System.out.println("Driver prefetch hid " + hidden + " ms of " + total + " ms total startup time");
+        }
+    }
+
+    /** Undoes {@link #shutdown()} so tests sharing the JVM can prefetch again (tests only; call after shutdown). */
+    static void reset() {
+        lock.lock();
+        try {
+            shutdown = false;
+        } finally {
+            lock.unlock();
+        }
+        ahead.remove();
+    }
+
+    private static void refill(Deque<Prefetched> queue, NetworkProfile profile) {
+        int depth = ConfigManager.getInt("driver.prefetch.depth", 1);
+        while (!shutdown && queue.size() < depth) {
+            Semaphore permits = DriverManager.capacityPermits();
+            if (permits != null && !permits.tryAcquire()) {
+                RunMetrics.increment("driver.prefetch.skipped.capacity");
+                return;
+            }
+            Prefetched p = new Prefetched(profile, permits);
+            if (!submit(p)) {
+                p.releasePermit();
+                return;
+            }
+            queue.addLast(p);
+        }
+    }
+
+    // checked under the lock shutdown() swaps the executor with, so a late refill never hits a stopped executor
+    private static boolean submit(Prefetched p) {
+        lock.lock();
+        try {
+            if (shutdown) return false;
+            if (executor == null) {
+                executor = Executors.newCachedThreadPool(r -> {
+                    Thread t = new Thread(r, "driver-prefetch");
+                    t.setDaemon(true);
+                    return t;
+                });
+            }
+            outstanding.add(p);
+            executor.execute(() -> {
+                try {
+                    long start = System.nanoTime();
+                    WebDriver driver = createTimed(p.profile);
+                    p.startupMs = (System.nanoTime() - start) / 1_000_000;
+                    // cancelled while starting: nobody will collect it
+                    if (!p.future.complete(driver)) {
+                        quietQuit(driver);
+                    }
+                } catch (Throwable t) {
+                    p.future.completeExceptionally(t);
+                }
+            });
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static WebDriver createTimed(NetworkProfile profile) {
+        long start = System.nanoTime();
+        WebDriver driver = factory.apply(profile);
+        RunMetrics.add("driver.startup.ms", (System.nanoTime() - start) / 1_000_000);
+        return driver;
+    }
+
+    private static void discard(Prefetched p) {
+        if (!p.future.cancel(false)) {
+            WebDriver orphan = p.future.getNow(null);
+            if (orphan != null) {
+                quietQuit(orphan);
+            }
+        }
+        p.releasePermit();
+    }
+
+    private static boolean isEager(NetworkProfile profile) {
+        return profile != null && profile.isEager();
+    }
+
+    private static void quietQuit(WebDriver driver) {
+        NetworkInterceptor.forget(driver);
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            System.err.println("WebDriver quit failed: " + e.getMessage());
+        }
+    }
+
+    private static final class Prefetched {
+        private final CompletableFuture<WebDriver> future = new CompletableFuture<>();
+        private final NetworkProfile profile;
+        // the grid.capacity permit this session holds until a test takes it over
+        private final AtomicReference<Semaphore> permit;
+        private volatile long startupMs;
+
+        private Prefetched(NetworkProfile profile, Semaphore permit) {
+            this.profile = profile;
+            this.permit = new AtomicReference<>(permit);
+        }
+
+        private void releasePermit() {
+            Semaphore held = permit.getAndSet(null);
+            if (held != null) held.release();
+        }
+    }
+}
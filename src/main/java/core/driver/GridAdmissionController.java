@@ -0,0 +1,349 @@
+package core.driver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import core.config.ConfigManager;
+import core.reporting.RunMetrics;
+import org.openqa.selenium.SessionNotCreatedException;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admits new Grid sessions only when the Grid has a free slot, instead of letting session
+ * requests pile up in the hub or spill over to local browsers.
+ * Free slots come from the hub's /status (Grid 4: slots without a session on UP nodes whose
+ * stereotype matches the browser; a Grid 3 hub only reports ready). Requests wait in a fair FIFO
+ * queue: the head polls with jittered exponential backoff, the others wait their turn, and each
+ * gives up after grid.admission.max.wait. Failed polls and failed session starts count towards a
+ * circuit breaker; once open, requests fail fast for grid.circuit.open, then one probe poll
+ * decides whether it closes again. Queue wait is published as grid.queue.wait.ms.
+ */
+public final class GridAdmissionController {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static volatile GridAdmissionController shared;
+
+    private final URI statusUri;
+    private final String browserName;
+    private final Duration maxWait;
+    private final int circuitFailures;
+    private final Duration circuitOpen;
+    private final long pollIntervalNanos;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+    private final Duration statusTimeout;
+    private final HttpClient http;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition changed = lock.newCondition();
+    private final ArrayDeque<Object> queue = new ArrayDeque<>();
+    private int freeSlots = -1; // -1 = the hub does not report slots
+    private int reserved;       // admitted, but the session is not visible in /status yet
+    private long polledAt;
+    private boolean stale = true;
+    private boolean polling;
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private String lastError = "";
+
+    /** Uses grid.status.interval, grid.status.timeout and grid.admission.backoff.base/max from the config. */
+    public GridAdmissionController(URI statusUri, String browserName, Duration maxWait, int circuitFailures, Duration circuitOpen) {
+        this(statusUri, browserName, maxWait, circuitFailures, circuitOpen,
+                ConfigManager.getDuration("grid.status.interval", Duration.ofSeconds(1)),
+                ConfigManager.getDuration("grid.admission.backoff.base", Duration.ofMillis(250)),
+                ConfigManager.getDuration("grid.admission.backoff.max", Duration.ofSeconds(5)));
+    }
+
+    public GridAdmissionController(URI statusUri, String browserName, Duration maxWait, int circuitFailures, Duration circuitOpen,
+                                   Duration pollInterval, Duration backoffBase, Duration backoffMax) {
+        this.statusUri = statusUri;
+        this.browserName = browserName == null ? null : browserName.toLowerCase(Locale.ROOT);
+        this.maxWait = maxWait;
+        this.circuitFailures = Math.max(1, circuitFailures);
+        this.circuitOpen = circuitOpen;
+        this.pollIntervalNanos = pollInterval.toNanos();
+        this.backoffBaseMs = Math.max(1, backoffBase.toMillis());
+        this.backoffMaxMs = Math.max(backoffBaseMs, backoffMax.toMillis());
+        this.statusTimeout = ConfigManager.getDuration("grid.status.timeout", Duration.ofSeconds(5));
+        this.http = HttpClient.newBuilder().connectTimeout(statusTimeout).build();
+    }
+
+    public static boolean isEnabled() {
+        String value = ConfigManager.get("grid.admission");
+        return value == null || value.isBlank() || "ON".equalsIgnoreCase(value.trim());
+    }
+
+    /** The controller for docker.hub.url (or grid.status.url) and the configured browser. */
+    public static GridAdmissionController shared() {
+        GridAdmissionController controller = shared;
+        if (controller == null) {
+            synchronized (GridAdmissionController.class) {
+                if (shared == null) {
+                    String status = ConfigManager.get("grid.status.url");
+                    if (status == null || status.isBlank()) {
+                        status = ConfigManager.get("docker.hub.url").replaceAll("/+$", "") + "/status";
+                    }
+                    String browser = ConfigManager.get("browser");
+                    shared = new GridAdmissionController(URI.create(status.trim()),
+                            "FIREFOX".equalsIgnoreCase(browser) ? "firefox" : "chrome",
+                            ConfigManager.getDuration("grid.admission.max.wait", Duration.ofMinutes(5)),
+                            ConfigManager.getInt("grid.circuit.failures", 3),
+                            ConfigManager.getDuration("grid.circuit.open", Duration.ofSeconds(30)));
+                }
+                controller = shared;
+            }
+        }
+        return controller;
+    }
+
+    /** Tells the shared controller, if any, that a Grid session ended so queued requests re-check now. */
+    public static void notifySessionClosed() {
+        GridAdmissionController controller = shared;
+        if (controller != null) controller.sessionClosed();
+    }
+
+    /**
+     * Waits for a free slot in FIFO order. The returned admission must be marked
+     * {@link Admission#started()} or {@link Admission#failed(Exception)} once the session request completes.
+     *
+     * @throws SessionNotCreatedException if the circuit is open or no slot frees up within the max wait
+     */
+    public Admission admit() {
+        long start = System.nanoTime();
+        long deadline = start + maxWait.toNanos();
+        Object ticket = new Object();
+        int attempt = 0;
+        lock.lock();
+        try {
+            queue.addLast(ticket);
+            while (true) {
+                failIfOpen(ticket);
+                if (queue.peekFirst() == ticket) {
+                    if (!polling && (stale || System.nanoTime() - polledAt >= pollIntervalNanos)) {
+                        poll();
+                        failIfOpen(ticket);
+                    }
+                    if (freeSlots < 0 ? state == State.CLOSED : freeSlots - reserved > 0) {
+                        queue.removeFirst();
+                        reserved++;
+                        changed.signalAll();
+                        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        RunMetrics.increment("grid.admitted");
+                        RunMetrics.add("grid.queue.wait.ms", waitedMs);
+                        return new Admission(waitedMs);
+                    }
+                }
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    int position = position(ticket);
+                    queue.remove(ticket);
+                    changed.signalAll();
+                    RunMetrics.increment("grid.rejected");
+                    throw new SessionNotCreatedException("No free " + (browserName == null ? "" : browserName + " ")
+                            + "slot on the Grid within " + maxWait.toMillis() + " ms (queue position " + position + ")");
+                }
+                long sleepMs = queue.peekFirst() == ticket ? backoff(attempt++) : backoffMaxMs;
+                changed.await(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(sleepMs)), TimeUnit.NANOSECONDS);
+            }
+        } catch (InterruptedException e) {
+            queue.remove(ticket);
+            changed.signalAll();
+            Thread.currentThread().interrupt();
+            throw new SessionNotCreatedException("Interrupted while waiting for a Grid slot");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Forces a fresh /status on the next check and wakes the queue (a slot was probably freed). */
+    public void sessionClosed() {
+        lock.lock();
+        try {
+            stale = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State state() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Requests currently waiting for a slot. */
+    public int queued() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void failIfOpen(Object ticket) {
+        if (state != State.OPEN) return;
+        if (System.nanoTime() - openedAt >= circuitOpen.toNanos()) {
+            state = State.HALF_OPEN;
+            stale = true; // the next poll is the probe
+            return;
+        }
+        queue.remove(ticket);
+        changed.signalAll();
+        RunMetrics.increment("grid.rejected");
+        throw new SessionNotCreatedException("Grid circuit breaker is open after " + failures
+                + " consecutive failures (last: " + lastError + ")");
+    }
+
+    // the HTTP call runs without the lock so admissions and releases are not held up by a slow hub
+    private void poll() {
+        polling = true;
+        lock.unlock();
+        int free = -1;
+        String error = null;
+        try {
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(statusUri).timeout(statusTimeout).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                error = "HTTP " + response.statusCode() + " from " + statusUri;
+            } else {
+                JsonNode value = mapper.readTree(response.body()).path("value");
+                if (!value.path("ready").asBoolean(false)) {
+                    error = "Grid not ready: " + value.path("message").asText("");
+                } else {
+                    free = freeSlots(value);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "interrupted";
+        } catch (Exception e) {
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        } finally {
+            lock.lock();
+            polling = false;
+        }
+        polledAt = System.nanoTime();
+        stale = false;
+        if (error == null) {
+            freeSlots = free;
+            success();
+        } else {
+            freeSlots = 0;
+            RunMetrics.increment("grid.status.failures");
+            failure(error);
+        }
+    }
+
+    private int freeSlots(JsonNode value) {
+        JsonNode nodes = value.path("nodes");
+        if (!nodes.isArray()) return -1;
+        int free = 0;
+        for (JsonNode node : nodes) {
+            if (!"UP".equalsIgnoreCase(node.path("availability").asText("UP"))) continue;
+            for (JsonNode slot : node.path("slots")) {
+                if (!slot.path("session").isNull() && !slot.path("session").isMissingNode()) continue;
+                String stereotype = slot.path("stereotype").path("browserName").asText("").toLowerCase(Locale.ROOT);
+                if (browserName == null || stereotype.isEmpty() || stereotype.equals(browserName)
+                        || ("chrome".equals(browserName) && stereotype.contains("chrom"))) {
+                    free++;
+                }
+            }
+        }
+        return free;
+    }
+
+    private void success() {
+        failures = 0;
+        if (state != State.CLOSED) {
+            System.out.println("Grid circuit breaker closed: " + statusUri + " is healthy again");
+        }
+        state = State.CLOSED;
+    }
+
+    private void failure(String error) {
+        lastError = error;
+        failures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= circuitFailures)) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            RunMetrics.increment("grid.circuit.opened");
+            System.err.println("Grid circuit breaker opened for " + circuitOpen.toMillis() + " ms: " + error);
+        }
+        changed.signalAll();
+    }
+
+    // equal jitter: half the exponential step plus a random share of the other half
+    private long backoff(int attempt) {
+        long step = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt, 20));
+        return step / 2 + ThreadLocalRandom.current().nextLong(step / 2 + 1);
+    }
+
+    private int position(Object ticket) {
+        int i = 1;
+        for (Object t : queue) {
+            if (t == ticket) return i;
+            i++;
+        }
+        return -1;
+    }
+
+    /** A granted slot, held until the session request it was granted for completes. */
+    public final class Admission {
+        private final long waitedMs;
+        private boolean done;
+
+        private Admission(long waitedMs) {
+            this.waitedMs = waitedMs;
+        }
+
+        public long waitedMs() {
+            return waitedMs;
+        }
+
+        /** The session started and now occupies the slot. */
+        public void started() {
+            finish(null);
+        }
+
+        /** The session request failed; the slot is returned and the failure counts towards the circuit breaker. */
+        public void failed(Exception error) {
+            finish(error);
+        }
+
+        private void finish(Exception error) {
+            lock.lock();
+            try {
+                if (done) return;
+                done = true;
+                if (reserved > 0) reserved--;
+                if (error == null) {
+                    if (freeSlots > 0) freeSlots--;
+                    success();
+                } else {
+                    failure("session request failed: " + error.getMessage());
+                }
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package core.driver;
+
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.interactions.Interactive;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * A WebDriver handle that starts its session on the first command. Tests that never touch the
+ * browser never get one: quit/close on an unstarted handle are no-ops, and callers that only want
+ * to clean up (screenshots, video, teardown) use {@link #unwrap(WebDriver)}, which does not start it.
+ * The handle implements WebDriver, JavascriptExecutor, TakesScreenshot, HasCapabilities,
+ * Interactive and WrapsDriver; for anything else use {@link DriverManager#getStartedDriver()}.
+ * Starting can block for a long time (grid.capacity, pool lease, Grid admission), so the state is
+ * guarded by a ReentrantLock rather than a monitor: a virtual thread waiting here unmounts instead
+ * of pinning its carrier.
+ */
+final class LazyDriver implements InvocationHandler {
+
+    private static final Class<?>[] INTERFACES = {
+            WebDriver.class, JavascriptExecutor.class, TakesScreenshot.class,
+            HasCapabilities.class, Interactive.class, WrapsDriver.class
+    };
+
+    private final Supplier<WebDriver> factory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Runnable> onStart = new ArrayList<>();
+    private volatile WebDriver delegate;
+    private RuntimeException failure;
+    private boolean closed;
+
+    private LazyDriver(Supplier<WebDriver> factory) {
+        this.factory = factory;
+    }
+
+    static WebDriver create(Supplier<WebDriver> factory) {
+        return (WebDriver) Proxy.newProxyInstance(LazyDriver.class.getClassLoader(), INTERFACES, new LazyDriver(factory));
+    }
+
+    /** True for a lazy handle that never tried to start a session. */
+    static boolean isUnused(WebDriver driver) {
+        LazyDriver lazy = handler(driver);
+        if (lazy == null) return false;
+        lazy.lock.lock();
+        try {
+            return lazy.delegate == null && lazy.failure == null;
+        } finally {
+            lazy.lock.unlock();
+        }
+    }
+
+    /** The real session behind a lazy handle (null if it never started), or the driver itself. */
+    static WebDriver unwrap(WebDriver driver) {
+        LazyDriver lazy = handler(driver);
+        return lazy == null ? driver : lazy.delegate;
+    }
+
+    /**
+     * Runs the action right after the handle's session starts; returns false (and does nothing)
+     * when the driver is not an unstarted lazy handle, so the caller can run it directly.
+     */
+    static boolean whenStarted(WebDriver driver, Runnable action) {
+        LazyDriver lazy = handler(driver);
+        if (lazy == null) return false;
+        lazy.lock.lock();
+        try {
+            if (lazy.delegate != null) return false;
+            lazy.onStart.add(action);
+            return true;
+        } finally {
+            lazy.lock.unlock();
+        }
+    }
+
+    private static LazyDriver handler(WebDriver driver) {
+        if (driver == null || !Proxy.isProxyClass(driver.getClass())) return null;
+        InvocationHandler handler = Proxy.getInvocationHandler(driver);
+        return handler instanceof LazyDriver ? (LazyDriver) handler : null;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        if (method.getDeclaringClass() == Object.class) {
+            switch (name) {
+                case "equals": return proxy == args[0];
+                case "hashCode": return System.identityHashCode(proxy);
+                default: return "LazyDriver(" + (delegate != null ? delegate : "not started") + ")";
+            }
+        }
+        if (delegate == null && ("quit".equals(name) || "close".equals(name))) {
+            lock.lock();
+            try {
+                if (delegate == null) {
+                    closed = true;
+                    return null;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        WebDriver target = start();
+        if ("getWrappedDriver".equals(name)) return target;
+        if (!method.getDeclaringClass().isInstance(target)) {
+            throw new UnsupportedOperationException(target.getClass().getSimpleName() + " does not implement "
+                    + method.getDeclaringClass().getSimpleName());
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private WebDriver start() {
+        WebDriver current = delegate;
+        if (current != null) return current;
+        List<Runnable> actions;
+        lock.lock();
+        try {
+            if (delegate != null) return delegate;
+            if (closed) throw new WebDriverException("Driver was quit before it was started");
+            // a failed start is not retried, so each later command fails fast with the same cause
+            if (failure != null) throw failure;
+            try {
+                delegate = factory.get();
+            } catch (RuntimeException e) {
+                failure = e;
+                throw e;
+            }
+            actions = new ArrayList<>(onStart);
+            onStart.clear();
+        } finally {
+            lock.unlock();
+        }
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (Exception e) {
+                System.err.println("Driver start hook failed: " + e.getMessage());
+            }
+        }
+        return delegate;
+    }
+}
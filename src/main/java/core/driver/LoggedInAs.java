@@ -0,0 +1,18 @@
+package core.driver;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Starts a test method, or every test in a class, with its session already logged in as the
+ * role (see {@link SessionStateCache}). "none" starts logged out even when the class names a role.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Inherited
+public @interface LoggedInAs {
+    String value();
+}
@@ -0,0 +1,245 @@
+package core.driver;
+
+import core.reporting.RunMetrics;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+import org.openqa.selenium.json.JsonInput;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies a {@link NetworkProfile} to a Chromium session through DevTools, using the raw
+ * Network/Fetch commands so it works with whichever CDP version the browser speaks.
+ * Blocked URL patterns go to Network.setBlockedURLs (matched inside the browser); resource types
+ * and stubs need Fetch interception, enabled only for those patterns. Sessions are registered
+ * when they are created, but DevTools is only opened once a profile is first applied, and the
+ * rules are swapped whenever a pooled session serves a test with a different profile.
+ * Blocked and stubbed requests are published as network.blocked.requests,
+ * network.stubbed.requests and network.saved.bytes.estimated (typical transfer size per resource type).
+ */
+final class NetworkInterceptor {
+
+    private static final Map<WebDriver, NetworkInterceptor> sessions =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+    private static final Set<String> warned = ConcurrentHashMap.newKeySet();
+
+    // rough median transfer size per request, for the bytes-saved estimate
+    private static final Map<String, Long> TYPICAL_BYTES = Map.of(
+            "Image", 40_000L, "Media", 500_000L, "Font", 30_000L, "Script", 25_000L, "Stylesheet", 10_000L);
+    private static final long OTHER_BYTES = 5_000L;
+
+    private final WebDriver driver;
+    private volatile DevTools devTools;
+    private HasCdp cdp;
+    private volatile NetworkProfile profile;
+    private boolean fetchEnabled;
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong stubbed = new AtomicLong();
+    private final AtomicLong savedBytes = new AtomicLong();
+
+    private NetworkInterceptor(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /** Remembers the undecorated session behind a handle; only Chromium sessions can be intercepted. */
+    static void register(WebDriver handle, WebDriver driver) {
+        if (isChromium(driver)) {
+            sessions.put(handle, new NetworkInterceptor(driver));
+        }
+    }
+
+    /**
+     * Switches the session to the profile (null clears the rules) and starts a fresh per-test count.
+     * Best-effort: a session without DevTools runs unfiltered, with one warning.
+     */
+    static void use(WebDriver handle, NetworkProfile profile) {
+        NetworkInterceptor interceptor = sessions.get(handle);
+        if (interceptor == null) {
+            if (profile != null) {
+                warnOnce("Network profile '" + profile.getName() + "' needs a Chromium session with DevTools; "
+                        + "running without it");
+            }
+            return;
+        }
+        try {
+            interceptor.apply(profile);
+        } catch (Exception e) {
+            warnOnce("Network rules could not be applied (profile " + profile + "): " + e.getMessage());
+        }
+    }
+
+    /** What the session's profile saved since it was last applied, or null if there is nothing to report. */
+    static String takeSummary(WebDriver handle) {
+        NetworkInterceptor interceptor = sessions.get(handle);
+        if (interceptor == null || interceptor.profile == null) return null;
+        long blockedCount = interceptor.blocked.getAndSet(0);
+        long stubbedCount = interceptor.stubbed.getAndSet(0);
+        long bytes = interceptor.savedBytes.getAndSet(0);
+        return "Network profile '" + interceptor.profile.getName() + "': " + blockedCount + " requests blocked, "
+                + stubbedCount + " stubbed, ~" + (bytes / 1024) + " KB saved (estimated)";
+    }
+
+    /**
+     * DevTools command access for a registered Chromium session behind a decorated handle
+     * (augmented for remote sessions), or null.
+     */
+    static HasCdp cdp(WebDriver handle) {
+        NetworkInterceptor interceptor = sessions.get(handle);
+        if (interceptor == null) return null;
+        synchronized (interceptor) {
+            if (interceptor.cdp == null) {
+                WebDriver target = interceptor.driver instanceof HasCdp
+                        ? interceptor.driver : new Augmenter().augment(interceptor.driver);
+                if (target instanceof HasCdp) interceptor.cdp = (HasCdp) target;
+            }
+            return interceptor.cdp;
+        }
+    }
+
+    /** Drops the session's interceptor and its DevTools connection; call before quitting the session. */
+    static void forget(WebDriver handle) {
+        NetworkInterceptor interceptor = sessions.remove(handle);
+        if (interceptor != null) {
+            interceptor.close();
+        }
+    }
+
+    private synchronized void apply(NetworkProfile next) {
+        blocked.set(0);
+        stubbed.set(0);
+        savedBytes.set(0);
+        if (next == profile) return;
+        if (devTools == null) {
+            connect();
+        }
+        devTools.send(new Command<>("Network.setBlockedURLs",
+                Map.of("urls", next == null ? List.of() : next.blockedUrls())));
+        List<Map<String, Object>> patterns = new ArrayList<>();
+        if (next != null) {
+            for (String url : next.stubbedUrls()) {
+                patterns.add(Map.of("urlPattern", url, "requestStage", "Request"));
+            }
+            for (String type : next.blockedTypes()) {
+                patterns.add(Map.of("urlPattern", "*", "resourceType", type, "requestStage", "Request"));
+            }
+        }
+        if (!patterns.isEmpty()) {
+            devTools.send(new Command<>("Fetch.enable", Map.of("patterns", patterns)));
+            fetchEnabled = true;
+        } else if (fetchEnabled) {
+            devTools.send(new Command<>("Fetch.disable", Map.of()));
+            fetchEnabled = false;
+        }
+        profile = next;
+    }
+
+    private void connect() {
+        WebDriver target = driver instanceof HasDevTools ? driver : new Augmenter().augment(driver);
+        if (!(target instanceof HasDevTools)) {
+            throw new WebDriverException("the session exposes no DevTools endpoint (se:cdp)");
+        }
+        DevTools tools = ((HasDevTools) target).getDevTools();
+        tools.createSessionIfThereIsNotOne();
+        tools.send(new Command<>("Network.enable", Map.of()));
+        tools.addListener(new Event<>("Network.loadingFailed", NetworkInterceptor::readMap), this::onLoadingFailed);
+        tools.addListener(new Event<>("Fetch.requestPaused", NetworkInterceptor::readMap), this::onRequestPaused);
+        devTools = tools;
+    }
+
+    private void close() {
+        DevTools tools;
+        synchronized (this) {
+            tools = devTools;
+            devTools = null;
+        }
+        if (tools == null) return;
+        try {
+            tools.close();
+        } catch (Exception ignored) {
+            // the session is going away anyway
+        }
+    }
+
+    // both Network.setBlockedURLs and Fetch.failRequest surface as ERR_BLOCKED_BY_CLIENT
+    private void onLoadingFailed(Map<String, Object> event) {
+        if ("inspector".equals(event.get("blockedReason"))
+                || String.valueOf(event.get("errorText")).contains("ERR_BLOCKED_BY_CLIENT")) {
+            blocked.incrementAndGet();
+            RunMetrics.increment("network.blocked.requests");
+            saved(String.valueOf(event.get("type")));
+        }
+    }
+
+    private void onRequestPaused(Map<String, Object> event) {
+        Object requestId = event.get("requestId");
+        Object request = event.get("request");
+        String url = request instanceof Map ? String.valueOf(((Map<?, ?>) request).get("url")) : "";
+        String type = String.valueOf(event.get("resourceType"));
+        NetworkProfile current = profile;
+        DevTools tools = devTools;
+        if (tools == null) return;
+        try {
+            Integer status = current == null ? null : current.stubFor(url);
+            if (status != null) {
+                tools.send(new Command<>("Fetch.fulfillRequest", Map.of("requestId", requestId, "responseCode", status,
+                        "responseHeaders", List.of(Map.of("name", "Content-Type", "value", contentType(url))),
+                        "body", "")));
+                stubbed.incrementAndGet();
+                RunMetrics.increment("network.stubbed.requests");
+                saved(type);
+            } else if (current != null && current.blocksType(type)) {
+                tools.send(new Command<>("Fetch.failRequest", Map.of("requestId", requestId, "errorReason", "BlockedByClient")));
+            } else {
+                tools.send(new Command<>("Fetch.continueRequest", Map.of("requestId", requestId)));
+            }
+        } catch (Exception e) {
+            System.err.println("Network interception failed for " + url + ": " + e.getMessage());
+        }
+    }
+
+    private void saved(String resourceType) {
+        long bytes = TYPICAL_BYTES.getOrDefault(resourceType, OTHER_BYTES);
+        savedBytes.addAndGet(bytes);
+        RunMetrics.add("network.saved.bytes.estimated", bytes);
+    }
+
+    private static String contentType(String url) {
+        String path = url.replaceFirst("[?#].*$", "").toLowerCase();
+        if (path.endsWith(".js")) return "application/javascript";
+        if (path.endsWith(".css")) return "text/css";
+        if (path.endsWith(".json")) return "application/json";
+        return "text/plain";
+    }
+
+    private static boolean isChromium(WebDriver driver) {
+        if (!(driver instanceof RemoteWebDriver)) return false;
+        String browser = ((RemoteWebDriver) driver).getCapabilities().getBrowserName();
+        browser = browser == null ? "" : browser.toLowerCase();
+        return browser.contains("chrom") || browser.contains("edge");
+    }
+
+    private static Map<String, Object> readMap(JsonInput input) {
+        return input.read(Json.MAP_TYPE);
+    }
+
+    private static void warnOnce(String message) {
+        if (warned.add(message)) {
+            System.err.println(message);
+        }
+    }
+}
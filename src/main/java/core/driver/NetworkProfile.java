@@ -0,0 +1,180 @@
+package core.driver;
+
+import core.config.ConfigManager;
+import core.execution.TestContext;
+import org.testng.ITestContext;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Named network rules for tests that never assert on analytics, ads, fonts or large media:
+ * URL patterns to block (network.profile.&lt;name&gt;.block), resource types to block (.types, e.g.
+ * Image,Font,Media), URL patterns answered with an empty stub instead of a download
+ * (.stub, pattern=status) and eager page loads (.eager, default ON).
+ * Patterns use DevTools wildcards: * for any run of characters, ? for one.
+ * A test's profile is, in order: {@link WithNetworkProfile} on the method or class, the
+ * network.profile parameter of its &lt;test&gt; or &lt;suite&gt;, then network.profile in the config.
+ */
+public final class NetworkProfile {
+
+    private static final List<String> RESOURCE_TYPES = List.of("Document", "Stylesheet", "Image", "Media", "Font",
+            "Script", "TextTrack", "XHR", "Fetch", "Prefetch", "EventSource", "WebSocket", "Manifest",
+            "SignedExchange", "Ping", "CSPViolationReport", "Preflight", "Other");
+
+    private static final Map<String, NetworkProfile> profiles = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final List<String> blockedUrls;
+    private final Set<String> blockedTypes;
+    private final Map<String, Integer> stubs;
+    private final List<Pattern> stubPatterns = new ArrayList<>();
+    private final boolean eager;
+
+    private NetworkProfile(String name, List<String> blockedUrls, Set<String> blockedTypes, Map<String, Integer> stubs,
+                           boolean eager) {
+        this.name = name;
+        this.blockedUrls = Collections.unmodifiableList(blockedUrls);
+        this.blockedTypes = Collections.unmodifiableSet(blockedTypes);
+        this.stubs = Collections.unmodifiableMap(stubs);
+        for (String stub : stubs.keySet()) {
+            stubPatterns.add(glob(stub));
+        }
+        this.eager = eager;
+    }
+
+    /**
+     * The profile defined under network.profile.&lt;name&gt;, or null for a blank name, "none" or "off".
+     *
+     * @throws IllegalArgumentException if no such profile is configured or it names an unknown resource type
+     */
+    public static NetworkProfile named(String name) {
+        if (name == null || name.isBlank()) return null;
+        String key = name.trim();
+        if ("none".equalsIgnoreCase(key) || "off".equalsIgnoreCase(key)) return null;
+        return profiles.computeIfAbsent(key, NetworkProfile::load);
+    }
+
+    /** The profile for the calling thread's test, falling back to network.profile from the config. */
+    public static NetworkProfile current() {
+        TestContext context = TestContext.peek();
+        String selected = context == null ? null : context.getNetworkProfile();
+        return named(selected != null ? selected : ConfigManager.get("network.profile"));
+    }
+
+    /**
+     * The profile name a test selects through its annotations or TestNG parameters, or null to
+     * use network.profile from the config.
+     */
+    public static String forTest(Method method, ITestContext context) {
+        WithNetworkProfile selected = null;
+        if (method != null) {
+            selected = method.getAnnotation(WithNetworkProfile.class);
+            if (selected == null) selected = method.getDeclaringClass().getAnnotation(WithNetworkProfile.class);
+        }
+        if (selected != null) return selected.value();
+        if (context != null && context.getCurrentXmlTest() != null) {
+            return context.getCurrentXmlTest().getParameter("network.profile");
+        }
+        return null;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Whether sessions started for this profile use pageLoadStrategy=eager. */
+    public boolean isEager() {
+        return eager;
+    }
+
+    List<String> blockedUrls() {
+        return blockedUrls;
+    }
+
+    Set<String> blockedTypes() {
+        return blockedTypes;
+    }
+
+    Set<String> stubbedUrls() {
+        return stubs.keySet();
+    }
+
+    boolean blocksType(String resourceType) {
+        return blockedTypes.contains(resourceType);
+    }
+
+    /** The stub status for the URL, or null if no stub pattern matches it. */
+    Integer stubFor(String url) {
+        int i = 0;
+        for (Integer status : stubs.values()) {
+            if (stubPatterns.get(i++).matcher(url).matches()) return status;
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    private static NetworkProfile load(String name) {
+        String prefix = "network.profile." + name + ".";
+        String block = ConfigManager.get(prefix + "block");
+        String types = ConfigManager.get(prefix + "types");
+        String stub = ConfigManager.get(prefix + "stub");
+        if (block == null && types == null && stub == null && ConfigManager.get(prefix + "eager") == null) {
+            throw new IllegalArgumentException("Unknown network profile '" + name + "': define " + prefix
+                    + "block/types/stub/eager in the config");
+        }
+        Set<String> blockedTypes = new LinkedHashSet<>();
+        for (String type : list(types)) {
+            blockedTypes.add(RESOURCE_TYPES.stream().filter(t -> t.equalsIgnoreCase(type)).findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown resource type '" + type + "' in "
+                            + prefix + "types (expected one of " + RESOURCE_TYPES + ")")));
+        }
+        // pattern=status; a pattern may itself contain '=', so only a numeric tail counts as the status
+        Map<String, Integer> stubs = new LinkedHashMap<>();
+        for (String entry : list(stub)) {
+            int eq = entry.lastIndexOf('=');
+            String status = eq < 0 ? "" : entry.substring(eq + 1).trim();
+            if (status.matches("\\d{3}")) {
+                stubs.put(entry.substring(0, eq).trim(), Integer.valueOf(status));
+            } else {
+                stubs.put(entry, 200);
+            }
+        }
+        return new NetworkProfile(name, list(block), blockedTypes, stubs, ConfigManager.getBoolean(prefix + "eager", true));
+    }
+
+    private static List<String> list(String value) {
+        List<String> items = new ArrayList<>();
+        if (value == null) return items;
+        for (String item : value.split(",")) {
+            if (!item.isBlank()) items.add(item.trim());
+        }
+        return items;
+    }
+
+    private static Pattern glob(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
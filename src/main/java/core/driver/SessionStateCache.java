@@ -0,0 +1,218 @@
+package core.driver;
+
+import core.config.ConfigManager;
+import core.reporting.RunMetrics;
+import core.utils.CredentialUtil;
+import core.utils.ElementCache;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Logs in through the UI once per user/role and hands the resulting session state (cookies of the
+ * app's origin plus localStorage and sessionStorage) to every later session for that role, so tests
+ * skip the login page. Register the UI login for each role once (e.g. in a @BeforeSuite):
+ * <pre>
+ * SessionStateCache.register("app1", (driver, credentials) -&gt; {
+ *     driver.get(appUrl + "/login");
+ *     ...type credentials.get("username") / credentials.get("password") and submit...
+ * });
+ * </pre>
+ * and mark tests with {@link LoggedInAs}; sessions are restored when the test acquires its
+ * driver, pooled ones included. The first test that needs a role logs in with its own session
+ * while parallel tests wanting the same role wait for that single login instead of starting
+ * their own. State expires after session.cache.ttl or at its earliest cookie expiry, whichever
+ * comes first; the next test then logs in again.
+ */
+public final class SessionStateCache {
+
+    /** The UI login for a role; must leave the browser on a page of the logged-in app. */
+    @FunctionalInterface
+    public interface Login {
+        void login(WebDriver driver, Map<String, String> credentials);
+    }
+
+    private static final Map<String, Registration> logins = new ConcurrentHashMap<>();
+    private static final Map<String, CompletableFuture<Snapshot>> snapshots = new ConcurrentHashMap<>();
+
+    // cookies are treated as expired slightly early so a restored session does not lapse mid-test
+    private static final long EXPIRY_MARGIN_MS = 30_000;
+
+    private static final String DUMP_STORAGE = "function dump(s) { var o = {};"
+            + " for (var i = 0; i < s.length; i++) { var k = s.key(i); o[k] = s.getItem(k); } return o; }"
+            + " return [dump(window.localStorage), dump(window.sessionStorage)];";
+    private static final String LOAD_STORAGE = "var l = arguments[0], s = arguments[1];"
+            + " for (var k in l) window.localStorage.setItem(k, l[k]);"
+            + " for (var k in s) window.sessionStorage.setItem(k, s[k]);";
+
+    private SessionStateCache() {}
+
+    /** Registers the UI login for a role, with state kept for session.cache.ttl (default 30m). */
+    public static void register(String role, Login login) {
+        register(role, ConfigManager.getDuration("session.cache.ttl", Duration.ofMinutes(30)), login);
+    }
+
+    public static void register(String role, Duration ttl, Login login) {
+        logins.put(role, new Registration(login, ttl));
+        snapshots.remove(role);
+    }
+
+    /** The role a test selects through {@link LoggedInAs} on the method or class, or null. */
+    public static String roleFor(Method method) {
+        if (method == null) return null;
+        LoggedInAs role = method.getAnnotation(LoggedInAs.class);
+        if (role == null) role = method.getDeclaringClass().getAnnotation(LoggedInAs.class);
+        if (role == null || "none".equalsIgnoreCase(role.value())) return null;
+        return role.value();
+    }
+
+    /**
+     * Leaves the session logged in as the role: restores cached state, or logs in through the UI
+     * when there is none (or it has expired) and caches the result.
+     *
+     * @throws IllegalStateException if no login is registered for the role
+     * @throws RuntimeException if the login fails or takes longer than session.cache.login.timeout
+     */
+    public static void apply(WebDriver driver, String role) {
+        Registration registration = logins.get(role);
+        if (registration == null) {
+            throw new IllegalStateException("No login registered for role '" + role
+                    + "'; call SessionStateCache.register in a @BeforeSuite");
+        }
+        while (true) {
+            CompletableFuture<Snapshot> cached = snapshots.get(role);
+            if (cached != null) {
+                Snapshot snapshot = await(role, cached);
+                if (snapshot.expiresAt > System.currentTimeMillis()) {
+                    restore(driver, snapshot);
+                    return;
+                }
+                RunMetrics.increment("session.cache.expired");
+            }
+            CompletableFuture<Snapshot> mine = new CompletableFuture<>();
+            boolean leader = cached == null ? snapshots.putIfAbsent(role, mine) == null : snapshots.replace(role, cached, mine);
+            if (!leader) continue; // another thread started a login first; wait for that one
+            try {
+                mine.complete(login(driver, role, registration));
+                return; // this session did the login, so it is already in the right state
+            } catch (RuntimeException e) {
+                snapshots.remove(role, mine);
+                mine.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    /** Drops the cached state for a role (e.g. after a test logs out or changes the password). */
+    public static void invalidate(String role) {
+        snapshots.remove(role);
+    }
+
+    public static void clear() {
+        snapshots.clear();
+    }
+
+    private static Snapshot await(String role, CompletableFuture<Snapshot> pending) {
+        Duration timeout = ConfigManager.getDuration("session.cache.login.timeout", Duration.ofMinutes(2));
+        try {
+            return pending.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the login of '" + role + "'", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Login as '" + role + "' failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new RuntimeException("Login as '" + role + "' did not finish within " + timeout.toMillis() + " ms");
+        }
+    }
+
+    private static Snapshot login(WebDriver driver, String role, Registration registration) {
+        long start = System.currentTimeMillis();
+        registration.login.login(driver, CredentialUtil.forRole(role));
+        URI current = URI.create(driver.getCurrentUrl());
+        if (current.getScheme() == null || !current.getScheme().startsWith("http") || current.getAuthority() == null) {
+            throw new IllegalStateException("Login as '" + role + "' left the browser on " + current
+                    + "; it must end on a page of the app");
+        }
+        Set<Cookie> cookies = driver.manage().getCookies();
+        List<?> storage = (List<?>) ElementCache.readOnlyScript(
+                () -> ((JavascriptExecutor) driver).executeScript(DUMP_STORAGE));
+        long capturedAt = System.currentTimeMillis();
+        long expiresAt = capturedAt + registration.ttl.toMillis();
+        for (Cookie cookie : cookies) {
+            Date expiry = cookie.getExpiry();
+            if (expiry != null) expiresAt = Math.min(expiresAt, expiry.getTime() - EXPIRY_MARGIN_MS);
+        }
+        RunMetrics.increment("session.cache.logins");
+        RunMetrics.add("session.cache.login.ms", capturedAt - start);
+        return new Snapshot(current.getScheme() + "://" + current.getAuthority(), new ArrayList<>(cookies),
+                strings(storage.get(0)), strings(storage.get(1)), expiresAt);
+    }
+
+    // cookies and storage can only be set for the origin the browser is on
+    private static void restore(WebDriver driver, Snapshot snapshot) {
+        String path = ConfigManager.get("session.cache.restore.path");
+        driver.get(snapshot.origin + (path == null || path.isBlank() ? "/" : path.trim()));
+        for (Cookie cookie : snapshot.cookies) {
+            try {
+                driver.manage().addCookie(cookie);
+            } catch (Exception e) {
+                System.err.println("Could not restore cookie " + cookie.getName() + ": " + e.getMessage());
+            }
+        }
+        if (!snapshot.local.isEmpty() || !snapshot.session.isEmpty()) {
+            ((JavascriptExecutor) driver).executeScript(LOAD_STORAGE, snapshot.local, snapshot.session);
+        }
+        RunMetrics.increment("session.cache.restores");
+    }
+
+    private static Map<String, String> strings(Object storage) {
+        Map<String, String> values = new LinkedHashMap<>();
+        if (storage instanceof Map) {
+            ((Map<?, ?>) storage).forEach((k, v) -> values.put(String.valueOf(k), String.valueOf(v)));
+        }
+        return values;
+    }
+
+    private static final class Registration {
+        private final Login login;
+        private final Duration ttl;
+
+        private Registration(Login login, Duration ttl) {
+            this.login = login;
+            this.ttl = ttl;
+        }
+    }
+
+    private static final class Snapshot {
+        private final String origin;
+        private final List<Cookie> cookies;
+        private final Map<String, String> local;
+        private final Map<String, String> session;
+        private final long expiresAt;
+
+        private Snapshot(String origin, List<Cookie> cookies, Map<String, String> local, Map<String, String> session,
+                         long expiresAt) {
+            this.origin = origin;
+            this.cookies = cookies;
+            this.local = local;
+            this.session = session;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
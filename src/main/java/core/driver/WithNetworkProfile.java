@@ -0,0 +1,18 @@
+package core.driver;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Selects the {@link NetworkProfile} for a test method, or for every test in a class.
+ * "none" runs without one even when the suite or config selects a profile.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Inherited
+public @interface WithNetworkProfile {
+    String value();
+}
@@ -0,0 +1,102 @@
+package core.execution;
+
+import core.config.ConfigManager;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-method duration history (history.durations.path, a properties file of
+ * qualified method name = milliseconds). Each run's total per method (all invocations, e.g. of a
+ * data provider) is folded in as an exponentially weighted moving average
+ * (history.ewma.percent) when the suite ends.
+ */
+public final class DurationHistory {
+
+    private static final HistoryFile file = new HistoryFile("history.durations.path",
+            "reports/history/method-durations.properties", "Per-method duration history (ms, EWMA)");
+    private static final Map<String, LongAdder> thisRun = new ConcurrentHashMap<>();
+    private static volatile Known known;
+
+    private DurationHistory() {}
+
+    /** Historical duration in ms, or -1 when the method has never been recorded. */
+    public static double lookup(String method) {
+        Double ms = known().durations.get(method);
+        return ms == null ? -1 : ms;
+    }
+
+    /** Historical duration, falling back to {@link #defaultEstimate()} for unknown methods. */
+    public static double estimate(String method) {
+        double ms = lookup(method);
+        return ms < 0 ? defaultEstimate() : ms;
+    }
+
+    /**
+     * Estimate for methods without history: the median of known methods, or
+     * schedule.default.estimate.ms (30s) when nothing is known yet.
+     */
+    public static double defaultEstimate() {
+        Known k = known();
+        return k.durations.isEmpty() ? ConfigManager.getInt("schedule.default.estimate.ms", 30_000) : k.median;
+    }
+
+    public static void record(String method, long millis) {
+        thisRun.computeIfAbsent(method, k -> new LongAdder()).add(Math.max(0, millis));
+    }
+
+    /** Folds this run's durations into the history file (written atomically). */
+    public static synchronized void persist() {
+        if (thisRun.isEmpty()) return;
+        double alpha = Math.max(0.01, Math.min(1.0, ConfigManager.getInt("history.ewma.percent", 30) / 100.0));
+        Map<String, Double> merged = new HashMap<>(known().durations);
+        thisRun.forEach((method, total) -> {
+            double actual = total.sum();
+            merged.merge(method, actual, (old, now) -> old + alpha * (now - old));
+        });
+        thisRun.clear();
+
+        Map<String, String> values = new HashMap<>();
+        merged.forEach((method, ms) -> values.put(method, String.valueOf(Math.round(ms))));
+        file.write(values);
+        known = new Known(merged);
+    }
+
+    /** Reads history from the given file from now on (tests only). */
+    static void useFile(Path path) {
+        file.useFile(path);
+        known = null;
+    }
+
+    private static Known known() {
+        Known k = known;
+        if (k == null) {
+            Map<String, Double> durations = new HashMap<>();
+            file.values().forEach((method, value) -> {
+                try {
+                    durations.put(method, Double.parseDouble(value));
+                } catch (NumberFormatException ignored) {}
+            });
+            k = new Known(durations);
+            known = k;
+        }
+        return k;
+    }
+
+    // the parsed file; the median is computed once here rather than on every estimate
+    private static final class Known {
+        private final Map<String, Double> durations;
+        private final double median;
+
+        private Known(Map<String, Double> durations) {
+            this.durations = durations;
+            double[] sorted = durations.values().stream().mapToDouble(Double::doubleValue).toArray();
+            Arrays.sort(sorted);
+            this.median = sorted.length == 0 ? 0 : sorted[sorted.length / 2];
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package core.execution;
+
+import core.config.ConfigManager;
+import core.driver.DriverPool;
+import core.driver.DriverPrefetcher;
+import core.reporting.ExtentManager;
+import core.reporting.RunMetrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stops a run early once failfast.max.failures failures, or a failure rate of
+ * failfast.max.rate percent after at least failfast.min.tests results, is reached (0 disables
+ * either limit). Tests already running finish normally; {@code TestListener} skips everything
+ * that has not started yet and warm sessions are released straight away.
+ */
+public final class FailFast {
+
+    private static final AtomicInteger finished = new AtomicInteger();
+    private static final AtomicInteger failed = new AtomicInteger();
+    private static volatile String abortReason;
+
+    private FailFast() {}
+
+    public static boolean isAborted() {
+        return abortReason != null;
+    }
+
+    public static String abortReason() {
+        return abortReason;
+    }
+
+    public static void onResult(boolean passed) {
+        int total = finished.incrementAndGet();
+        int failures = passed ? failed.get() : failed.incrementAndGet();
+        if (passed || isAborted()) return;
+
+        String reason = limitReached(failures, total, ConfigManager.getInt("failfast.max.failures", 0),
+                ConfigManager.getInt("failfast.max.rate", 0), ConfigManager.getInt("failfast.min.tests", 10));
+        if (reason != null) abort(reason);
+    }
+
+    /** Why the run should stop after this many failures out of total results, or null to go on. */
+    static String limitReached(int failures, int total, int maxFailures, int maxRate, int minTests) {
+        if (maxFailures > 0 && failures >= maxFailures) {
+            return failures + " failures (failfast.max.failures=" + maxFailures + ")";
+        }
+        if (maxRate > 0 && total >= minTests && failures * 100 >= maxRate * total) {
+            return failures + " of " + total + " tests failed (failfast.max.rate=" + maxRate + "%)";
+        }
+        return null;
+    }
+
+    static synchronized void abort(String reason) {
+        if (abortReason != null) return;
+        abortReason = "Run aborted after " + reason;
+        System.err.println(abortReason + "; skipping remaining tests");
+        RunMetrics.increment("failfast.aborted");
+        ExtentManager.setSystemInfo("failfast", abortReason);
+        // nothing new will start, so warm sessions are only holding browsers; running tests keep theirs
+        DriverPrefetcher.shutdown();
+        DriverPool.drainIdle();
+    }
+
+    /** Forgets results and any abort (tests only). */
+    static synchronized void reset() {
+        finished.set(0);
+        failed.set(0);
+        abortReason = null;
+    }
+}
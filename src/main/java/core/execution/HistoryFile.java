@@ -0,0 +1,90 @@
+package core.execution;
+
+import core.config.ConfigManager;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * One per-method history file: a properties file of qualified method name = value, read once on
+ * first use and replaced atomically on write. Backs {@link DurationHistory} and {@link OutcomeHistory}.
+ */
+final class HistoryFile {
+
+    private final String pathKey;
+    private final String defaultPath;
+    private final String comment;
+    private volatile Path override;
+    private volatile Map<String, String> known;
+
+    HistoryFile(String pathKey, String defaultPath, String comment) {
+        this.pathKey = pathKey;
+        this.defaultPath = defaultPath;
+        this.comment = comment;
+    }
+
+    /** The stored values (read-only), or an empty map when the file does not exist or cannot be read. */
+    Map<String, String> values() {
+        Map<String, String> k = known;
+        if (k != null) return k;
+        synchronized (this) {
+            if (known != null) return known;
+            Map<String, String> loaded = new HashMap<>();
+            Path file = path();
+            if (Files.exists(file)) {
+                Properties props = new Properties();
+                try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    props.load(in);
+                    for (String method : props.stringPropertyNames()) {
+                        loaded.put(method, props.getProperty(method).trim());
+                    }
+                } catch (IOException e) {
+                    System.err.println("Could not read " + file + ": " + e.getMessage());
+                }
+            }
+            known = Collections.unmodifiableMap(loaded);
+            return known;
+        }
+    }
+
+    /** Replaces the file's contents; later reads see the new values even if the write fails. */
+    synchronized void write(Map<String, String> values) {
+        known = Collections.unmodifiableMap(new HashMap<>(values));
+        Properties props = new Properties();
+        props.putAll(values);
+        Path file = path();
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (Writer out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                props.store(out, comment);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write " + file + ": " + e.getMessage());
+        }
+    }
+
+    /** Reads from the given file instead of the configured one, starting afresh (tests only). */
+    synchronized void useFile(Path file) {
+        override = file;
+        known = null;
+    }
+
+    private Path path() {
+        Path file = override;
+        if (file != null) return file;
+        String configured = ConfigManager.get(pathKey);
+        return Paths.get(configured == null || configured.isBlank() ? defaultPath : configured.trim());
+    }
+}
@@ -0,0 +1,242 @@
+package core.execution;
+
+import core.config.ConfigManager;
+import core.reporting.ExtentManager;
+import org.testng.*;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Orders work longest-processing-time-first from {@link DurationHistory}, so the slowest tests
+ * start early instead of leaving one thread busy after the others go idle.
+ * The unit that gets ordered follows the suite's parallel mode: methods for parallel="methods",
+ * classes (by summed method estimates) for "classes"/"instances", and &lt;test&gt; elements for
+ * "tests". Each unit's predicted makespan on thread-count threads is reported against the
+ * actual duration. Enabled with schedule.order=LPT (default); NONE keeps TestNG's order.
+ * With schedule.failed.first=ON, units containing a method that failed last run come first,
+ * then ones with a flaky method ({@link OutcomeHistory}), each group in LPT order.
+ * With shard.total &gt; 1 it first narrows each &lt;test&gt; to this shard's methods ({@link ShardSelector}).
+ * Register it next to TestListener in the suite XML.
+ */
+public class LptScheduler implements IMethodInterceptor, IAlterSuiteListener, ITestListener, ISuiteListener {
+
+    private static final Map<String, Long> predicted = new ConcurrentHashMap<>();
+    private static volatile long suiteStart;
+
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        ShardSelector.plan(suites);
+        if (!lpt() && !failedFirst()) return;
+        for (XmlSuite suite : suites) {
+            if (suite.getParallel() != XmlSuite.ParallelMode.TESTS || suite.getTests().size() < 2) continue;
+            Map<XmlTest, Double> estimates = new LinkedHashMap<>();
+            Map<XmlTest, Integer> risks = new LinkedHashMap<>();
+            for (XmlTest test : suite.getTests()) {
+                estimates.put(test, estimate(test));
+                risks.put(test, methodNames(test).stream().mapToInt(OutcomeHistory::risk).max().orElse(0));
+            }
+            List<XmlTest> ordered = new ArrayList<>(suite.getTests());
+            ordered.sort(order(risks::get, estimates::get));
+            suite.getTests().clear();
+            suite.getTests().addAll(ordered);
+            for (int i = 0; i < ordered.size(); i++) {
+                ordered.get(i).setIndex(i); // parallel tests are started in index order
+            }
+            predicted.put(suiteKey(suite), makespan(new ArrayList<>(estimates.values()), suite.getThreadCount()));
+        }
+    }
+
+    @Override
+    public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
+        methods = ShardSelector.select(methods, context);
+        if ((!lpt() && !failedFirst()) || methods.size() < 2) return methods;
+        for (IMethodInstance m : methods) {
+            ITestNGMethod method = m.getMethod();
+            if (method.getMethodsDependedUpon().length > 0 || method.getGroupsDependedUpon().length > 0) {
+                return methods; // TestNG orders dependent methods itself
+            }
+        }
+
+        XmlTest xmlTest = context.getCurrentXmlTest();
+        XmlSuite.ParallelMode mode = xmlTest.getParallel();
+        List<IMethodInstance> ordered;
+        List<Double> units = new ArrayList<>();
+        if (mode == XmlSuite.ParallelMode.CLASSES || mode == XmlSuite.ParallelMode.INSTANCES) {
+            // a class runs on one thread, so whole classes are ordered; methods keep their order within it
+            Map<Class<?>, List<IMethodInstance>> byClass = new LinkedHashMap<>();
+            Map<Class<?>, Double> classTotals = new LinkedHashMap<>();
+            Map<Class<?>, Integer> classRisks = new LinkedHashMap<>();
+            for (IMethodInstance m : methods) {
+                Class<?> cls = m.getMethod().getRealClass();
+                byClass.computeIfAbsent(cls, k -> new ArrayList<>()).add(m);
+                classTotals.merge(cls, estimate(m), Double::sum);
+                classRisks.merge(cls, risk(m), Math::max);
+            }
+            List<Class<?>> classes = new ArrayList<>(byClass.keySet());
+            classes.sort(order(classRisks::get, classTotals::get));
+            ordered = new ArrayList<>(methods.size());
+            for (Class<?> cls : classes) {
+                ordered.addAll(byClass.get(cls));
+            }
+            units.addAll(classTotals.values());
+        } else {
+            ordered = new ArrayList<>(methods);
+            ordered.sort(order(LptScheduler::risk, LptScheduler::estimate));
+            for (IMethodInstance m : methods) {
+                units.add(estimate(m));
+            }
+        }
+
+        // within one <test>, only methods/classes/instances modes spread work across threads
+        boolean parallel = mode == XmlSuite.ParallelMode.METHODS || mode == XmlSuite.ParallelMode.CLASSES
+                || mode == XmlSuite.ParallelMode.INSTANCES;
+        int threads = parallel ? Math.max(1, xmlTest.getThreadCount()) : 1;
+        predicted.put(testKey(context), makespan(units, threads));
+        return ordered;
+    }
+
+    @Override
+    public void onStart(ISuite suite) {
+        suiteStart = System.currentTimeMillis();
+    }
+
+    @Override
+    public void onTestSuccess(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onTestFailure(ITestResult result) {
+        record(result);
+    }
+
+    @Override
+    public void onFinish(ITestContext context) {
+        Long prediction = predicted.remove(testKey(context));
+        if (prediction == null) return;
+        report(context.getName(), prediction, context.getEndDate().getTime() - context.getStartDate().getTime());
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        Long prediction = predicted.remove(suiteKey(suite.getXmlSuite()));
+        if (prediction != null) {
+            report(suite.getName(), prediction, System.currentTimeMillis() - suiteStart);
+        }
+        ShardSelector.finish(System.currentTimeMillis() - suiteStart);
+        DurationHistory.persist();
+    }
+
+    /** Makespan of greedy list scheduling of the units, in the given order, on {@code threads} workers. */
+    static long makespan(List<Double> units, int threads) {
+        List<Double> sorted = new ArrayList<>(units);
+        sorted.sort(Comparator.reverseOrder());
+        PriorityQueue<Double> loads = new PriorityQueue<>();
+        for (int i = 0; i < Math.max(1, threads); i++) loads.add(0.0);
+        double max = 0;
+        for (double unit : sorted) {
+            double load = loads.poll() + unit;
+            max = Math.max(max, load);
+            loads.add(load);
+        }
+        return Math.round(max);
+    }
+
+    private static void record(ITestResult result) {
+        DurationHistory.record(result.getMethod().getQualifiedName(), result.getEndMillis() - result.getStartMillis());
+    }
+
+    private static void report(String name, long predictedMs, long actualMs) {
+        String line = String.format("predicted %.1fs, actual %.1fs", predictedMs / 1000.0, actualMs / 1000.0);
+        System.out.println("LPT schedule [" + name + "]: " + line);
+        ExtentManager.setSystemInfo("schedule." + name, line);
+    }
+
+    // riskier first when failed-first is on, then longest first under LPT; the sort is stable otherwise
+    private static <T> Comparator<T> order(Function<T, Integer> risk, Function<T, Double> estimate) {
+        Comparator<T> order = (a, b) -> 0;
+        if (failedFirst()) order = order.thenComparing(risk, Comparator.reverseOrder());
+        if (lpt()) order = order.thenComparing(estimate, Comparator.reverseOrder());
+        return order;
+    }
+
+    private static double estimate(IMethodInstance m) {
+        return DurationHistory.estimate(m.getMethod().getQualifiedName());
+    }
+
+    private static int risk(IMethodInstance m) {
+        return OutcomeHistory.risk(m.getMethod().getQualifiedName());
+    }
+
+    // methods named in the XML; classes without includes count each method with history
+    private static double estimate(XmlTest test) {
+        double total = 0;
+        for (XmlClass xmlClass : test.getXmlClasses()) {
+            if (!xmlClass.getIncludedMethods().isEmpty()) {
+                for (XmlInclude include : xmlClass.getIncludedMethods()) {
+                    total += DurationHistory.estimate(xmlClass.getName() + "." + include.getName());
+                }
+            } else {
+                double known = 0;
+                for (String method : publicMethods(xmlClass.getName())) {
+                    known += Math.max(0, DurationHistory.lookup(method));
+                }
+                total += known > 0 ? known : DurationHistory.defaultEstimate();
+            }
+        }
+        return total;
+    }
+
+    private static List<String> methodNames(XmlTest test) {
+        List<String> names = new ArrayList<>();
+        for (XmlClass xmlClass : test.getXmlClasses()) {
+            if (!xmlClass.getIncludedMethods().isEmpty()) {
+                for (XmlInclude include : xmlClass.getIncludedMethods()) {
+                    names.add(xmlClass.getName() + "." + include.getName());
+                }
+            } else {
+                names.addAll(publicMethods(xmlClass.getName()));
+            }
+        }
+        return names;
+    }
+
+    private static List<String> publicMethods(String className) {
+        List<String> names = new ArrayList<>();
+        try {
+            for (Method method : Class.forName(className).getMethods()) {
+                names.add(className + "." + method.getName());
+            }
+        } catch (ClassNotFoundException | LinkageError ignored) {}
+        return names;
+    }
+
+    private static boolean lpt() {
+        String order = ConfigManager.get("schedule.order");
+        return order == null || order.isBlank() || "LPT".equalsIgnoreCase(order.trim());
+    }
+
+    private static boolean failedFirst() {
+        return ConfigManager.isOn("schedule.failed.first");
+    }
+
+    private static String testKey(ITestContext context) {
+        return context.getSuite().getName() + "/" + context.getName();
+    }
+
+    private static String suiteKey(XmlSuite suite) {
+        return suite.getName();
+    }
+}
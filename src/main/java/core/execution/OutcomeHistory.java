@@ -0,0 +1,55 @@
+package core.execution;
+
+import core.config.ConfigManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Last outcomes per method (history.outcomes.path), newest last, as a string of P/F such as
+ * "PPFPF", trimmed to history.outcomes.keep entries. Used to run recently failed and flaky
+ * methods first.
+ */
+public final class OutcomeHistory {
+
+    private static final HistoryFile file = new HistoryFile("history.outcomes.path",
+            "reports/history/method-outcomes.properties", "Last outcomes per method (P/F, newest last)");
+    private static final Map<String, Character> thisRun = new ConcurrentHashMap<>();
+
+    private OutcomeHistory() {}
+
+    public static void record(String method, boolean passed) {
+        // a method with several invocations counts as failed if any of them failed
+        thisRun.merge(method, passed ? 'P' : 'F', (old, now) -> old == 'F' ? old : now);
+    }
+
+    public static boolean failedLastRun(String method) {
+        String outcomes = file.values().get(method);
+        return outcomes != null && !outcomes.isEmpty() && outcomes.charAt(outcomes.length() - 1) == 'F';
+    }
+
+    /** Both passed and failed within the kept outcomes. */
+    public static boolean isFlaky(String method) {
+        String outcomes = file.values().get(method);
+        return outcomes != null && outcomes.indexOf('P') >= 0 && outcomes.indexOf('F') >= 0;
+    }
+
+    /** 2 for methods that failed last time, 1 for flaky ones, 0 otherwise. */
+    public static int risk(String method) {
+        if (failedLastRun(method)) return 2;
+        return isFlaky(method) ? 1 : 0;
+    }
+
+    public static synchronized void persist() {
+        if (thisRun.isEmpty()) return;
+        int keep = Math.max(1, ConfigManager.getInt("history.outcomes.keep", 10));
+        Map<String, String> merged = new HashMap<>(file.values());
+        thisRun.forEach((method, outcome) -> {
+            String all = merged.getOrDefault(method, "") + outcome;
+            merged.put(method, all.length() > keep ? all.substring(all.length() - keep) : all);
+        });
+        thisRun.clear();
+        file.write(merged);
+    }
+}
@@ -0,0 +1,256 @@
+package core.execution;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import core.config.ConfigManager;
+import org.testng.IMethodInstance;
+import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
+import org.testng.annotations.Test;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlInclude;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Splits a run across {@code -Dshard.total=n} processes, this one being {@code -Dshard.index=i}
+ * (0-based). Every shard packs the same work units into n bins greedily, longest estimate first
+ * ({@link DurationHistory}), ties broken by name, each unit to the least-loaded bin (lowest index
+ * on ties), and keeps only its own bin. The split is deterministic, so all shards agree on it as
+ * long as they see the same suite files and duration history.
+ * A unit is a method, a whole class when the &lt;test&gt; runs parallel="classes"/"instances" or the
+ * class has dependsOnMethods, and the whole &lt;test&gt; when it uses dependsOnGroups.
+ * Each shard writes its report fragment and a shard.json manifest under shard.report.dir/shard-&lt;i&gt;;
+ * {@link core.reporting.ReportMerger} combines them.
+ */
+public final class ShardSelector {
+
+    private static final String WHOLE_TEST = "*";
+
+    private static final Map<String, Plan> plans = new ConcurrentHashMap<>();
+    private static final Map<String, Integer> assignment = new ConcurrentHashMap<>();
+    private static volatile String fingerprint = "";
+    private static volatile double[] loads = new double[0];
+    private static volatile String summary;
+
+    private ShardSelector() {}
+
+    public static boolean enabled() {
+        return total() > 1;
+    }
+
+    public static int index() {
+        return ConfigManager.getInt("shard.index", 0);
+    }
+
+    public static int total() {
+        return ConfigManager.getInt("shard.total", 1);
+    }
+
+    /** Where this process writes its reports: reports/, or its shard's directory when sharded. */
+    public static String reportDir() {
+        if (!enabled()) return "reports";
+        String base = ConfigManager.get("shard.report.dir");
+        return (base == null || base.isBlank() ? "reports/shards" : base.trim()) + "/shard-" + index();
+    }
+
+    /**
+     * Packs every unit of the suites into shards. Runs once, before any test starts, so the split
+     * does not depend on the order in which &lt;test&gt; elements are later intercepted.
+     */
+    static synchronized void plan(List<XmlSuite> suites) {
+        if (!enabled()) return;
+        int total = total();
+        int index = index();
+        if (index < 0 || index >= total) {
+            throw new IllegalStateException("shard.index must be between 0 and " + (total - 1) + ", got " + index);
+        }
+
+        Map<String, Double> units = new LinkedHashMap<>();
+        for (XmlSuite suite : suites) {
+            for (XmlTest test : suite.getTests()) {
+                Plan plan = plan(test);
+                plans.put(testKey(suite.getName(), test.getName()), plan);
+                for (XmlClass xmlClass : test.getXmlClasses()) {
+                    for (Method method : testMethods(xmlClass)) {
+                        String unit = testKey(suite.getName(), test.getName()) + "::" + plan.unit(xmlClass.getName(), method.getName());
+                        units.merge(unit, DurationHistory.estimate(xmlClass.getName() + "." + method.getName()), Double::sum);
+                    }
+                }
+            }
+        }
+        Map<String, Integer> packed = pack(units, total);
+        assignment.putAll(packed);
+
+        double[] bins = new double[total];
+        int mine = 0;
+        for (Map.Entry<String, Integer> e : packed.entrySet()) {
+            bins[e.getValue()] += units.get(e.getKey());
+            if (e.getValue() == index) mine++;
+        }
+        loads = bins;
+        fingerprint = fingerprint(packed);
+        String line = String.format("%d of %d units, predicted %.1fs (largest shard %.1fs), plan %s",
+                mine, packed.size(), bins[index] / 1000.0, max(bins) / 1000.0, fingerprint);
+        System.out.println("Shard " + index + "/" + total + ": " + line);
+        summary = index + "/" + total + ": " + line;
+    }
+
+    /** The methods of this &lt;test&gt; that belong to this shard, in their original order. */
+    static List<IMethodInstance> select(List<IMethodInstance> methods, ITestContext context) {
+        if (!enabled()) return methods;
+        String key = testKey(context.getSuite().getName(), context.getName());
+        Plan plan = plans.get(key);
+        int index = index();
+        List<IMethodInstance> selected = new ArrayList<>(methods.size());
+        for (IMethodInstance m : methods) {
+            ITestNGMethod method = m.getMethod();
+            String unit = key + "::" + (plan != null ? plan.unit(method.getRealClass().getName(), method.getMethodName())
+                    : method.getQualifiedName());
+            Integer shard = assignment.get(unit);
+            // methods the plan could not see (e.g. added by a factory) still land on exactly one shard
+            if (shard == null) shard = Math.floorMod(unit.hashCode(), total());
+            if (shard == index) selected.add(m);
+        }
+        return selected;
+    }
+
+    /**
+     * Greedy LPT bin packing: units sorted by estimate descending then name, each placed on the
+     * currently least-loaded shard, the lowest index winning ties.
+     */
+    static Map<String, Integer> pack(Map<String, Double> units, int shards) {
+        List<Map.Entry<String, Double>> sorted = new ArrayList<>(units.entrySet());
+        sorted.sort(Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        double[] bins = new double[shards];
+        Map<String, Integer> out = new TreeMap<>();
+        for (Map.Entry<String, Double> unit : sorted) {
+            int target = 0;
+            for (int i = 1; i < shards; i++) {
+                if (bins[i] < bins[target]) target = i;
+            }
+            bins[target] += unit.getValue();
+            out.put(unit.getKey(), target);
+        }
+        return out;
+    }
+
+    /** This shard's part of the plan ("i/n: units, predicted time, plan fingerprint"), or null when not sharded. */
+    public static String summary() {
+        return summary;
+    }
+
+    /** Writes shard.json (index, total, plan fingerprint, predicted loads, actual duration) into the shard's report directory. */
+    static void finish(long durationMs) {
+        if (!enabled()) return;
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("index", index());
+        manifest.put("total", total());
+        manifest.put("plan", fingerprint);
+        manifest.put("units", assignment.size());
+        manifest.put("unitsInShard", assignment.values().stream().filter(s -> s == index()).count());
+        List<Long> predicted = new ArrayList<>();
+        for (double load : loads) predicted.add(Math.round(load));
+        manifest.put("predictedMs", predicted);
+        manifest.put("durationMs", durationMs);
+        File file = new File(reportDir(), "shard.json");
+        try {
+            file.getParentFile().mkdirs();
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, manifest);
+        } catch (Exception e) {
+            System.err.println("Failed to write shard manifest " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static Plan plan(XmlTest test) {
+        XmlSuite.ParallelMode mode = test.getParallel();
+        Plan plan = new Plan(mode == XmlSuite.ParallelMode.CLASSES || mode == XmlSuite.ParallelMode.INSTANCES);
+        for (XmlClass xmlClass : test.getXmlClasses()) {
+            for (Method method : testMethods(xmlClass)) {
+                Test annotation = method.getAnnotation(Test.class);
+                if (annotation == null) continue;
+                if (annotation.dependsOnGroups().length > 0) plan.wholeTest = true;
+                if (annotation.dependsOnMethods().length > 0) plan.wholeClasses.add(xmlClass.getName());
+            }
+        }
+        return plan;
+    }
+
+    // @Test methods of the class (or its public methods, for a class-level @Test), minus XML includes/excludes
+    private static List<Method> testMethods(XmlClass xmlClass) {
+        List<Method> methods = new ArrayList<>();
+        Class<?> cls;
+        try {
+            cls = Class.forName(xmlClass.getName());
+        } catch (ClassNotFoundException | LinkageError e) {
+            return methods;
+        }
+        Set<String> included = new HashSet<>();
+        for (XmlInclude include : xmlClass.getIncludedMethods()) included.add(include.getName());
+        Set<String> excluded = new HashSet<>(xmlClass.getExcludedMethods());
+        boolean classLevel = cls.isAnnotationPresent(Test.class);
+        for (Method method : cls.getMethods()) {
+            if (method.getDeclaringClass() == Object.class) continue;
+            Test annotation = method.getAnnotation(Test.class);
+            boolean test = annotation != null ? annotation.enabled()
+                    : classLevel && method.getDeclaringClass() == cls && method.getAnnotations().length == 0;
+            if (!test || excluded.contains(method.getName())) continue;
+            if (!included.isEmpty() && !included.contains(method.getName())) continue;
+            methods.add(method);
+        }
+        methods.sort((a, b) -> a.getName().compareTo(b.getName()));
+        return methods;
+    }
+
+    private static String fingerprint(Map<String, Integer> packed) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Map.Entry<String, Integer> e : packed.entrySet()) {
+                digest.update((e.getKey() + "=" + e.getValue() + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) hex.append(String.format("%02x", b));
+            return hex.substring(0, 12);
+        } catch (Exception e) {
+            return Integer.toHexString(packed.hashCode());
+        }
+    }
+
+    private static double max(double[] values) {
+        double max = 0;
+        for (double v : values) max = Math.max(max, v);
+        return max;
+    }
+
+    private static String testKey(String suite, String test) {
+        return suite + "/" + test;
+    }
+
+    private static final class Plan {
+        private final boolean byClass;
+        private final Set<String> wholeClasses = new HashSet<>();
+        private boolean wholeTest;
+
+        private Plan(boolean byClass) {
+            this.byClass = byClass;
+        }
+
+        String unit(String className, String methodName) {
+            if (wholeTest) return WHOLE_TEST;
+            if (byClass || wholeClasses.contains(className)) return className;
+            return className + "." + methodName;
+        }
+    }
+}
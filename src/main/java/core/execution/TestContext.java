@@ -0,0 +1,130 @@
+package core.execution;
+
+import com.aventstack.extentreports.ExtentTest;
+import core.reporting.StreamingReporter;
+import org.openqa.selenium.WebDriver;
+
+/**
+ * Per-test state (driver, report node, network profile, login role, who created what) in one
+ * object, bound to the thread running the test through a single ThreadLocal. One lookup replaces
+ * one ThreadLocal per field, and the whole context can be handed to another thread with {@link #bind(TestContext)}, which
+ * matters when tests run on short-lived virtual threads.
+ */
+public final class TestContext {
+
+    private static final ThreadLocal<TestContext> current = new ThreadLocal<>();
+
+    private WebDriver driver;
+    private boolean capacityHeld;
+    private ExtentTest reportNode;
+    private StreamingReporter.TestRecord reportRecord;
+    private boolean listenerCreatedDriver;
+    private boolean baseTestCreatedDriver;
+    private boolean baseTestCreatedReport;
+    private String networkProfile;
+    private String sessionRole;
+
+    /** The calling thread's context, created on first use. */
+    public static TestContext get() {
+        TestContext context = current.get();
+        if (context == null) {
+            context = new TestContext();
+            current.set(context);
+        }
+        return context;
+    }
+
+    /** The calling thread's context, or null if it has none (no lookup side effects). */
+    public static TestContext peek() {
+        return current.get();
+    }
+
+    /**
+     * Makes the given context the calling thread's (null unbinds) and returns the previous one, so
+     * work handed to another thread can run against the test's driver and report node.
+     */
+    public static TestContext bind(TestContext context) {
+        TestContext previous = current.get();
+        if (context == null) {
+            current.remove();
+        } else {
+            current.set(context);
+        }
+        return previous;
+    }
+
+    public WebDriver getDriver() {
+        return driver;
+    }
+
+    public void setDriver(WebDriver driver) {
+        this.driver = driver;
+    }
+
+    /** Whether this test holds a grid.capacity permit for its session. */
+    public boolean isCapacityHeld() {
+        return capacityHeld;
+    }
+
+    public void setCapacityHeld(boolean held) {
+        this.capacityHeld = held;
+    }
+
+    public ExtentTest getReportNode() {
+        return reportNode;
+    }
+
+    public void setReportNode(ExtentTest node) {
+        this.reportNode = node;
+    }
+
+    public StreamingReporter.TestRecord getReportRecord() {
+        return reportRecord;
+    }
+
+    public void setReportRecord(StreamingReporter.TestRecord record) {
+        this.reportRecord = record;
+    }
+
+    public boolean isListenerCreatedDriver() {
+        return listenerCreatedDriver;
+    }
+
+    public void setListenerCreatedDriver(boolean created) {
+        this.listenerCreatedDriver = created;
+    }
+
+    public boolean isBaseTestCreatedDriver() {
+        return baseTestCreatedDriver;
+    }
+
+    public void setBaseTestCreatedDriver(boolean created) {
+        this.baseTestCreatedDriver = created;
+    }
+
+    public boolean isBaseTestCreatedReport() {
+        return baseTestCreatedReport;
+    }
+
+    public void setBaseTestCreatedReport(boolean created) {
+        this.baseTestCreatedReport = created;
+    }
+
+    /** The network profile this test selected; null falls back to network.profile from the config. */
+    public String getNetworkProfile() {
+        return networkProfile;
+    }
+
+    public void setNetworkProfile(String name) {
+        this.networkProfile = name;
+    }
+
+    /** The role whose cached login state the test's session starts with; null starts logged out. */
+    public String getSessionRole() {
+        return sessionRole;
+    }
+
+    public void setSessionRole(String role) {
+        this.sessionRole = role;
+    }
+}
@@ -47,6 +47,7 @@ public class TestExecutor {
                     ExtentManager.fail(result.getThrowable().getMessage(), path);
                     ExtentManager.attachScreenshot(path, "Failure Screenshot");
                 }
+                ExtentManager.endTest();
                 ExtentManager.flush();
             }
         } catch (Exception ignored) {}
@@ -0,0 +1,130 @@
+package core.execution;
+
+import core.config.ConfigManager;
+import core.reporting.CommandLatency;
+import org.testng.IExecutorServiceFactory;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TestNG worker executor that starts a new virtual thread per task, for remote runs where a test
+ * spends nearly all its time blocked on Grid HTTP calls. Enable it with
+ * {@code -threadpoolfactoryclass core.execution.VirtualThreadExecutorFactory} (the
+ * {@code virtual-threads} Maven profile does this) and raise thread-count; grid.capacity then
+ * bounds how many tests hold a browser at once, not the number of OS threads.
+ * At most thread-count tasks run at once; the others wait on a fair semaphore inside their own
+ * (unmounted) virtual thread. Per-thread state lasts one task, so driver.prefetch.enabled is
+ * ignored; latency recorders are handed back when a task ends and streaming report shards are
+ * pooled, so neither grows with the number of tasks.
+ * Virtual threads need Java 21+; older runtimes get TestNG's platform-thread pool and a warning.
+ */
+public class VirtualThreadExecutorFactory implements IExecutorServiceFactory {
+
+    private static volatile boolean warned;
+    static volatile boolean active; // reset by tests
+
+    @Override
+    public ExecutorService create(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                  BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory) {
+        ExecutorService perTask = threadPerTaskExecutor("testng-vt-");
+        if (perTask == null) {
+            if (!warned) {
+                warned = true;
+                System.err.println("Virtual threads need Java 21+ (running " + Runtime.version().feature()
+                        + "); TestNG runs on platform threads");
+            }
+            return new ThreadPoolExecutor(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory);
+        }
+        if (!active && ConfigManager.isOn("driver.prefetch.enabled")) {
+            System.err.println("driver.prefetch.enabled is ignored on virtual threads: each TestNG task gets a new thread");
+        }
+        active = true;
+        return new Bounded(perTask, Math.max(1, maximumPoolSize));
+    }
+
+    /** True once TestNG workers run on per-task virtual threads, so per-thread state does not outlive a task. */
+    public static boolean isActive() {
+        return active;
+    }
+
+    /** Thread.ofVirtual().name(prefix, 0).factory(), looked up reflectively so this compiles on Java 17; null if unavailable. */
+    public static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            Object ofVirtual = Thread.class.getMethod("ofVirtual").invoke(null);
+            Object named = builder.getMethod("name", String.class, long.class).invoke(ofVirtual, prefix, 0L);
+            return (ThreadFactory) builder.getMethod("factory").invoke(named);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** Executors.newThreadPerTaskExecutor over {@link #virtualThreadFactory(String)}; null before Java 21. */
+    static ExecutorService threadPerTaskExecutor(String prefix) {
+        ThreadFactory virtual = virtualThreadFactory(prefix);
+        if (virtual == null) return null;
+        try {
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                    .invoke(null, virtual);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** Caps how many submitted tasks run at once without holding a platform thread per waiting task. */
+    private static final class Bounded extends AbstractExecutorService {
+        private final ExecutorService delegate;
+        private final Semaphore running;
+
+        private Bounded(ExecutorService delegate, int limit) {
+            this.delegate = delegate;
+            this.running = new Semaphore(limit, true);
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            delegate.execute(() -> {
+                running.acquireUninterruptibly();
+                try {
+                    task.run();
+                } finally {
+                    CommandLatency.releaseThread(); // the thread ends here; its recorder serves the next task
+                    running.release();
+                }
+            });
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
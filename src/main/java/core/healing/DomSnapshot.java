@@ -0,0 +1,102 @@
+package core.healing;
+
+import core.utils.ElementCache;
+import org.openqa.selenium.JavascriptExecutor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar attribute snapshot of every element in the page, fetched in a single executeScript
+ * round trip. Index i corresponds to {@code (//*)[i + 1]}, i.e. document order.
+ */
+public final class DomSnapshot {
+
+    private static final String SCRIPT =
+            "var els = document.getElementsByTagName('*'), n = els.length;"
+          + "var tag = [], id = [], name = [], cls = [], text = [], rect = [];"
+          + "for (var i = 0; i < n; i++) {"
+          + "  var e = els[i];"
+          + "  tag.push(e.tagName.toLowerCase()); id.push(e.id || '');"
+          + "  name.push(e.getAttribute('name') || '');"
+          + "  cls.push(typeof e.className === 'string' ? e.className : '');"
+          + "  var t = '';"
+          + "  for (var c = e.firstChild; c; c = c.nextSibling) { if (c.nodeType === 3) t += c.nodeValue; }"
+          + "  t = t.trim(); text.push(t.length > 64 ? t.substring(0, 64) : t);"
+          + "  var r = e.getBoundingClientRect();"
+          + "  rect.push(Math.round(r.left), Math.round(r.top), Math.round(r.width), Math.round(r.height));"
+          + "}"
+          + "return {tag: tag, id: id, name: name, cls: cls, text: text, rect: rect};";
+
+    final int size;
+    final String[] tag;
+    final String[] id;
+    final String[] name;
+    final String[] cls;
+    final String[] text;
+    final int[] x;
+    final int[] y;
+    final int[] w;
+    final int[] h;
+
+    public DomSnapshot(String[] tag, String[] id, String[] name, String[] cls, String[] text,
+                       int[] x, int[] y, int[] w, int[] h) {
+        this.size = tag.length;
+        this.tag = tag;
+        this.id = id;
+        this.name = name;
+        this.cls = cls;
+        this.text = text;
+        this.x = x;
+        this.y = y;
+        this.w = w;
+        this.h = h;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static DomSnapshot capture(JavascriptExecutor js) {
+        Map<String, List<Object>> raw =
+                (Map<String, List<Object>>) ElementCache.readOnlyScript(() -> js.executeScript(SCRIPT));
+        List<Object> rect = raw.get("rect");
+        int n = raw.get("tag").size();
+        int[] x = new int[n], y = new int[n], w = new int[n], h = new int[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = ((Number) rect.get(i * 4)).intValue();
+            y[i] = ((Number) rect.get(i * 4 + 1)).intValue();
+            w[i] = ((Number) rect.get(i * 4 + 2)).intValue();
+            h[i] = ((Number) rect.get(i * 4 + 3)).intValue();
+        }
+        return new DomSnapshot(strings(raw.get("tag")), strings(raw.get("id")), strings(raw.get("name")),
+                strings(raw.get("cls")), strings(raw.get("text")), x, y, w, h);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    boolean isUniqueId(int index) {
+        return isUnique(id, index);
+    }
+
+    boolean isUniqueName(int index) {
+        return isUnique(name, index);
+    }
+
+    private static boolean isUnique(String[] column, int index) {
+        String value = column[index];
+        if (value.isEmpty()) return false;
+        for (int i = 0; i < column.length; i++) {
+            if (i != index && value.equals(column[i])) return false;
+        }
+        return true;
+    }
+
+    private static String[] strings(List<Object> values) {
+        String[] out = new String[values.size()];
+        for (int i = 0; i < out.length; i++) {
+            Object v = values.get(i);
+            out[i] = v == null ? "" : v.toString();
+        }
+        return out;
+    }
+}
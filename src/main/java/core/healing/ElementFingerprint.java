@@ -0,0 +1,110 @@
+package core.healing;
+
+import core.utils.ElementCache;
+import core.utils.Locators;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * What is known about an element: either its last observed attributes, or whatever can be
+ * inferred from a (broken) locator. Empty strings and negative coordinates mean "unknown".
+ */
+public final class ElementFingerprint {
+
+    private static final Pattern XPATH_ATTR = Pattern.compile("@(id|name|class)\\s*[=,]\\s*['\"]([^'\"]+)['\"]");
+    private static final Pattern XPATH_TEXT = Pattern.compile("(?:text\\(\\)|\\.)\\s*[=,]\\s*['\"]([^'\"]+)['\"]");
+    private static final Pattern XPATH_TAG = Pattern.compile("^/+([a-zA-Z][a-zA-Z0-9]*)");
+    private static final Pattern CSS_ID = Pattern.compile("#([A-Za-z_][\\w-]*)");
+    private static final Pattern CSS_CLASS = Pattern.compile("\\.([A-Za-z_][\\w-]*)");
+    private static final Pattern CSS_NAME = Pattern.compile("\\[name\\s*=\\s*['\"]?([^'\"\\]]+)");
+    private static final Pattern CSS_TAG = Pattern.compile("^([a-zA-Z][a-zA-Z0-9]*)");
+
+    private static final String CAPTURE_SCRIPT =
+            "var e = arguments[0], r = e.getBoundingClientRect(), t = '';"
+          + "for (var c = e.firstChild; c; c = c.nextSibling) { if (c.nodeType === 3) t += c.nodeValue; }"
+          + "return [e.tagName.toLowerCase(), e.id || '', e.getAttribute('name') || '',"
+          + " typeof e.className === 'string' ? e.className : '', t.trim().substring(0, 64),"
+          + " Math.round(r.left), Math.round(r.top)];";
+
+    final String tag;
+    final String id;
+    final String name;
+    final String cls;
+    final String text;
+    final int x;
+    final int y;
+
+    public ElementFingerprint(String tag, String id, String name, String cls, String text, int x, int y) {
+        this.tag = nz(tag);
+        this.id = nz(id);
+        this.name = nz(name);
+        this.cls = nz(cls);
+        this.text = nz(text);
+        this.x = x;
+        this.y = y;
+    }
+
+    /** Reads the element's current attributes in one script call. */
+    public static ElementFingerprint of(JavascriptExecutor js, WebElement element) {
+        List<?> v = (List<?>) ElementCache.readOnlyScript(() -> js.executeScript(CAPTURE_SCRIPT, element));
+        return new ElementFingerprint((String) v.get(0), (String) v.get(1), (String) v.get(2), (String) v.get(3),
+                (String) v.get(4), ((Number) v.get(5)).intValue(), ((Number) v.get(6)).intValue());
+    }
+
+    /** Best-effort fingerprint inferred from the locator itself. */
+    public static ElementFingerprint fromLocator(By locator) {
+        String strategy = Locators.strategy(locator);
+        String value = Locators.value(locator);
+        if (strategy == null || value == null) {
+            return new ElementFingerprint("", "", "", "", "", -1, -1);
+        }
+        switch (strategy) {
+            case "id":
+                return new ElementFingerprint("", value, "", "", "", -1, -1);
+            case "name":
+                return new ElementFingerprint("", "", value, "", "", -1, -1);
+            case "className":
+                return new ElementFingerprint("", "", "", value, "", -1, -1);
+            case "tagName":
+                return new ElementFingerprint(value, "", "", "", "", -1, -1);
+            case "linkText":
+            case "partialLinkText":
+                return new ElementFingerprint("a", "", "", "", value, -1, -1);
+            case "cssSelector":
+                return new ElementFingerprint(group(CSS_TAG, value), group(CSS_ID, value), group(CSS_NAME, value),
+                        group(CSS_CLASS, value), "", -1, -1);
+            case "xpath": {
+                String id = "", name = "", cls = "";
+                Matcher m = XPATH_ATTR.matcher(value);
+                while (m.find()) {
+                    if ("id".equals(m.group(1))) id = m.group(2);
+                    else if ("name".equals(m.group(1))) name = m.group(2);
+                    else cls = m.group(2);
+                }
+                String tag = group(XPATH_TAG, value);
+                return new ElementFingerprint("*".equals(tag) ? "" : tag, id, name, cls,
+                        group(XPATH_TEXT, value), -1, -1);
+            }
+            default:
+                return new ElementFingerprint("", "", "", "", "", -1, -1);
+        }
+    }
+
+    boolean hasPosition() {
+        return x >= 0 && y >= 0;
+    }
+
+    private static String group(Pattern p, String s) {
+        Matcher m = p.matcher(s);
+        return m.find() ? m.group(1) : "";
+    }
+
+    private static String nz(String s) {
+        return s == null ? "" : s;
+    }
+}
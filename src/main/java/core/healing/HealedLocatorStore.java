@@ -0,0 +1,276 @@
+package core.healing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import core.config.ConfigManager;
+import core.reporting.ExtentManager;
+import core.utils.Locators;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * On-disk memory of successful heals, keyed by page pattern and original locator, so later
+ * lookups (in this run and the next) go straight to the healed locator.
+ * Each entry counts how often it was healed and how often it was used since. Its confidence
+ * grows with those uses, uses / (uses + 1), and halves every healing.store.half.life.days (default 10)
+ * it sits unused; entries below healing.store.min.confidence percent (default 10) or unused for
+ * healing.store.expiry.days (default 30) are dropped when the store is loaded. Positional heals
+ * ("(//*)[N]") are used once but never remembered: the N-th element of a page is a different
+ * element as soon as the page changes. {@link #export()} writes the run's heal report.
+ */
+public final class HealedLocatorStore {
+
+    // "<hits> <heals> <lastUsed> <strategy>:<value>"; older stores hold only "<strategy>:<value>"
+    private static final Pattern VALUE = Pattern.compile("(\\d+) (\\d+) (\\d+) (.+)");
+
+    static Supplier<Path> storePath = () -> configuredPath("healing.store.path", "reports/healed-locators.properties"); // replaced by tests
+    static Supplier<Path> reportPath = () -> configuredPath("healing.report.path", "reports/healing-report.json"); // replaced by tests
+    static LongSupplier clock = System::currentTimeMillis; // replaced by tests
+
+    // original locator -> (page pattern -> heal); loaded once, then read without locking
+    private static volatile Map<String, Map<String, Entry>> heals;
+
+    private HealedLocatorStore() {}
+
+    /**
+     * Returns the remembered replacement for a locator on the driver's current page, or null.
+     * The current URL is only requested when the locator has been healed before.
+     */
+    public static By lookup(WebDriver driver, By locator) {
+        Map<String, Entry> byPage = heals().get(locator.toString());
+        if (byPage == null || byPage.isEmpty()) return null;
+        Entry entry = byPage.get(pagePattern(driver.getCurrentUrl()));
+        return entry == null ? null : entry.healed;
+    }
+
+    /** Counts a successful use of a remembered heal (saved with the next change or {@link #export()}). */
+    public static void recordHit(By original, By healed) {
+        Map<String, Entry> byPage = heals().get(original.toString());
+        if (byPage == null) return;
+        for (Entry entry : byPage.values()) {
+            if (entry.healed.equals(healed)) {
+                entry.hits.incrementAndGet();
+                entry.runHits.incrementAndGet();
+                entry.lastUsed = clock.getAsLong();
+            }
+        }
+    }
+
+    public static void remember(WebDriver driver, By original, By healed) {
+        if (LocatorHealer.isPositional(healed)) return;
+        String page = pagePattern(driver.getCurrentUrl());
+        Entry entry = heals().computeIfAbsent(original.toString(), k -> new ConcurrentHashMap<>())
+                .compute(page, (k, old) -> old != null && old.healed.equals(healed)
+                        ? old : new Entry(healed, 0, 0, clock.getAsLong()));
+        entry.heals.incrementAndGet();
+        entry.runHeals.incrementAndGet();
+        entry.lastUsed = clock.getAsLong();
+        save();
+    }
+
+    public static void forget(WebDriver driver, By original) {
+        Map<String, Entry> byPage = heals().get(original.toString());
+        if (byPage != null && byPage.remove(pagePattern(driver.getCurrentUrl())) != null) {
+            save();
+        }
+    }
+
+    /**
+     * Saves the counts and writes the heal report (healing.report.path, default
+     * reports/healing-report.json): every remembered heal with its counts for this run and overall.
+     * Does nothing when the store was never touched.
+     */
+    public static void export() {
+        Map<String, Map<String, Entry>> current = heals;
+        if (current == null) return;
+        save();
+
+        List<Map<String, Object>> entries = new ArrayList<>();
+        int healedThisRun = 0, usedThisRun = 0;
+        long now = clock.getAsLong();
+        double halfLife = halfLifeMillis();
+        for (Map.Entry<String, Map<String, Entry>> original : new TreeMap<>(current).entrySet()) {
+            for (Map.Entry<String, Entry> byPage : new TreeMap<>(original.getValue()).entrySet()) {
+                Entry e = byPage.getValue();
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("page", byPage.getKey());
+                row.put("original", original.getKey());
+                row.put("healed", e.healed.toString());
+                row.put("healsThisRun", e.runHeals.get());
+                row.put("hitsThisRun", e.runHits.get());
+                row.put("heals", e.heals.get());
+                row.put("hits", e.hits.get());
+                row.put("lastUsed", e.lastUsed);
+                row.put("confidence", Math.round(confidence(e, now, halfLife) * 100) / 100.0);
+                entries.add(row);
+                if (e.runHeals.get() > 0) healedThisRun++;
+                if (e.runHits.get() > 0) usedThisRun++;
+            }
+        }
+        if (healedThisRun + usedThisRun > 0) {
+            String summary = healedThisRun + " healed, " + usedThisRun + " reused of " + entries.size() + " remembered";
+            System.out.println("Healed locators: " + summary);
+            ExtentManager.setSystemInfo("healing.locators", summary);
+        }
+
+        File file = reportPath.get().toFile();
+        try {
+            if (file.getParentFile() != null) file.getParentFile().mkdirs();
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, Map.of("heals", entries));
+        } catch (Exception e) {
+            System.err.println("Could not write healing report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Normalizes a URL to scheme://host/path with numeric and id-like segments replaced by "*",
+     * so /orders/1234 and /orders/5678 share their heals.
+     */
+    static String pagePattern(String url) {
+        if (url == null) return "";
+        try {
+            URI uri = URI.create(url);
+            String path = uri.getPath() == null ? "" : uri.getPath()
+                    .replaceAll("/[0-9]+(?=/|$)", "/*")
+                    .replaceAll("/[0-9a-fA-F-]{16,}(?=/|$)", "/*");
+            String host = uri.getHost() == null ? "" : uri.getHost();
+            return uri.getScheme() + "://" + host + path;
+        } catch (Exception e) {
+            int q = url.indexOf('?');
+            return q < 0 ? url : url.substring(0, q);
+        }
+    }
+
+    /** Drops the in-memory store so the next access loads it again (tests only). */
+    static synchronized void reload() {
+        heals = null;
+    }
+
+    private static Path configuredPath(String key, String defaultPath) {
+        String configured = ConfigManager.get(key);
+        return Paths.get(configured != null && !configured.isBlank() ? configured : defaultPath);
+    }
+
+    /**
+     * How much a remembered heal is trusted, 0..1: uses / (uses + 1), halved for every half-life
+     * since it was last healed or used.
+     */
+    private static double confidence(Entry e, long now, double halfLifeMillis) {
+        int uses = e.hits.get() + e.heals.get();
+        double idle = Math.max(0, now - e.lastUsed);
+        return uses / (uses + 1.0) * Math.pow(0.5, idle / halfLifeMillis);
+    }
+
+    private static double halfLifeMillis() {
+        return TimeUnit.DAYS.toMillis(Math.max(1, ConfigManager.getInt("healing.store.half.life.days", 10)));
+    }
+
+    private static Map<String, Map<String, Entry>> heals() {
+        Map<String, Map<String, Entry>> current = heals;
+        return current != null ? current : load();
+    }
+
+    private static synchronized Map<String, Map<String, Entry>> load() {
+        if (heals == null) {
+            Map<String, Map<String, Entry>> loaded = new ConcurrentHashMap<>();
+            Path path = storePath.get();
+            if (Files.exists(path)) {
+                long now = clock.getAsLong();
+                long maxIdle = TimeUnit.DAYS.toMillis(ConfigManager.getInt("healing.store.expiry.days", 30));
+                double halfLife = halfLifeMillis();
+                double minConfidence = ConfigManager.getInt("healing.store.min.confidence", 10) / 100.0;
+                int dropped = 0;
+                Properties props = new Properties();
+                try (InputStream in = Files.newInputStream(path)) {
+                    props.load(in);
+                    for (String key : props.stringPropertyNames()) {
+                        int sep = key.indexOf('|');
+                        if (sep < 0) continue;
+                        Entry entry = parse(props.getProperty(key), now);
+                        if (entry == null || now - entry.lastUsed > maxIdle || LocatorHealer.isPositional(entry.healed)
+                                || confidence(entry, now, halfLife) < minConfidence) {
+                            dropped++;
+                            continue;
+                        }
+                        loaded.computeIfAbsent(key.substring(sep + 1), k -> new ConcurrentHashMap<>())
+                                .put(key.substring(0, sep), entry);
+                    }
+                } catch (Exception e) {
+                    System.err.println("Ignoring unreadable healed locator store " + path + ": " + e.getMessage());
+                }
+                if (dropped > 0) {
+                    System.out.println("Dropped " + dropped + " expired, low-confidence or positional heals from " + path);
+                }
+            }
+            heals = loaded;
+        }
+        return heals;
+    }
+
+    private static Entry parse(String value, long now) {
+        try {
+            Matcher m = VALUE.matcher(value);
+            if (!m.matches()) return new Entry(Locators.parse(value), 0, 1, now);
+            return new Entry(Locators.parse(m.group(4)), Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)),
+                    Long.parseLong(m.group(3)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static synchronized void save() {
+        Properties props = new Properties();
+        heals.forEach((original, byPage) -> byPage.forEach((page, e) ->
+                props.setProperty(page + "|" + original,
+                        e.hits.get() + " " + e.heals.get() + " " + e.lastUsed + " " + Locators.serialize(e.healed))));
+        Path path = storePath.get().toAbsolutePath();
+        try {
+            Files.createDirectories(path.getParent());
+            Path tmp = Files.createTempFile(path.getParent(), "healed-locators", ".tmp");
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                props.store(out, "Healed locators: <page pattern>|<original locator> = <hits> <heals> <last used ms> <strategy>:<value>");
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            System.err.println("Could not save healed locator store " + path + ": " + e.getMessage());
+        }
+    }
+
+    private static final class Entry {
+        private final By healed;
+        private final AtomicInteger hits;
+        private final AtomicInteger heals;
+        private final AtomicInteger runHits = new AtomicInteger();
+        private final AtomicInteger runHeals = new AtomicInteger();
+        private volatile long lastUsed;
+
+        private Entry(By healed, int hits, int heals, long lastUsed) {
+            this.healed = healed;
+            this.hits = new AtomicInteger(hits);
+            this.heals = new AtomicInteger(heals);
+            this.lastUsed = lastUsed;
+        }
+    }
+}
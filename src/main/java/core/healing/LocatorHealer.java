@@ -1,25 +1,140 @@
 package core.healing;
 
+import core.config.ConfigManager;
+import core.driver.DriverManager;
 import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
 
 /**
- * AI-based locator healing (scoring + fallback)
+ * Locator healing by attribute scoring.
+ * The whole page is fetched as one {@link DomSnapshot}; every element is then scored in the JVM
+ * against the element's last known {@link ElementFingerprint} (or what the broken locator says
+ * about it) on id/name/class/text/tag/position similarity. Scoring works on the snapshot's
+ * primitive columns and allocates nothing per candidate.
  */
 public class LocatorHealer {
 
+    private static final double W_ID = 0.35;
+    private static final double W_NAME = 0.20;
+    private static final double W_CLASS = 0.15;
+    private static final double W_TEXT = 0.20;
+    private static final double W_TAG = 0.05;
+    private static final double W_POSITION = 0.05;
+
+    private static final int MAX_COMPARE = 64;
+    private static final Pattern POSITIONAL = Pattern.compile("By\\.xpath: \\(//\\*\\)\\[\\d+\\]");
+
+    private static final Map<String, ElementFingerprint> lastKnown = new ConcurrentHashMap<>();
+
     public static By heal(By failedLocator) {
+        WebDriver driver = DriverManager.getDriver();
+        if (!(driver instanceof JavascriptExecutor)) {
+            return failedLocator;
+        }
+        try {
+            DomSnapshot snapshot = DomSnapshot.capture((JavascriptExecutor) driver);
+            return heal(failedLocator, snapshot);
+        } catch (Exception e) {
+            System.err.println("Locator healing failed for " + failedLocator + ": " + e.getMessage());
+            return failedLocator;
+        }
+    }
 
-        String locator = failedLocator.toString().toLowerCase();
+    /**
+     * Heals against an already captured snapshot; returns the original locator if nothing scores
+     * at least healing.min.score (percent, default 50).
+     */
+    public static By heal(By failedLocator, DomSnapshot snapshot) {
+        ElementFingerprint fingerprint = lastKnown.get(failedLocator.toString());
+        if (fingerprint == null) {
+            fingerprint = ElementFingerprint.fromLocator(failedLocator);
+        }
+        int best = bestMatch(fingerprint, snapshot, ConfigManager.getInt("healing.min.score", 50) / 100.0);
+        return best < 0 ? failedLocator : locatorFor(snapshot, best);
+    }
 
-        if (locator.contains("id=")) {
-            return By.xpath("//*[contains(@id,'login')]");
+    /**
+     * Remembers what a successfully located element looks like, for later healing (one script call,
+     * done only the first time a locator is seen).
+     */
+    public static void recordFingerprint(By locator, WebElement element) {
+        WebDriver driver = DriverManager.getDriver();
+        if (!(driver instanceof JavascriptExecutor) || lastKnown.containsKey(locator.toString())) return;
+        try {
+            lastKnown.put(locator.toString(), ElementFingerprint.of((JavascriptExecutor) driver, element));
+        } catch (Exception ignored) {
+            // fingerprints are an optimisation; healing falls back to the locator itself
         }
-        if (locator.contains("name=")) {
-            return By.xpath("//*[contains(@name,'login')]");
+    }
+
+    /** Index of the best-scoring element, or -1 if none reaches minScore. */
+    public static int bestMatch(ElementFingerprint fp, DomSnapshot snapshot, double minScore) {
+        double total = (fp.id.isEmpty() ? 0 : W_ID) + (fp.name.isEmpty() ? 0 : W_NAME)
+                + (fp.cls.isEmpty() ? 0 : W_CLASS) + (fp.text.isEmpty() ? 0 : W_TEXT)
+                + (fp.tag.isEmpty() ? 0 : W_TAG) + (fp.hasPosition() ? W_POSITION : 0);
+        if (total == 0) return -1;
+
+        int best = -1;
+        double bestScore = minScore * total;
+        for (int i = 0; i < snapshot.size; i++) {
+            double score = 0;
+            if (!fp.id.isEmpty()) score += W_ID * similarity(fp.id, snapshot.id[i]);
+            if (!fp.name.isEmpty()) score += W_NAME * similarity(fp.name, snapshot.name[i]);
+            if (!fp.cls.isEmpty()) score += W_CLASS * similarity(fp.cls, snapshot.cls[i]);
+            if (!fp.text.isEmpty()) score += W_TEXT * similarity(fp.text, snapshot.text[i]);
+            if (!fp.tag.isEmpty() && fp.tag.equalsIgnoreCase(snapshot.tag[i])) score += W_TAG;
+            if (fp.hasPosition() && snapshot.w[i] > 0) {
+                double dx = fp.x - snapshot.x[i], dy = fp.y - snapshot.y[i];
+                score += W_POSITION / (1 + Math.sqrt(dx * dx + dy * dy) / 100);
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Dice coefficient over case-insensitive character bigrams, computed in place.
+     */
+    static double similarity(String a, String b) {
+        int la = Math.min(a.length(), MAX_COMPARE), lb = Math.min(b.length(), MAX_COMPARE);
+        if (la == 0 || lb == 0) return 0;
+        if (la == lb && a.regionMatches(true, 0, b, 0, la)) return 1;
+        if (la < 2 || lb < 2) return 0;
+
+        int matches = 0;
+        for (int i = 0; i < la - 1; i++) {
+            char a0 = Character.toLowerCase(a.charAt(i)), a1 = Character.toLowerCase(a.charAt(i + 1));
+            for (int j = 0; j < lb - 1; j++) {
+                if (Character.toLowerCase(b.charAt(j)) == a0 && Character.toLowerCase(b.charAt(j + 1)) == a1) {
+                    matches++;
+                    break;
+                }
+            }
+        }
+        return 2.0 * matches / (la - 1 + lb - 1);
+    }
+
+    /** True for the "(//*)[N]" fallback, which only identifies the element on the page it was healed on. */
+    static boolean isPositional(By locator) {
+        return POSITIONAL.matcher(locator.toString()).matches();
+    }
+
+    private static By locatorFor(DomSnapshot snapshot, int index) {
+        if (snapshot.isUniqueId(index)) {
+            return By.id(snapshot.id[index]);
         }
-        if (locator.contains("text")) {
-            return By.xpath("//*[contains(text(),'login')]");
+        if (snapshot.isUniqueName(index)) {
+            return By.name(snapshot.name[index]);
         }
-        return failedLocator;
+        return By.xpath("(//*)[" + (index + 1) + "]");
     }
 }
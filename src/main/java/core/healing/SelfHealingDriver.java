@@ -1,19 +1,53 @@
 package core.healing;
 
+import core.config.ConfigManager;
 import core.driver.DriverManager;
+import core.reporting.ExtentManager;
+import core.reporting.RunMetrics;
+import core.utils.ElementCache;
 import org.openqa.selenium.*;
 
 /**
- * Self-healing WebDriver wrapper
+ * Self-healing WebDriver wrapper.
+ * Heals are remembered in {@link HealedLocatorStore}, so a locator that broke once is not
+ * retried (and healed) again on every call.
  */
 public class SelfHealingDriver {
 
     public static WebElement find(By locator) {
+        return ElementCache.find(locator, SelfHealingDriver::findUncached);
+    }
+
+    private static WebElement findUncached(By locator) {
+        WebDriver driver = DriverManager.getDriver();
+
+        By remembered = HealedLocatorStore.lookup(driver, locator);
+        if (remembered != null) {
+            try {
+                WebElement el = driver.findElement(remembered);
+                RunMetrics.increment("healing.memory.hits");
+                HealedLocatorStore.recordHit(locator, remembered);
+                return el;
+            } catch (NoSuchElementException e) {
+                HealedLocatorStore.forget(driver, locator);
+            }
+        }
+
         try {
-            return DriverManager.getDriver().findElement(locator);
+            WebElement el = driver.findElement(locator);
+            if (ConfigManager.isOn("healing.fingerprint")) {
+                LocatorHealer.recordFingerprint(locator, el);
+            }
+            return el;
         } catch (NoSuchElementException e) {
             By healed = LocatorHealer.heal(locator);
-            return DriverManager.getDriver().findElement(healed);
+            WebElement el = driver.findElement(healed);
+            if (!healed.equals(locator)) {
+                RunMetrics.increment("healing.heals");
+                HealedLocatorStore.remember(driver, locator, healed);
+                ExtentManager.log("Healed locator " + locator + " -> " + healed);
+            }
+            return el;
         }
     }
 
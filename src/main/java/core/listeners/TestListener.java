@@ -1,19 +1,33 @@
 package core.listeners;
 
 import core.reporting.ExtentManager;
+import core.utils.ScreenshotStore;
 import core.utils.ScreenshotUtil;
+import core.db.ExecutionRecord;
+import core.db.SqlLogger;
 import core.driver.DriverManager;
-import core.driver.DriverFactory;
+import core.driver.DriverPool;
+import core.driver.DriverPrefetcher;
+import core.driver.NetworkProfile;
+import core.driver.SessionStateCache;
+import core.healing.HealedLocatorStore;
+import core.reporting.CommandLatency;
+import core.reporting.RunMetrics;
+import core.execution.FailFast;
+import core.execution.OutcomeHistory;
+import core.execution.TestContext;
 import core.video.VideoRecorderUtil;
 import org.testng.*;
 
+import java.lang.reflect.Method;
+
 /**
  * TestNG listener that initializes reporting and optionally creates/quits drivers
  * If a driver already exists (e.g. created by BaseTest), the listener will not replace it.
+ * Once {@link FailFast} aborts the run, tests and their setup methods that have not started
+ * yet are skipped.
  */
-public class TestListener implements ITestListener {
-
-    private static ThreadLocal<Boolean> listenerCreated = ThreadLocal.withInitial(() -> false);
+public class TestListener implements ITestListener, ISuiteListener, IInvokedMethodListener {
 
     @Override
     public void onStart(ITestContext context) {
@@ -23,20 +37,27 @@ public class TestListener implements ITestListener {
     @Override
     public void onTestStart(ITestResult result) {
         ExtentManager.createTest(result.getMethod().getMethodName());
+        CommandLatency.startTest();
 
         // Initialize WebDriver only if not already set by BaseTest or other setup
         try {
-            if (DriverManager.getDriver() == null) {
-                org.openqa.selenium.WebDriver webDriver = DriverFactory.createDriver();
-                DriverManager.setDriver(webDriver);
-                listenerCreated.set(true);
+            if (FailFast.isAborted()) {
+                TestContext.get().setListenerCreatedDriver(false); // about to be skipped, no session needed
+            } else if (DriverManager.getDriver() == null) {
+                Method method = result.getMethod().getConstructorOrMethod().getMethod();
+                TestContext.get().setNetworkProfile(NetworkProfile.forTest(method, result.getTestContext()));
+                TestContext.get().setSessionRole(SessionStateCache.roleFor(method));
+                DriverManager.initDriver();
+                TestContext.get().setListenerCreatedDriver(true);
 
-                // Start video recording (best-effort) only when listener created the driver
+                // Start video recording (best-effort) only when listener created the driver,
+                // and only once the session actually starts (driver.lazy)
+                String name = result.getMethod().getMethodName();
                 try {
-                    VideoRecorderUtil.start(result.getMethod().getMethodName());
+                    DriverManager.whenStarted(() -> VideoRecorderUtil.start(name));
                 } catch (Exception ignored) {}
             } else {
-                listenerCreated.set(false);
+                TestContext.get().setListenerCreatedDriver(false);
             }
         } catch (Exception e) {
             System.err.println("Driver initialization failed in listener: " + e.getMessage());
@@ -47,6 +68,13 @@ public class TestListener implements ITestListener {
     @Override
     public void onTestSuccess(ITestResult result) {
         ExtentManager.pass("Test Passed");
+        logNetworkSavings();
+        stopVideo(false);
+        SqlLogger.record(ExecutionRecord.of(result));
+        OutcomeHistory.record(result.getMethod().getQualifiedName(), true);
+        FailFast.onResult(true);
+        CommandLatency.endTest();
+        ExtentManager.endTest();
         cleanupIfListenerCreated();
     }
 
@@ -54,28 +82,88 @@ public class TestListener implements ITestListener {
     public void onTestFailure(ITestResult result) {
         String path = ScreenshotUtil.takeViewportScreenshot();
         ExtentManager.fail(result.getThrowable().getMessage(), path);
+        logNetworkSavings();
+        stopVideo(true);
+        SqlLogger.record(ExecutionRecord.of(result));
+        OutcomeHistory.record(result.getMethod().getQualifiedName(), false);
+        FailFast.onResult(false);
+        CommandLatency.endTest();
+        ExtentManager.endTest();
         cleanupIfListenerCreated();
     }
 
     @Override
     public void onTestSkipped(ITestResult result) {
+        stopVideo(false);
+        SqlLogger.record(ExecutionRecord.of(result));
+        ExtentManager.endTest();
         cleanupIfListenerCreated();
     }
 
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        if (!FailFast.isAborted()) return;
+        ITestNGMethod m = method.getTestMethod();
+        // @After* methods still run so anything already set up is torn down
+        if (method.isTestMethod() || m.isBeforeMethodConfiguration() || m.isBeforeClassConfiguration()
+                || m.isBeforeTestConfiguration() || m.isBeforeGroupsConfiguration()) {
+            throw new SkipException(FailFast.abortReason());
+        }
+    }
+
+    // only failures keep their recording; it is linked from the test's report node
+    private void stopVideo(boolean failed) {
+        if (!listenerCreatedDriver()) return;
+        try {
+            String video = VideoRecorderUtil.stop(failed);
+            if (video != null) {
+                ExtentManager.log("Failure video: <a href='" + ExtentManager.href(video) + "'>" + video + "</a>");
+            }
+        } catch (Exception ignored) {}
+    }
+
+    private void logNetworkSavings() {
+        try {
+            String savings = DriverManager.networkSavings();
+            if (savings != null) ExtentManager.log(savings);
+        } catch (Exception ignored) {}
+    }
+
     private void cleanupIfListenerCreated() {
         try {
-            if (Boolean.TRUE.equals(listenerCreated.get())) {
-                try { VideoRecorderUtil.stop(); } catch (Exception ignored) {}
+            if (listenerCreatedDriver()) {
                 DriverManager.quitDriver();
-                listenerCreated.remove();
+                TestContext.get().setListenerCreatedDriver(false);
             }
         } catch (Exception e) {
             System.err.println("Error during listener cleanup: " + e.getMessage());
         }
     }
 
+    private static boolean listenerCreatedDriver() {
+        TestContext context = TestContext.peek();
+        return context != null && context.isListenerCreatedDriver();
+    }
+
     @Override
     public void onFinish(ITestContext context) {
+        ScreenshotUtil.awaitPendingWrites();
         ExtentManager.flush();
     }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        DriverPrefetcher.shutdown();
+        DriverPool.shutdown();
+        ScreenshotUtil.awaitPendingWrites();
+        CommandLatency.export();
+        HealedLocatorStore.export();
+        SqlLogger.shutdown();
+        OutcomeHistory.persist();
+        if (ScreenshotStore.isEnabled()) {
+            ScreenshotStore.persist();
+        }
+        RunMetrics.publish();
+        ExtentManager.finish();
+    }
 }
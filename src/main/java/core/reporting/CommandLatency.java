@@ -0,0 +1,177 @@
+package core.reporting;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Per-command WebDriver latency, kept per test, per worker and (merged at the end) per suite.
+ * Recording is a thread-local array lookup plus a histogram increment. A worker's recorder is
+ * named after the first thread that used it; short-lived threads hand theirs back with
+ * {@link #releaseThread()} so the next thread reuses it instead of adding one per task.
+ */
+public final class CommandLatency {
+
+    private static final Map<String, Integer> commandIds = new ConcurrentHashMap<>();
+    private static final List<String> commandNames = new CopyOnWriteArrayList<>();
+    private static final List<ThreadRecorder> recorders = new CopyOnWriteArrayList<>();
+
+    private static final Queue<ThreadRecorder> idleRecorders = new ConcurrentLinkedQueue<>();
+    private static final ThreadLocal<ThreadRecorder> recorder = ThreadLocal.withInitial(() -> {
+        ThreadRecorder r = idleRecorders.poll();
+        if (r == null) {
+            r = new ThreadRecorder(Thread.currentThread().getName());
+            recorders.add(r);
+        }
+        return r;
+    });
+
+    private CommandLatency() {}
+
+    public static int commandId(String command) {
+        Integer id = commandIds.get(command);
+        if (id != null) return id;
+        synchronized (commandNames) {
+            return commandIds.computeIfAbsent(command, k -> {
+                commandNames.add(k);
+                return commandNames.size() - 1;
+            });
+        }
+    }
+
+    public static void record(String command, long nanos) {
+        record(commandId(command), nanos);
+    }
+
+    public static void record(int commandId, long nanos) {
+        recorder.get().record(commandId, nanos / 1_000);
+    }
+
+    /** Starts a fresh per-test histogram set on the current thread. */
+    public static void startTest() {
+        recorder.get().resetTest();
+    }
+
+    /** Logs the current test's p50/p95/p99 per command to its report node. */
+    public static void endTest() {
+        ThreadRecorder r = recorder.get();
+        Map<String, LatencyHistogram> perTest = r.named(r.perTest);
+        if (!perTest.isEmpty()) {
+            StringBuilder sb = new StringBuilder("WebDriver command latency (ms, p50/p95/p99, count):");
+            perTest.forEach((cmd, h) -> sb.append("<br>").append(cmd).append(": ").append(summary(h)));
+            ExtentManager.log(sb.toString());
+        }
+        r.resetTest();
+    }
+
+    /** Returns the calling thread's recorder, with its totals, for reuse by a later thread; call when the thread ends. */
+    public static void releaseThread() {
+        ThreadRecorder r = recorder.get();
+        recorder.remove();
+        r.resetTest();
+        idleRecorders.offer(r);
+    }
+
+    static int recorderCount() {
+        return recorders.size();
+    }
+
+    /**
+     * Merges all threads into suite totals, publishes them as report system info and writes
+     * reports/command-latency.json with suite and per-thread percentiles.
+     */
+    public static void export() {
+        if (recorders.isEmpty()) return;
+        Map<String, LatencyHistogram> suite = new TreeMap<>();
+        Map<String, Object> threads = new TreeMap<>();
+        for (ThreadRecorder r : recorders) {
+            Map<String, LatencyHistogram> perThread = r.named(r.perThread);
+            if (perThread.isEmpty()) continue;
+            threads.put(r.threadName, toJson(perThread));
+            perThread.forEach((cmd, h) -> suite.computeIfAbsent(cmd, k -> new LatencyHistogram()).add(h));
+        }
+        if (suite.isEmpty()) return;
+
+        suite.forEach((cmd, h) -> ExtentManager.setSystemInfo("latency." + cmd, summary(h)));
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("suite", toJson(suite));
+        out.put("threads", threads);
+        try {
+            File file = new File("reports/command-latency.json");
+            file.getParentFile().mkdirs();
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, out);
+        } catch (Exception e) {
+            System.err.println("Could not write command latency report: " + e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> toJson(Map<String, LatencyHistogram> histograms) {
+        Map<String, Object> json = new TreeMap<>();
+        histograms.forEach((cmd, h) -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("count", h.count());
+            m.put("p50_ms", h.percentile(50) / 1000.0);
+            m.put("p95_ms", h.percentile(95) / 1000.0);
+            m.put("p99_ms", h.percentile(99) / 1000.0);
+            m.put("max_ms", h.max() / 1000.0);
+            json.put(cmd, m);
+        });
+        return json;
+    }
+
+    private static String summary(LatencyHistogram h) {
+        return String.format("%.1f / %.1f / %.1f (%d)",
+                h.percentile(50) / 1000.0, h.percentile(95) / 1000.0, h.percentile(99) / 1000.0, h.count());
+    }
+
+    private static final class ThreadRecorder {
+        private final String threadName;
+        private LatencyHistogram[] perThread = new LatencyHistogram[32];
+        private LatencyHistogram[] perTest = new LatencyHistogram[32];
+
+        private ThreadRecorder(String threadName) {
+            this.threadName = threadName;
+        }
+
+        private void record(int id, long micros) {
+            if (id >= perThread.length) {
+                int size = Math.max(id + 1, perThread.length * 2);
+                perThread = java.util.Arrays.copyOf(perThread, size);
+                perTest = java.util.Arrays.copyOf(perTest, size);
+            }
+            if (perThread[id] == null) {
+                perThread[id] = new LatencyHistogram();
+                perTest[id] = new LatencyHistogram();
+            }
+            perThread[id].record(micros);
+            perTest[id].record(micros);
+        }
+
+        private void resetTest() {
+            for (LatencyHistogram h : perTest) {
+                if (h != null) h.reset();
+            }
+        }
+
+        private Map<String, LatencyHistogram> named(LatencyHistogram[] histograms) {
+            Map<String, LatencyHistogram> named = new TreeMap<>();
+            for (int i = 0; i < histograms.length; i++) {
+                if (histograms[i] != null && histograms[i].count() > 0) {
+                    named.put(commandNames.get(i), histograms[i]);
+                }
+            }
+            return named;
+        }
+    }
+}
@@ -2,93 +2,266 @@ package core.reporting;
 
 import com.aventstack.extentreports.*;
 import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.aventstack.extentreports.reporter.JsonFormatter;
+import core.config.ConfigManager;
+import core.execution.ShardSelector;
+import core.execution.TestContext;
+
+import java.nio.file.Paths;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
- * Central Extent Report Manager
+ * Central Extent Report Manager.
+ * With report.async=ON, log/pass/fail/attachScreenshot only enqueue an event; a single writer
+ * thread applies it to the report and flush() drains the queue first.
+ * With report.mode=STREAM, no Extent tree is kept: each test is appended to a JSONL shard by
+ * {@link StreamingReporter} when it ends and the HTML is rendered once in {@link #finish()}.
+ * A shard of a sharded run (shard.total &gt; 1) reports into its own directory and also writes an
+ * extent.json archive, so {@link ReportMerger} can rebuild one report from all shards.
+ * The Extent tree is guarded by a ReentrantLock, not a monitor, because flush() renders the HTML
+ * to disk while holding it and virtual-thread callers would otherwise pin their carriers.
  */
 public final class ExtentManager {
 
+    private static final ReentrantLock initLock = new ReentrantLock();
+    private static final ReentrantLock treeLock = new ReentrantLock();
+
     private static ExtentReports extent;
-    private static ThreadLocal<ExtentTest> test = new ThreadLocal<>();
+    private static volatile ReportEventPipeline pipeline;
+    private static volatile boolean initialized;
+    private static volatile boolean streaming;
 
     private ExtentManager() {}
 
-    public static synchronized void init() {
-        if (extent != null) return;
-        ExtentSparkReporter reporter =
-                new ExtentSparkReporter("reports/ExtentReport.html");
-        reporter.config().setReportName("Enterprise Selenium E2E Report");
-        reporter.config().setDocumentTitle("Automation Execution Report");
+    public static void init() {
+        initLock.lock();
+        try {
+            if (initialized) return;
+            initialized = true;
+            String shard = ShardSelector.summary();
+            if ("STREAM".equalsIgnoreCase(ConfigManager.get("report.mode"))) {
+                StreamingReporter.open();
+                streaming = true;
+                if (shard != null) StreamingReporter.setSystemInfo("shard", shard);
+                return;
+            }
+
+            String dir = ShardSelector.reportDir();
+            ExtentSparkReporter reporter =
+                    new ExtentSparkReporter(dir + "/ExtentReport.html");
+            reporter.config().setReportName("Enterprise Selenium E2E Report");
+            reporter.config().setDocumentTitle("Automation Execution Report");
+
+            extent = new ExtentReports();
+            extent.attachReporter(reporter);
+            if (ShardSelector.enabled()) {
+                extent.attachReporter(new JsonFormatter(dir + "/extent.json"));
+                if (shard != null) extent.setSystemInfo("shard", shard);
+            }
 
-        extent = new ExtentReports();
-        extent.attachReporter(reporter);
+            if (ConfigManager.isOn("report.async")) {
+                pipeline = new ReportEventPipeline(
+                        ConfigManager.getInt("report.async.capacity", 8192),
+                        ConfigManager.get("report.async.backpressure"),
+                        treeLock);
+            }
+        } finally {
+            initLock.unlock();
+        }
     }
 
     public static boolean hasTest() {
-        return test.get() != null;
+        TestContext context = TestContext.peek();
+        if (context == null) return false;
+        return streaming ? context.getReportRecord() != null : context.getReportNode() != null;
     }
 
     public static void startTest(String testName) {
-        if (extent == null) init();
+        if (!initialized) init();
         createTest(testName);
     }
 
     public static void createTest(String testName) {
-        if (extent == null) init();
-        test.set(extent.createTest(testName));
+        if (!initialized) init();
+        if (streaming) {
+            TestContext.get().setReportRecord(new StreamingReporter.TestRecord(testName));
+            return;
+        }
+        ExtentTest node;
+        treeLock.lock();
+        try {
+            node = extent.createTest(testName);
+        } finally {
+            treeLock.unlock();
+        }
+        TestContext.get().setReportNode(node);
     }
 
-    public static void log(String message) {
-        try {
-            if (test.get() != null) {
-                test.get().info(message);
-            }
-        } catch (Exception ignored) {
-            // best-effort: do not throw to avoid changing test outcomes
+    /**
+     * Marks the current thread's test as finished. In streaming mode this appends its record and
+     * releases it; the Extent tree needs no per-test work.
+     */
+    public static void endTest() {
+        TestContext context = TestContext.peek();
+        StreamingReporter.TestRecord current = context == null ? null : context.getReportRecord();
+        if (current != null) {
+            StreamingReporter.append(current);
+            context.setReportRecord(null);
         }
     }
 
+    public static void log(String message) {
+        submit(Status.INFO, message, null);
+    }
+
     public static void pass(String message) {
-        try {
-            if (test.get() != null) test.get().pass(message);
-        } catch (Exception ignored) {}
+        submit(Status.PASS, message, null);
     }
 
     public static void fail(String message) {
-        try {
-            if (test.get() != null) test.get().fail(message);
-        } catch (Exception ignored) {}
+        submit(Status.FAIL, message, null);
     }
 
     public static void fail(String message, String screenshotPath) {
-        try {
-            if (test.get() != null) {
-                try {
-                    test.get().fail(message,
-                        MediaEntityBuilder.createScreenCaptureFromPath(screenshotPath).build());
-                } catch (Exception e) {
-                    test.get().fail(message + " (screenshot attach failed: " + e.getMessage() + ")");
+        submit(Status.FAIL, message, screenshotPath);
+    }
+
+    public static void attachScreenshot(String screenshotPath, String title) {
+        submit(Status.INFO, title, screenshotPath);
+    }
+
+    /**
+     * A file path as a link target in log text, which the report resolves against its own
+     * directory ({@link ShardSelector#reportDir()}), e.g. reports/videos/a.mp4 -&gt; videos/a.mp4.
+     */
+    public static String href(String path) {
+        return Paths.get(ShardSelector.reportDir()).toAbsolutePath()
+                .relativize(Paths.get(path).toAbsolutePath()).toString().replace('\\', '/');
+    }
+
+    /**
+     * Returns a callback that logs a warning against the calling thread's current test, for work
+     * that completes later on another thread (e.g. background screenshot writes).
+     */
+    public static Consumer<String> warningSink() {
+        ExtentTest node = streaming ? null : currentNode();
+        return message -> {
+            System.err.println(message);
+            if (node != null) {
+                ReportEventPipeline p = pipeline;
+                if (p != null) {
+                    p.submit(node, Status.WARNING, message, null);
+                } else {
+                    treeLock.lock();
+                    try {
+                        apply(node, Status.WARNING, message, null);
+                    } finally {
+                        treeLock.unlock();
+                    }
                 }
             }
+        };
+    }
+
+    public static void setSystemInfo(String key, String value) {
+        if (streaming) {
+            StreamingReporter.setSystemInfo(key, value);
+            return;
+        }
+        try {
+            if (extent != null) extent.setSystemInfo(key, value);
         } catch (Exception ignored) {}
     }
 
-    public static void attachScreenshot(String screenshotPath, String title) {
+    /**
+     * Makes reported results durable. Cheap in streaming mode (shard buffers only); re-renders the
+     * whole Extent HTML otherwise.
+     */
+    public static void flush() {
+        if (streaming) {
+            StreamingReporter.flush();
+            return;
+        }
         try {
-            if (test.get() != null) {
-                try {
-                    test.get().info(title,
-                        MediaEntityBuilder.createScreenCaptureFromPath(screenshotPath).build());
-                } catch (Exception e) {
-                    test.get().info(title + " (screenshot attach failed: " + e.getMessage() + ")");
-                }
+            if (extent == null) return;
+            ReportEventPipeline p = pipeline;
+            if (p != null && !p.drain(30_000)) {
+                System.err.println("Extent event queue not drained before flush; " + p.queued() + " events pending");
+            }
+            treeLock.lock();
+            try {
+                extent.flush();
+            } finally {
+                treeLock.unlock();
             }
         } catch (Exception ignored) {}
     }
 
-    public static void flush() {
+    /**
+     * End-of-run rendering: the single HTML render in streaming mode, a final flush otherwise.
+     */
+    public static void finish() {
+        if (streaming) {
+            StreamingReporter.finish();
+        } else {
+            flush();
+        }
+    }
+
+    /** Events currently waiting for the report writer thread (0 when async reporting is off). */
+    public static int queuedEvents() {
+        ReportEventPipeline p = pipeline;
+        return p == null ? 0 : p.queued();
+    }
+
+    /** INFO events discarded under the DROP backpressure policy. */
+    public static long droppedEvents() {
+        ReportEventPipeline p = pipeline;
+        return p == null ? 0 : p.dropped();
+    }
+
+    private static void submit(Status status, String message, String screenshotPath) {
+        TestContext context = TestContext.peek();
+        if (context == null) return;
+        if (streaming) {
+            StreamingReporter.TestRecord current = context.getReportRecord();
+            if (current != null) current.add(status, message, screenshotPath);
+            return;
+        }
+        ExtentTest node = context.getReportNode();
+        if (node == null) return;
+        ReportEventPipeline p = pipeline;
+        if (p != null) {
+            p.submit(node, status, message, screenshotPath);
+        } else {
+            treeLock.lock();
+            try {
+                apply(node, status, message, screenshotPath);
+            } finally {
+                treeLock.unlock();
+            }
+        }
+    }
+
+    private static ExtentTest currentNode() {
+        TestContext context = TestContext.peek();
+        return context == null ? null : context.getReportNode();
+    }
+
+    // best-effort: never throw, to avoid changing test outcomes
+    static void apply(ExtentTest node, Status status, String message, String screenshotPath) {
         try {
-            if (extent != null) extent.flush();
+            if (screenshotPath == null) {
+                node.log(status, message);
+                return;
+            }
+            try {
+                node.log(status, message,
+                    MediaEntityBuilder.createScreenCaptureFromPath(screenshotPath).build());
+            } catch (Exception e) {
+                node.log(status, message + " (screenshot attach failed: " + e.getMessage() + ")");
+            }
         } catch (Exception ignored) {}
     }
 }
@@ -0,0 +1,73 @@
+package core.reporting;
+
+/**
+ * Fixed-memory log-linear histogram of microsecond latencies (about 3% relative precision).
+ * Not thread-safe: each instance is written by a single thread and read once that thread is done.
+ */
+public final class LatencyHistogram {
+
+    private static final int LINEAR = 64;         // exact buckets for 0..63 us
+    private static final int SUB_BUCKETS = 32;    // per power of two above that
+    private static final int MAX_EXPONENT = 40;   // ~12 days, far beyond any command
+    private static final int BUCKETS = LINEAR + (MAX_EXPONENT - 5) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long max;
+
+    public void record(long micros) {
+        if (micros < 0) micros = 0;
+        counts[index(micros)]++;
+        total++;
+        if (micros > max) max = micros;
+    }
+
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    public void reset() {
+        java.util.Arrays.fill(counts, 0);
+        total = 0;
+        max = 0;
+    }
+
+    public long count() {
+        return total;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    /** Upper bound of the bucket holding the given percentile (0-100), in microseconds. */
+    public long percentile(double p) {
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(total * p / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(upperBound(i), max);
+        }
+        return max;
+    }
+
+    private static int index(long v) {
+        if (v < LINEAR) return (int) v;
+        int exponent = 63 - Long.numberOfLeadingZeros(v);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        int sub = (int) ((v >> (exponent - 5)) & (SUB_BUCKETS - 1));
+        return LINEAR + (exponent - 6) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int index) {
+        if (index < LINEAR) return index;
+        int exponent = (index - LINEAR) / SUB_BUCKETS + 6;
+        int sub = (index - LINEAR) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1) << (exponent - 5)) - 1;
+    }
+}
@@ -0,0 +1,127 @@
+package core.reporting;
+
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded, lock-free hand-off of report events from test threads to a single writer thread
+ * that applies them to the Extent tree.
+ *
+ * Backpressure (report.async.backpressure) when the queue is full:
+ *   BLOCK - the submitting thread parks until the writer frees a slot (default, nothing is lost)
+ *   DROP  - INFO events are dropped and counted; PASS/FAIL/other statuses still block
+ */
+final class ReportEventPipeline {
+
+    private static final int MAX_BATCH = 256;
+
+    private final Queue<ReportEvent> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private final int capacity;
+    private final boolean dropInfo;
+    private final Lock applyLock;
+    private final Thread writer;
+
+    ReportEventPipeline(int capacity, String backpressure, Lock applyLock) {
+        this.capacity = capacity;
+        this.dropInfo = "DROP".equalsIgnoreCase(backpressure);
+        this.applyLock = applyLock;
+        this.writer = new Thread(this::run, "extent-report-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    void submit(ExtentTest node, Status status, String message, String screenshotPath) {
+        while (true) {
+            int current = size.get();
+            if (current < capacity) {
+                if (size.compareAndSet(current, current + 1)) break;
+                continue;
+            }
+            if (dropInfo && status == Status.INFO) {
+                dropped.increment();
+                RunMetrics.increment("report.events.dropped");
+                return;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+        queue.offer(new ReportEvent(node, status, message, screenshotPath));
+        submitted.increment();
+        LockSupport.unpark(writer);
+    }
+
+    /**
+     * Blocks until every event submitted before this call has been applied (bounded by the timeout).
+     */
+    boolean drain(long timeoutMs) {
+        long target = submitted.sum();
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (applied.sum() < target) {
+            if (System.currentTimeMillis() > deadline) return false;
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        return true;
+    }
+
+    int queued() {
+        return size.get();
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    long submitted() {
+        return submitted.sum();
+    }
+
+    private void run() {
+        while (true) {
+            ReportEvent event = queue.poll();
+            if (event == null) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(5));
+                continue;
+            }
+            // bounded batches so createTest/flush on other threads get the lock under sustained load
+            applyLock.lock();
+            try {
+                int batch = 0;
+                do {
+                    size.decrementAndGet();
+                    ExtentManager.apply(event.node, event.status, event.message, event.screenshotPath);
+                    applied.increment();
+                } while (++batch < MAX_BATCH && (event = queue.poll()) != null);
+            } finally {
+                applyLock.unlock();
+            }
+        }
+    }
+
+    private static final class ReportEvent {
+        private final ExtentTest node;
+        private final Status status;
+        private final String message;
+        private final String screenshotPath;
+
+        private ReportEvent(ExtentTest node, Status status, String message, String screenshotPath) {
+            this.node = node;
+            this.status = status;
+            this.message = message;
+            this.screenshotPath = screenshotPath;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package core.reporting;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.aventstack.extentreports.reporter.JsonFormatter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Combines the report fragments of a sharded run (see {@link core.execution.ShardSelector}) into
+ * one report without re-running anything:
+ * {@code ReportMerger [-o outDir] [fragmentDir...]}, by default every reports/shards/shard-* into
+ * reports/merged. Extent archives (extent.json) are replayed into one ExtentReport.html plus a
+ * merged extent.json; streaming runs (*.jsonl) are copied side by side and rendered once. The
+ * shard.json manifests are checked for missing shards and differing plans, and collected into
+ * shards.json.
+ */
+public final class ReportMerger {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private ReportMerger() {}
+
+    public static void main(String[] args) throws IOException {
+        Path out = Paths.get("reports/merged");
+        List<Path> fragments = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if ("-o".equals(args[i]) && i + 1 < args.length) {
+                out = Paths.get(args[++i]);
+            } else {
+                fragments.add(Paths.get(args[i]));
+            }
+        }
+        if (fragments.isEmpty()) {
+            Path shards = Paths.get("reports/shards");
+            if (Files.isDirectory(shards)) {
+                try (Stream<Path> dirs = Files.list(shards)) {
+                    fragments = dirs.filter(Files::isDirectory).sorted().collect(Collectors.toList());
+                }
+            }
+        }
+        if (fragments.isEmpty()) {
+            System.err.println("Usage: ReportMerger [-o outDir] [fragmentDir...] (no fragments found under reports/shards)");
+            return;
+        }
+        merge(fragments, out);
+    }
+
+    public static void merge(List<Path> fragments, Path out) throws IOException {
+        Files.createDirectories(out);
+        checkManifests(fragments, out);
+        int archives = mergeExtent(fragments, out);
+        int streams = mergeStreams(fragments, out.resolve("stream"));
+        System.out.println("Merged " + fragments.size() + " fragments (" + archives + " Extent archives, "
+                + streams + " streaming runs) into " + out);
+    }
+
+    private static int mergeExtent(List<Path> fragments, Path out) throws IOException {
+        List<Path> archives = find(fragments, "extent.json");
+        if (archives.isEmpty()) return 0;
+
+        ExtentSparkReporter reporter = new ExtentSparkReporter(out.resolve("ExtentReport.html").toString());
+        reporter.config().setReportName("Enterprise Selenium E2E Report");
+        reporter.config().setDocumentTitle("Automation Execution Report");
+        ExtentReports extent = new ExtentReports();
+        extent.attachReporter(reporter, new JsonFormatter(out.resolve("extent.json").toString()));
+        for (Path archive : archives) {
+            extent.createDomainFromJsonArchive(archive.toString());
+        }
+        extent.setSystemInfo("merged.fragments", String.valueOf(archives.size()));
+        extent.flush();
+        return archives.size();
+    }
+
+    // each fragment's JSONL shards are copied under a fragment prefix, then rendered as one run
+    private static int mergeStreams(List<Path> fragments, Path out) throws IOException {
+        int runs = 0;
+        Map<String, Object> systemInfo = new LinkedHashMap<>();
+        for (Path fragment : fragments) {
+            for (Path runDir : runDirs(fragment)) {
+                Files.createDirectories(out);
+                String prefix = fragment.getFileName() + "-" + runDir.getFileName() + "-";
+                try (Stream<Path> files = Files.list(runDir)) {
+                    for (Path file : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".jsonl"))::iterator) {
+                        Files.copy(file, out.resolve(prefix + file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                Path meta = runDir.resolve("run.json");
+                if (Files.exists(meta)) {
+                    JsonNode info = mapper.readTree(meta.toFile()).path("systemInfo");
+                    for (Iterator<Map.Entry<String, JsonNode>> it = info.fields(); it.hasNext(); ) {
+                        Map.Entry<String, JsonNode> e = it.next();
+                        systemInfo.put(fragment.getFileName() + "." + e.getKey(), e.getValue().asText());
+                    }
+                }
+                runs++;
+            }
+        }
+        if (runs == 0) return 0;
+        Map<String, Object> meta = new LinkedHashMap<>();
+        meta.put("runId", "merged");
+        meta.put("systemInfo", systemInfo);
+        mapper.writeValue(out.resolve("run.json").toFile(), meta);
+        StreamingReportRenderer.render(out, out.resolve("report.html"));
+        return runs;
+    }
+
+    private static void checkManifests(List<Path> fragments, Path out) throws IOException {
+        List<JsonNode> manifests = new ArrayList<>();
+        for (Path manifest : find(fragments, "shard.json")) {
+            manifests.add(mapper.readTree(manifest.toFile()));
+        }
+        if (manifests.isEmpty()) return;
+
+        TreeSet<Integer> seen = new TreeSet<>();
+        TreeSet<String> plans = new TreeSet<>();
+        int total = manifests.get(0).path("total").asInt();
+        for (JsonNode manifest : manifests) {
+            if (!seen.add(manifest.path("index").asInt())) {
+                System.err.println("Shard " + manifest.path("index").asInt() + " appears more than once");
+            }
+            plans.add(manifest.path("plan").asText());
+            total = Math.max(total, manifest.path("total").asInt());
+        }
+        for (int i = 0; i < total; i++) {
+            if (!seen.contains(i)) System.err.println("Shard " + i + "/" + total + " has no fragment; its tests are missing from the merged report");
+        }
+        if (plans.size() > 1) {
+            System.err.println("Shards used different plans " + plans + " (different duration history or suite files); "
+                    + "some tests may have run twice or not at all");
+        }
+        mapper.writerWithDefaultPrettyPrinter().writeValue(out.resolve("shards.json").toFile(), manifests);
+    }
+
+    private static List<Path> find(List<Path> fragments, String name) throws IOException {
+        List<Path> found = new ArrayList<>();
+        for (Path fragment : fragments) {
+            if (!Files.isDirectory(fragment)) continue;
+            try (Stream<Path> files = Files.walk(fragment)) {
+                files.filter(f -> f.getFileName().toString().equals(name)).sorted().forEach(found::add);
+            }
+        }
+        return found;
+    }
+
+    private static List<Path> runDirs(Path fragment) throws IOException {
+        if (!Files.isDirectory(fragment)) return List.of();
+        try (Stream<Path> files = Files.walk(fragment)) {
+            return files.filter(f -> f.toString().endsWith(".jsonl")).map(Path::getParent).distinct().sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
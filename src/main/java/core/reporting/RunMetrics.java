@@ -0,0 +1,45 @@
+package core.reporting;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Process-wide counters for framework metrics, published to the console and the Extent report at suite end.
+ */
+public final class RunMetrics {
+
+    private static final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private RunMetrics() {}
+
+    public static void increment(String name) {
+        add(name, 1);
+    }
+
+    public static void add(String name, long delta) {
+        counters.computeIfAbsent(name, k -> new LongAdder()).add(delta);
+    }
+
+    public static long get(String name) {
+        LongAdder adder = counters.get(name);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public static Map<String, Long> snapshot() {
+        Map<String, Long> copy = new TreeMap<>();
+        counters.forEach((k, v) -> copy.put(k, v.sum()));
+        return copy;
+    }
+
+    public static void publish() {
+        Map<String, Long> values = snapshot();
+        if (values.isEmpty()) return;
+        System.out.println("Run metrics:");
+        values.forEach((k, v) -> {
+            System.out.println("  " + k + " = " + v);
+            ExtentManager.setSystemInfo(k, String.valueOf(v));
+        });
+    }
+}
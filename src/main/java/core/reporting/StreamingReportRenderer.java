@@ -0,0 +1,150 @@
+package core.reporting;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import core.execution.ShardSelector;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders the JSONL shards of a streaming run into one HTML page, one record at a time.
+ * Can also be run on demand: {@code StreamingReportRenderer <runDir> [output.html]}.
+ * Log text is escaped except for the markup the Extent report also renders: {@code <br>} and
+ * {@code <a href='...'>} links to http(s) URLs or to files relative to the report directory.
+ */
+public final class StreamingReportRenderer {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Pattern MARKUP = Pattern.compile(
+            "<br\\s*/?>|<a href=['\"]([^'\"<>]+)['\"]>([^<]*)</a>", Pattern.CASE_INSENSITIVE);
+
+    private StreamingReportRenderer() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: StreamingReportRenderer <runDir> [output.html]");
+            return;
+        }
+        Path runDir = Paths.get(args[0]);
+        Path out = args.length > 1 ? Paths.get(args[1]) : runDir.resolve("report.html");
+        render(runDir, out);
+        System.out.println("Report written to " + out);
+    }
+
+    public static void render(Path runDir, Path out) throws IOException {
+        Map<String, Integer> counts = new TreeMap<>();
+        long totalMs = 0;
+
+        try (BufferedWriter html = Files.newBufferedWriter(out, StandardCharsets.UTF_8)) {
+            html.write("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Automation Execution Report</title>");
+            html.write("<style>body{font-family:sans-serif}table{border-collapse:collapse;width:100%}"
+                    + "td,th{border:1px solid #ddd;padding:4px;vertical-align:top}"
+                    + ".PASS{color:#2e7d32}.FAIL{color:#c62828}.SKIP{color:#f9a825}</style></head><body>");
+            html.write("<h1>Enterprise Selenium E2E Report</h1>");
+            writeSystemInfo(html, runDir.resolve("run.json"));
+            html.write("<table><tr><th>Test</th><th>Status</th><th>Thread</th><th>Duration (ms)</th><th>Details</th></tr>");
+
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(runDir, "*.jsonl")) {
+                for (Path file : files) {
+                    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                        String line;
+                        while ((line = reader.readLine()) != null) {
+                            if (line.isBlank()) continue;
+                            JsonNode rec = mapper.readTree(line);
+                            String status = rec.path("status").asText();
+                            counts.merge(status, 1, Integer::sum);
+                            totalMs += rec.path("durationMs").asLong();
+                            writeRow(html, rec, status, out.toAbsolutePath().getParent());
+                        }
+                    }
+                }
+            }
+
+            html.write("</table><h2>Summary</h2><ul>");
+            for (Map.Entry<String, Integer> e : counts.entrySet()) {
+                html.write("<li class=\"" + escape(e.getKey()) + "\">" + escape(e.getKey()) + ": " + e.getValue() + "</li>");
+            }
+            html.write("<li>Total test time (ms): " + totalMs + "</li></ul></body></html>");
+        }
+    }
+
+    private static void writeRow(BufferedWriter html, JsonNode rec, String status, Path baseDir) throws IOException {
+        html.write("<tr><td>" + escape(rec.path("name").asText()) + "</td>");
+        html.write("<td class=\"" + escape(status) + "\">" + escape(status) + "</td>");
+        html.write("<td>" + escape(rec.path("thread").asText()) + "</td>");
+        html.write("<td>" + rec.path("durationMs").asLong() + "</td><td>");
+        for (JsonNode log : rec.path("logs")) {
+            html.write(renderLog(log.asText(), baseDir) + "<br>");
+        }
+        if (rec.has("omittedLogs")) {
+            html.write("... " + rec.path("omittedLogs").asInt() + " more<br>");
+        }
+        for (JsonNode shot : rec.path("screenshots")) {
+            String href = baseDir.relativize(Paths.get(shot.asText()).toAbsolutePath()).toString().replace('\\', '/');
+            html.write("<a href=\"" + escape(href) + "\">" + escape(shot.asText()) + "</a><br>");
+        }
+        html.write("</td></tr>\n");
+    }
+
+    private static void writeSystemInfo(BufferedWriter html, Path runJson) throws IOException {
+        if (!Files.isRegularFile(runJson)) return;
+        Iterator<Map.Entry<String, JsonNode>> info = mapper.readTree(runJson.toFile()).path("systemInfo").fields();
+        if (!info.hasNext()) return;
+        html.write("<h2>System info</h2><table>");
+        while (info.hasNext()) {
+            Map.Entry<String, JsonNode> e = info.next();
+            html.write("<tr><th>" + escape(e.getKey()) + "</th><td>" + renderLog(e.getValue().asText(), null) + "</td></tr>");
+        }
+        html.write("</table><h2>Tests</h2>");
+    }
+
+    static String renderLog(String text, Path baseDir) {
+        StringBuilder out = new StringBuilder();
+        Matcher m = MARKUP.matcher(text);
+        int last = 0;
+        while (m.find()) {
+            out.append(escape(text.substring(last, m.start())));
+            String href = m.group(1) == null ? null : link(m.group(1), baseDir);
+            if (m.group(1) == null) {
+                out.append("<br>");
+            } else if (href == null) {
+                out.append(escape(m.group()));
+            } else {
+                out.append("<a href=\"").append(escape(href)).append("\">").append(escape(m.group(2))).append("</a>");
+            }
+            last = m.end();
+        }
+        return out.append(escape(text.substring(last))).toString();
+    }
+
+    // http(s) as is; relative paths are relative to the Extent report directory, as in ExtentReport.html;
+    // anything else (javascript:, data:, absolute paths) is not linked
+    private static String link(String href, Path baseDir) {
+        if (href.matches("(?i)https?://.+")) return href;
+        if (baseDir == null || href.startsWith("/") || href.startsWith("\\") || href.matches("[A-Za-z][A-Za-z0-9+.-]*:.*")) {
+            return null;
+        }
+        try {
+            Path target = Paths.get(ShardSelector.reportDir()).resolve(href).toAbsolutePath().normalize();
+            return baseDir.relativize(target).toString().replace('\\', '/');
+        } catch (IllegalArgumentException e) { // InvalidPathException, or a different root
+            return null;
+        }
+    }
+
+    private static String escape(String s) {
+        return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
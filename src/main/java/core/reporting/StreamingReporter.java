@@ -0,0 +1,208 @@
+package core.reporting;
+
+import com.aventstack.extentreports.Status;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import core.config.ConfigManager;
+import core.execution.ShardSelector;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only report backend: each finished test becomes one JSON line in a shard file, so memory
+ * stays constant per completed test and nothing is re-rendered until the run ends. Shard writers
+ * are borrowed per append and returned, so there are only as many as appends ever overlapped
+ * (at most thread-count), however many short-lived worker threads run the tests.
+ */
+public final class StreamingReporter {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final List<BufferedWriter> shards = new CopyOnWriteArrayList<>();
+    private static final Map<String, String> systemInfo = new ConcurrentHashMap<>();
+    private static final Queue<BufferedWriter> idleShards = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger shardCount = new AtomicInteger();
+
+    private static volatile Path runDir;
+    private static String runId;
+
+    private StreamingReporter() {}
+
+    public static synchronized String runId() {
+        if (runId == null) {
+            String configured = ConfigManager.get("run.id");
+            runId = configured != null && !configured.isBlank() ? configured
+                    : new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + "-" + ProcessHandle.current().pid();
+        }
+        return runId;
+    }
+
+    public static synchronized Path open() {
+        if (runDir == null) {
+            String base = ConfigManager.get("report.stream.dir");
+            if (ShardSelector.enabled()) base = ShardSelector.reportDir() + "/stream";
+            Path dir = Paths.get(base != null ? base : "reports/stream", "run-" + runId());
+            try {
+                Files.createDirectories(dir);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to create report stream directory " + dir, e);
+            }
+            runDir = dir;
+        }
+        return runDir;
+    }
+
+    public static void append(TestRecord record) {
+        try {
+            String line = mapper.writeValueAsString(record.toMap());
+            BufferedWriter writer = idleShards.poll();
+            if (writer == null) writer = openShard();
+            try {
+                synchronized (writer) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            } finally {
+                if (shards.contains(writer)) idleShards.offer(writer); // not closed by finish() meanwhile
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to append report record: " + e.getMessage());
+        }
+    }
+
+    private static BufferedWriter openShard() throws IOException {
+        BufferedWriter writer = Files.newBufferedWriter(open().resolve("shard-" + shardCount.incrementAndGet() + ".jsonl"),
+                StandardCharsets.UTF_8);
+        shards.add(writer);
+        return writer;
+    }
+
+    /** Writes the run into the given directory (null: the configured one on next use); tests only. */
+    static synchronized void useRunDir(Path dir) {
+        runDir = dir;
+    }
+
+    static int openShards() {
+        return shards.size();
+    }
+
+    public static void setSystemInfo(String key, String value) {
+        systemInfo.put(key, value);
+    }
+
+    public static void flush() {
+        for (BufferedWriter writer : shards) {
+            synchronized (writer) {
+                try { writer.flush(); } catch (IOException ignored) {}
+            }
+        }
+    }
+
+    /**
+     * Closes every shard, writes run metadata and renders the HTML summary once. A record appended
+     * later starts a new shard.
+     */
+    public static synchronized void finish() {
+        if (runDir == null) return;
+        idleShards.clear();
+        for (BufferedWriter writer : shards) {
+            shards.remove(writer);
+            synchronized (writer) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    System.err.println("Failed to close report shard: " + e.getMessage());
+                }
+            }
+        }
+        try {
+            Map<String, Object> meta = new LinkedHashMap<>();
+            meta.put("runId", runId());
+            meta.put("systemInfo", new LinkedHashMap<>(systemInfo));
+            mapper.writeValue(runDir.resolve("run.json").toFile(), meta);
+
+            File html = new File(runDir.toFile(), "report.html");
+            StreamingReportRenderer.render(runDir, html.toPath());
+            System.out.println("Streaming report written to " + html.getPath());
+        } catch (IOException e) {
+            System.err.println("Failed to render streaming report: " + e.getMessage());
+        }
+    }
+
+    /**
+     * The in-flight state of one test: bounded, and released as soon as it is appended.
+     */
+    public static final class TestRecord {
+
+        private final String name;
+        private final String thread = Thread.currentThread().getName();
+        private final long start = System.currentTimeMillis();
+        private final List<String> logs = new ArrayList<>();
+        private final List<String> screenshots = new ArrayList<>();
+        private Status status = Status.INFO;
+        private String message;
+        private int omittedLogs;
+
+        public TestRecord(String name) {
+            this.name = name;
+        }
+
+        public void add(Status eventStatus, String text, String screenshotPath) {
+            if (rank(eventStatus) > rank(status)) {
+                status = eventStatus;
+            }
+            if (eventStatus == Status.FAIL && message == null) {
+                message = text;
+            }
+            if (logs.size() < ConfigManager.getInt("report.stream.max.logs", 50)) {
+                logs.add(eventStatus + ": " + text);
+            } else {
+                omittedLogs++;
+            }
+            if (screenshotPath != null && screenshots.size() < 5) {
+                screenshots.add(screenshotPath);
+            }
+        }
+
+        Map<String, Object> toMap() {
+            long end = System.currentTimeMillis();
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("name", name);
+            m.put("status", status == Status.INFO ? "PASS" : status.toString().toUpperCase());
+            m.put("thread", thread);
+            m.put("start", start);
+            m.put("end", end);
+            m.put("durationMs", end - start);
+            if (message != null) m.put("message", message);
+            m.put("logs", logs);
+            if (omittedLogs > 0) m.put("omittedLogs", omittedLogs);
+            if (!screenshots.isEmpty()) m.put("screenshots", screenshots);
+            return m;
+        }
+
+        private static int rank(Status s) {
+            switch (s) {
+                case FAIL: return 4;
+                case SKIP: return 3;
+                case WARNING: return 2;
+                case PASS: return 1;
+                default: return 0;
+            }
+        }
+    }
+}
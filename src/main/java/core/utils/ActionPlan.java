@@ -0,0 +1,346 @@
+package core.utils;
+
+import core.driver.DriverManager;
+import core.reporting.ExtentManager;
+import core.reporting.RunMetrics;
+import org.openqa.selenium.*;
+import org.openqa.selenium.support.ui.Select;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batched element actions: the waits, lookups and DOM-level actions (type, select) of
+ * consecutive steps run in one async script round trip. Steps that need real user input
+ * (click, check, typeKeys) are located by the same script and then performed natively.
+ * If the script call itself fails (e.g. CSP or the page unloading), its batch is redone natively;
+ * type and select steps the script already completed then run a second time. They set the same
+ * value again, but the page sees its input/change events twice.
+ *
+ * <pre>
+ * ActionPlan.create()
+ *         .type(By.id("user"), user)
+ *         .type(By.id("pass"), pass)
+ *         .select(By.id("role"), "Admin")
+ *         .click(By.id("login"))
+ *         .execute()
+ *         .throwIfFailed();
+ * </pre>
+ */
+public final class ActionPlan {
+
+    public enum Action { TYPE, SELECT, CHECK, CLICK, TYPE_KEYS }
+
+    public enum Outcome { PASSED, FAILED, SKIPPED }
+
+    private static final String SCRIPT =
+            "var steps = arguments[0], timeout = arguments[1], done = arguments[arguments.length - 1];"
+          + Locators.FIND_FUNCTION
+          + "var results = [], natives = [], i = 0, started = Date.now();"
+          + "function usable(e) {"
+          + "  var s = window.getComputedStyle(e), r = e.getBoundingClientRect();"
+          + "  return s.visibility !== 'hidden' && s.display !== 'none' && r.width > 0 && r.height > 0 && !e.disabled;"
+          + "}"
+          + "function setValue(e, v) {"
+          + "  var proto = e.tagName === 'TEXTAREA' ? HTMLTextAreaElement.prototype : HTMLInputElement.prototype;"
+          + "  var d = Object.getOwnPropertyDescriptor(proto, 'value');"
+          + "  e.focus();"
+          + "  if (d && d.set) { d.set.call(e, v); } else { e.value = v; }"
+          + "  e.dispatchEvent(new Event('input', {bubbles: true}));"
+          + "  e.dispatchEvent(new Event('change', {bubbles: true}));"
+          + "  if (e.blur) e.blur();"
+          + "}"
+          + "function select(e, v) {"
+          + "  for (var k = 0; k < e.options.length; k++) {"
+          + "    var o = e.options[k];"
+          + "    if (o.text.trim() === v || o.value === v) {"
+          + "      e.value = o.value; e.dispatchEvent(new Event('change', {bubbles: true})); return;"
+          + "    }"
+          + "  }"
+          + "  throw new Error('option not found: ' + v);"
+          + "}"
+          + "function run() {"
+          + "  while (i < steps.length) {"
+          + "    var st = steps[i], e = findElement(st.strategy, st.locator);"
+          + "    if (!e || !usable(e)) {"
+          + "      if (Date.now() - started > timeout) {"
+          + "        results.push(e ? 'timeout:element not interactable' : 'timeout:element not found');"
+          + "        done({results: results, natives: natives}); return;"
+          + "      }"
+          + "      setTimeout(run, 25); return;"
+          + "    }"
+          + "    try {"
+          + "      if (st.action === 'TYPE') setValue(e, st.value);"
+          + "      else if (st.action === 'SELECT') select(e, st.value);"
+          + "      else natives.push(e);"
+          + "      results.push('ok');"
+          + "    } catch (err) {"
+          + "      results.push('error:' + (err && err.message ? err.message : err));"
+          + "      done({results: results, natives: natives}); return;"
+          + "    }"
+          + "    i++; started = Date.now();"
+          + "  }"
+          + "  done({results: results, natives: natives});"
+          + "}"
+          + "run();";
+
+    private final List<Step> steps = new ArrayList<>();
+    private Duration stepTimeout = Duration.ofSeconds(15);
+
+    private ActionPlan() {}
+
+    public static ActionPlan create() {
+        return new ActionPlan();
+    }
+
+    /** Sets the value of an input/textarea and fires input + change events (no key events). */
+    public ActionPlan type(By locator, String value) {
+        return add(Action.TYPE, locator, value);
+    }
+
+    /** Clears and types with real key events, for fields that react to individual keystrokes. */
+    public ActionPlan typeKeys(By locator, String value) {
+        return add(Action.TYPE_KEYS, locator, value);
+    }
+
+    /** Selects the first option of a select element whose trimmed text or whose value matches. */
+    public ActionPlan select(By locator, String textOrValue) {
+        return add(Action.SELECT, locator, textOrValue);
+    }
+
+    /** Native click on a checkbox or radio button if its state differs (ends the current script batch). */
+    public ActionPlan check(By locator, boolean checked) {
+        return add(Action.CHECK, locator, String.valueOf(checked));
+    }
+
+    /** Native click (may navigate, so it ends the current script batch). */
+    public ActionPlan click(By locator) {
+        return add(Action.CLICK, locator, null);
+    }
+
+    public ActionPlan withStepTimeout(Duration timeout) {
+        this.stepTimeout = timeout;
+        return this;
+    }
+
+    public Result execute() {
+        WebDriver driver = DriverManager.getDriver();
+        List<StepResult> results = new ArrayList<>();
+        int[] roundTrips = {0};
+
+        int index = 0;
+        while (index < steps.size()) {
+            if (!(driver instanceof JavascriptExecutor) || !Locators.isScriptable(steps.get(index).locator)) {
+                StepResult r = runNatively(index, steps.get(index), null, roundTrips);
+                results.add(r);
+                index++;
+                if (r.outcome == Outcome.FAILED) break;
+                continue;
+            }
+
+            // a batch is a run of scriptable DOM steps, ending after the first native step
+            int end = index;
+            while (end < steps.size() && Locators.isScriptable(steps.get(end).locator)) {
+                end++;
+                if (steps.get(end - 1).isNative()) break;
+            }
+            List<Step> batch = steps.subList(index, end);
+            if (!runBatch(driver, index, batch, results, roundTrips)) break;
+            index = end;
+        }
+
+        for (int i = results.size(); i < steps.size(); i++) {
+            results.add(new StepResult(i, steps.get(i), Outcome.SKIPPED, "skipped after earlier failure", null));
+        }
+        RunMetrics.increment("actionplan.executions");
+        RunMetrics.add("actionplan.steps", steps.size());
+        RunMetrics.add("actionplan.roundtrips", roundTrips[0]);
+        ExtentManager.log("Action plan: " + steps.size() + " steps in " + roundTrips[0] + " round trips");
+        return new Result(results);
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean runBatch(WebDriver driver, int offset, List<Step> batch, List<StepResult> results,
+                             int[] roundTrips) {
+        List<Map<String, String>> payload = new ArrayList<>();
+        for (Step s : batch) {
+            Map<String, String> m = new HashMap<>();
+            m.put("action", s.action.name());
+            m.put("strategy", Locators.strategy(s.locator));
+            m.put("locator", Locators.value(s.locator));
+            m.put("value", s.value);
+            payload.add(m);
+        }
+
+        Map<String, List<Object>> out;
+        try {
+            WaitEngine.ensureScriptTimeout(driver, stepTimeout.multipliedBy(batch.size()).plusSeconds(5), roundTrips);
+            roundTrips[0]++;
+            out = (Map<String, List<Object>>) ((JavascriptExecutor) driver)
+                    .executeAsyncScript(SCRIPT, payload, stepTimeout.toMillis());
+        } catch (WebDriverException e) {
+            // scripting unavailable here (e.g. CSP, page unloading): do this batch natively
+            for (int i = 0; i < batch.size(); i++) {
+                StepResult r = runNatively(offset + i, batch.get(i), null, roundTrips);
+                results.add(r);
+                if (r.outcome == Outcome.FAILED) return false;
+            }
+            return true;
+        }
+
+        List<Object> stepResults = out.get("results");
+        List<Object> natives = out.get("natives");
+        int nativeIndex = 0;
+        for (int i = 0; i < stepResults.size(); i++) {
+            Step step = batch.get(i);
+            String r = String.valueOf(stepResults.get(i));
+            if (!"ok".equals(r)) {
+                results.add(new StepResult(offset + i, step, Outcome.FAILED, r.substring(r.indexOf(':') + 1),
+                        r.startsWith("timeout:") ? "timeout" : "error"));
+                return false;
+            }
+            if (step.isNative()) {
+                StepResult nr = runNatively(offset + i, step, (WebElement) natives.get(nativeIndex++), roundTrips);
+                results.add(nr);
+                if (nr.outcome == Outcome.FAILED) return false;
+            } else {
+                results.add(new StepResult(offset + i, step, Outcome.PASSED, null, null));
+            }
+        }
+        return true;
+    }
+
+    private StepResult runNatively(int index, Step step, WebElement located, int[] roundTrips) {
+        try {
+            switch (step.action) {
+                case CLICK:
+                    roundTrips[0]++;
+                    if (located != null) located.click(); else ElementUtil.click(step.locator);
+                    break;
+                case TYPE_KEYS:
+                case TYPE:
+                    WebElement el = located != null ? located : ElementUtil.waitForVisible(step.locator);
+                    el.clear();
+                    el.sendKeys(step.value);
+                    roundTrips[0] += 2;
+                    break;
+                case SELECT:
+                    select(ElementUtil.waitForVisible(step.locator), step.value, roundTrips);
+                    break;
+                case CHECK:
+                    WebElement box = located != null ? located : ElementUtil.waitForClickable(step.locator);
+                    roundTrips[0]++;
+                    if (box.isSelected() != Boolean.parseBoolean(step.value)) {
+                        roundTrips[0]++;
+                        box.click();
+                    }
+                    break;
+            }
+            return new StepResult(index, step, Outcome.PASSED, null, null);
+        } catch (TimeoutException e) {
+            return new StepResult(index, step, Outcome.FAILED, e.getMessage(), "timeout");
+        } catch (WebDriverException e) {
+            return new StepResult(index, step, Outcome.FAILED, e.getMessage(), "error");
+        }
+    }
+
+    // same rule as the script's select(): first option whose trimmed text or value matches
+    private static void select(WebElement element, String textOrValue, int[] roundTrips) {
+        Select select = new Select(element);
+        List<WebElement> options = select.getOptions();
+        roundTrips[0] += 2;
+        for (int i = 0; i < options.size(); i++) {
+            WebElement option = options.get(i);
+            roundTrips[0] += 2;
+            if (option.getText().trim().equals(textOrValue) || textOrValue.equals(option.getAttribute("value"))) {
+                select.selectByIndex(i);
+                roundTrips[0]++;
+                return;
+            }
+        }
+        throw new NoSuchElementException("option not found: " + textOrValue);
+    }
+
+    private ActionPlan add(Action action, By locator, String value) {
+        steps.add(new Step(action, locator, value));
+        return this;
+    }
+
+    private static final class Step {
+        private final Action action;
+        private final By locator;
+        private final String value;
+
+        private Step(Action action, By locator, String value) {
+            this.action = action;
+            this.locator = locator;
+            this.value = value;
+        }
+
+        private boolean isNative() {
+            return action == Action.CLICK || action == Action.CHECK || action == Action.TYPE_KEYS;
+        }
+    }
+
+    /**
+     * Outcome of one step; message is set for FAILED/SKIPPED steps.
+     */
+    public static final class StepResult {
+        public final int index;
+        public final Action action;
+        public final By locator;
+        public final Outcome outcome;
+        public final String message;
+        private final String failureKind;
+
+        private StepResult(int index, Step step, Outcome outcome, String message, String failureKind) {
+            this.index = index;
+            this.action = step.action;
+            this.locator = step.locator;
+            this.outcome = outcome;
+            this.message = message;
+            this.failureKind = failureKind;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + index + " " + action + " " + locator + ": " + outcome + (message != null ? " (" + message + ")" : "");
+        }
+    }
+
+    public static final class Result {
+        private final List<StepResult> steps;
+
+        private Result(List<StepResult> steps) {
+            this.steps = Collections.unmodifiableList(steps);
+        }
+
+        public List<StepResult> steps() {
+            return steps;
+        }
+
+        public boolean isSuccess() {
+            return steps.stream().allMatch(s -> s.outcome == Outcome.PASSED);
+        }
+
+        /**
+         * Throws what the equivalent ElementUtil call would have thrown for the first failed step:
+         * TimeoutException if its element never became usable, WebDriverException otherwise.
+         */
+        public Result throwIfFailed() {
+            for (StepResult s : steps) {
+                if (s.outcome == Outcome.FAILED) {
+                    String msg = "Step " + s + " failed";
+                    ExtentManager.fail(msg);
+                    if ("timeout".equals(s.failureKind)) throw new TimeoutException(msg);
+                    throw new WebDriverException(msg);
+                }
+            }
+            return this;
+        }
+    }
+}
@@ -20,4 +20,14 @@ public final class CredentialUtil {
             throw new RuntimeException("Failed to load credentials", e);
         }
     }
+
+    /** The credentials of one user/role in credentials.json, e.g. {@code forRole("app1").get("username")}. */
+    @SuppressWarnings("unchecked")
+    public static Map<String, String> forRole(String role) {
+        Object entry = ((Map<String, Object>) (Map<?, ?>) load()).get(role);
+        if (!(entry instanceof Map)) {
+            throw new RuntimeException("No credentials for '" + role + "' in credentials.json");
+        }
+        return (Map<String, String>) entry;
+    }
 }
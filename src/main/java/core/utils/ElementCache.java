@@ -0,0 +1,218 @@
+package core.utils;
+
+import core.config.ConfigManager;
+import core.driver.DriverManager;
+import core.reporting.RunMetrics;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Keys;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.interactions.Locatable;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Opt-in (element.cache=ON) per-thread cache of located elements, keyed by (session, document, By).
+ * The "document" is tracked without round trips: {@link #INVALIDATOR} is attached to the driver and
+ * drops the cache whenever a command may have navigated, switched frame/window or run script.
+ * The framework's own read-only scripts (waits, DOM snapshots, fingerprints) run through
+ * {@link #readOnlyScript(Supplier)} and leave the cache alone.
+ * Elements from {@link #find} re-run their lookup once when a call on them throws
+ * StaleElementReferenceException (the page re-rendered without a command the invalidator sees);
+ * callers of {@link #get} handle staleness themselves, as ElementUtil does.
+ */
+public final class ElementCache {
+
+    private static final int MAX_ENTRIES = 256;
+
+    // commands after which the current document (or context) can no longer be trusted
+    private static final Set<String> INVALIDATING = Set.of(
+            "get", "to", "back", "forward", "refresh", "close", "quit",
+            "frame", "parentFrame", "defaultContent", "window", "newWindow",
+            "click", "submit", "executeScript", "executeAsyncScript", "perform", "deleteAllCookies");
+
+    public static final WebDriverListener INVALIDATOR = new WebDriverListener() {
+        @Override
+        public void beforeAnyCall(Object target, Method method, Object[] args) {
+            String name = method.getName();
+            if (readingScript.get() != null && ("executeScript".equals(name) || "executeAsyncScript".equals(name))) {
+                return;
+            }
+            if (INVALIDATING.contains(name) || ("sendKeys".equals(name) && submitsForm(args))) {
+                invalidate();
+            }
+        }
+    };
+
+    private static final ThreadLocal<State> state = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> readingScript = new ThreadLocal<>();
+
+    private ElementCache() {}
+
+    public static boolean isEnabled() {
+        return ConfigManager.isOn("element.cache");
+    }
+
+    /**
+     * Returns the cached element for the locator, or performs the lookup and caches its result.
+     * With the cache on, the element is a handle that looks it up again once if it has gone stale.
+     */
+    public static WebElement find(By locator, Function<By, WebElement> lookup) {
+        WebElement cached = get(locator);
+        if (cached != null) {
+            return Refreshing.wrap(locator, lookup, cached);
+        }
+        WebElement found = lookup.apply(locator);
+        if (current() == null) return found;
+        put(locator, found);
+        return Refreshing.wrap(locator, lookup, found);
+    }
+
+    public static WebElement get(By locator) {
+        State s = current();
+        if (s == null) return null;
+        WebElement el = s.entries.get(locator);
+        RunMetrics.increment(el != null ? "element.cache.hits" : "element.cache.misses");
+        return el;
+    }
+
+    public static void put(By locator, WebElement element) {
+        State s = current();
+        if (s == null || element == null) return;
+        if (s.entries.size() >= MAX_ENTRIES) {
+            s.entries.clear();
+        }
+        s.entries.put(locator, element);
+    }
+
+    /**
+     * Runs a script call that only reads the page without dropping the cache. Only for the
+     * framework's own scripts; a script that may change the page must not use this.
+     */
+    public static <T> T readOnlyScript(Supplier<T> call) {
+        if (readingScript.get() != null) return call.get();
+        readingScript.set(Boolean.TRUE);
+        try {
+            return call.get();
+        } finally {
+            readingScript.remove();
+        }
+    }
+
+    public static void evict(By locator) {
+        State s = state.get();
+        if (s != null) s.entries.remove(locator);
+    }
+
+    public static void invalidate() {
+        State s = state.get();
+        if (s != null) s.entries.clear();
+    }
+
+    private static State current() {
+        if (!isEnabled()) return null;
+        WebDriver driver = DriverManager.getDriver();
+        if (driver == null) return null;
+        State s = state.get();
+        if (s == null || s.driver != driver) {
+            s = new State(driver);
+            state.set(s);
+        }
+        return s;
+    }
+
+    private static boolean submitsForm(Object[] args) {
+        if (args == null) return false;
+        for (Object arg : args) {
+            if (arg instanceof CharSequence[]) {
+                for (CharSequence cs : (CharSequence[]) arg) {
+                    if (cs == Keys.ENTER || cs == Keys.RETURN) return true;
+                    String text = String.valueOf(cs);
+                    if (text.indexOf('\n') >= 0 || text.indexOf(Keys.ENTER.charAt(0)) >= 0
+                            || text.indexOf(Keys.RETURN.charAt(0)) >= 0) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Delegates to the located element; on a stale reference, evicts it, looks it up again and retries once. */
+    private static final class Refreshing implements InvocationHandler {
+        private static final Class<?>[] INTERFACES = {WebElement.class, WrapsElement.class, Locatable.class, WrapsDriver.class};
+
+        private final By locator;
+        private final Function<By, WebElement> lookup;
+        private volatile WebElement element;
+
+        private Refreshing(By locator, Function<By, WebElement> lookup, WebElement element) {
+            this.locator = locator;
+            this.lookup = lookup;
+            this.element = element;
+        }
+
+        static WebElement wrap(By locator, Function<By, WebElement> lookup, WebElement element) {
+            return (WebElement) Proxy.newProxyInstance(ElementCache.class.getClassLoader(), INTERFACES,
+                    new Refreshing(locator, lookup, element));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("getWrappedElement".equals(name)) return element;
+            if (method.getDeclaringClass() == Object.class) {
+                switch (name) {
+                    case "equals":
+                        Object other = args[0] instanceof WrapsElement ? ((WrapsElement) args[0]).getWrappedElement() : args[0];
+                        return element.equals(other);
+                    case "hashCode": return element.hashCode();
+                    default: return element.toString();
+                }
+            }
+            try {
+                return call(method, args);
+            } catch (StaleElementReferenceException e) {
+                RunMetrics.increment("element.cache.stale");
+                evict(locator);
+                element = lookup.apply(locator);
+                put(locator, element);
+                return call(method, args);
+            }
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            WebElement target = element;
+            if (!method.getDeclaringClass().isInstance(target)) {
+                throw new UnsupportedOperationException(target.getClass().getSimpleName() + " does not implement "
+                        + method.getDeclaringClass().getSimpleName());
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    private static final class State {
+        private final WebDriver driver;
+        private final Map<By, WebElement> entries = new HashMap<>();
+
+        private State(WebDriver driver) {
+            this.driver = driver;
+        }
+    }
+}
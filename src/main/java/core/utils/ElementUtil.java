@@ -7,26 +7,34 @@ import org.openqa.selenium.support.ui.*;
 import java.time.Duration;
 
 /**
- * Enterprise-grade element utilities
+ * Enterprise-grade element utilities.
+ * click/sendKeys reuse elements from {@link ElementCache} when it is enabled; waits go through
+ * {@link WaitEngine}.
  */
 public class ElementUtil {
 
     private static final int TIMEOUT = 15;
 
     public static WebElement waitForVisible(By locator) {
-        return new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(TIMEOUT))
-                .until(ExpectedConditions.visibilityOfElementLocated(locator));
+        return WaitEngine.waitFor(locator, WaitEngine.Condition.VISIBLE, Duration.ofSeconds(TIMEOUT));
     }
 
     public static WebElement waitForClickable(By locator) {
-        return new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(TIMEOUT))
-                .until(ExpectedConditions.elementToBeClickable(locator));
+        return WaitEngine.waitFor(locator, WaitEngine.Condition.CLICKABLE, Duration.ofSeconds(TIMEOUT));
+    }
+
+    public static WebElement waitForPresent(By locator, Duration timeout) {
+        return WaitEngine.waitFor(locator, WaitEngine.Condition.PRESENT, timeout);
     }
 
     public static WebElement fluentWait(By locator, int timeout, int polling) {
+        return fluentWait(locator, Duration.ofSeconds(timeout), Duration.ofSeconds(polling));
+    }
+
+    public static WebElement fluentWait(By locator, Duration timeout, Duration polling) {
         Wait<WebDriver> wait = new FluentWait<>(DriverManager.getDriver())
-                .withTimeout(Duration.ofSeconds(timeout))
-                .pollingEvery(Duration.ofSeconds(polling))
+                .withTimeout(timeout)
+                .pollingEvery(polling)
                 .ignoring(NoSuchElementException.class);
         return wait.until(d -> d.findElement(locator));
     }
@@ -44,11 +52,36 @@ public class ElementUtil {
     }
 
     public static void click(By locator) {
-        waitForClickable(locator).click();
+        WebElement cached = ElementCache.get(locator);
+        if (cached != null) {
+            try {
+                // a disabled element would swallow the click; let the wait below wait for it instead
+                if (cached.isEnabled()) {
+                    cached.click();
+                    return;
+                }
+            } catch (StaleElementReferenceException | ElementNotInteractableException e) {
+                ElementCache.evict(locator);
+            }
+        }
+        WebElement el = waitForClickable(locator);
+        ElementCache.put(locator, el);
+        el.click();
     }
 
     public static void sendKeys(By locator, String value) {
+        WebElement cached = ElementCache.get(locator);
+        if (cached != null) {
+            try {
+                cached.clear();
+                cached.sendKeys(value);
+                return;
+            } catch (StaleElementReferenceException | ElementNotInteractableException e) {
+                ElementCache.evict(locator);
+            }
+        }
         WebElement el = waitForVisible(locator);
+        ElementCache.put(locator, el);
         el.clear();
         el.sendKeys(value);
     }
@@ -0,0 +1,89 @@
+package core.utils;
+
+import org.openqa.selenium.By;
+
+import java.util.Set;
+
+/**
+ * Converts Selenium locators to and from a "strategy:value" form (e.g. "id:login"),
+ * for persistence and for handing locators to in-browser scripts.
+ */
+public final class Locators {
+
+    /**
+     * JavaScript {@code findElement(strategy, value)} resolving a serialized locator to the first
+     * matching element (or null), for in-browser scripts.
+     */
+    static final String FIND_FUNCTION =
+            "function findElement(strategy, value) {"
+          + "  switch (strategy) {"
+          + "    case 'id': return document.getElementById(value);"
+          + "    case 'name': return document.getElementsByName(value)[0] || null;"
+          + "    case 'cssSelector': return document.querySelector(value);"
+          + "    case 'className': return document.getElementsByClassName(value)[0] || null;"
+          + "    case 'tagName': return document.getElementsByTagName(value)[0] || null;"
+          + "    case 'xpath': return document.evaluate(value, document, null, XPathResult.FIRST_ORDERED_NODE_TYPE, null).singleNodeValue;"
+          + "    case 'linkText': var a = document.getElementsByTagName('a');"
+          + "      for (var i = 0; i < a.length; i++) { if (a[i].textContent.trim() === value) return a[i]; } return null;"
+          + "  }"
+          + "  return null;"
+          + "}";
+
+    // the strategies FIND_FUNCTION handles
+    private static final Set<String> SCRIPTABLE = Set.of("id", "name", "cssSelector", "className", "tagName", "xpath", "linkText");
+
+    private Locators() {}
+
+    /** True if {@link #FIND_FUNCTION} can resolve this locator in the browser. */
+    static boolean isScriptable(By locator) {
+        String strategy = strategy(locator);
+        return strategy != null && SCRIPTABLE.contains(strategy);
+    }
+
+    /**
+     * Strategy name of a single-strategy locator (id, name, cssSelector, xpath, ...), or null for
+     * composite (ByChained, ByAll, ByIdOrName) and custom ones.
+     */
+    public static String strategy(By locator) {
+        String s = locator.toString();
+        if (!s.startsWith("By.")) return null;
+        int colon = s.indexOf(':');
+        if (colon <= 3) return null;
+        String strategy = s.substring(3, colon);
+        return strategy.chars().allMatch(Character::isLetter) ? strategy : null;
+    }
+
+    /** Raw value of the locator, or null if unknown. */
+    public static String value(By locator) {
+        String s = locator.toString();
+        int colon = s.indexOf(':');
+        return colon < 0 ? null : s.substring(colon + 1).trim();
+    }
+
+    public static String serialize(By locator) {
+        String strategy = strategy(locator);
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unsupported locator: " + locator);
+        }
+        return strategy + ":" + value(locator);
+    }
+
+    public static By parse(String serialized) {
+        int colon = serialized.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("Not a serialized locator: " + serialized);
+        }
+        String value = serialized.substring(colon + 1);
+        switch (serialized.substring(0, colon)) {
+            case "id": return By.id(value);
+            case "name": return By.name(value);
+            case "className": return By.className(value);
+            case "tagName": return By.tagName(value);
+            case "cssSelector": return By.cssSelector(value);
+            case "xpath": return By.xpath(value);
+            case "linkText": return By.linkText(value);
+            case "partialLinkText": return By.partialLinkText(value);
+            default: throw new IllegalArgumentException("Unsupported locator strategy: " + serialized);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package core.utils;
+
+import core.config.ConfigManager;
+import core.reporting.RunMetrics;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Content-addressed screenshot storage: each distinct image is stored once under its SHA-256,
+ * tracked in a compact index (hash, path, size, last used) and trimmed LRU-first to a disk quota.
+ */
+public final class ScreenshotStore {
+
+    private static final Path DEFAULT_ROOT = Paths.get("reports", "screenshots");
+    private static final long runStart = System.currentTimeMillis();
+
+    private static volatile Path root = DEFAULT_ROOT;
+    private static Map<String, Entry> entries;
+
+    private ScreenshotStore() {}
+
+    public static boolean isEnabled() {
+        return ConfigManager.isOn("screenshot.store");
+    }
+
+    /**
+     * Hash of the captured image plus the encoding settings, so different encodings of the same
+     * screen never share a blob.
+     */
+    public static String key(byte[] png, String encoding) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            sha.update(encoding.getBytes(StandardCharsets.UTF_8));
+            byte[] digest = sha.digest(png);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Where a blob lives under the store root, e.g. reports/screenshots/blobs/ab/ab12....png. */
+    public static String blobPath(String hash, String extension) {
+        return root.resolve("blobs").resolve(hash.substring(0, 2)).resolve(hash + "." + extension)
+                .toString().replace('\\', '/');
+    }
+
+    /**
+     * Registers a use of the blob. Returns true if the caller must write it, false if an identical
+     * image is already stored (or being stored).
+     */
+    public static boolean claim(String hash, String path) {
+        Map<String, Entry> index = index();
+        Entry existing = index.get(hash);
+        if (existing != null && (existing.size < 0 || Files.exists(Paths.get(existing.path)))) {
+            existing.lastUsed = System.currentTimeMillis();
+            RunMetrics.increment("screenshot.dedup.hits");
+            return false;
+        }
+        Entry fresh = new Entry(hash, path, -1, System.currentTimeMillis());
+        if (existing == null) {
+            return index.putIfAbsent(hash, fresh) == null;
+        }
+        return index.replace(hash, existing, fresh);
+    }
+
+    public static void stored(String hash, long size) {
+        Entry e = index().get(hash);
+        if (e != null) e.size = size;
+    }
+
+    public static void abandon(String hash) {
+        index().remove(hash);
+    }
+
+    /** Path of a stored blob, straight from the index (no directory scan). */
+    public static String resolve(String hash) {
+        Entry e = index().get(hash);
+        return e == null ? null : e.path;
+    }
+
+    /**
+     * Applies the quota (oldest blobs not used by this run go first) and rewrites the index.
+     */
+    public static void persist() {
+        persist(ConfigManager.getInt("screenshot.store.quota.mb", 1024) * 1024L * 1024L);
+    }
+
+    static synchronized void persist(long quota) {
+        if (entries == null) return;
+        List<Entry> all = new ArrayList<>(entries.values());
+        long total = all.stream().mapToLong(e -> Math.max(0, e.size)).sum();
+        if (total > quota) {
+            all.sort(Comparator.comparingLong(e -> e.lastUsed));
+            for (Entry e : all) {
+                if (total <= quota || e.lastUsed >= runStart) break;
+                try {
+                    Files.deleteIfExists(Paths.get(e.path));
+                    entries.remove(e.hash);
+                    total -= Math.max(0, e.size);
+                    RunMetrics.add("screenshot.store.evicted.bytes", Math.max(0, e.size));
+                } catch (IOException ex) {
+                    System.err.println("Could not evict screenshot " + e.path + ": " + ex.getMessage());
+                }
+            }
+        }
+
+        try {
+            Files.createDirectories(root);
+            Path tmp = Files.createTempFile(root, "index", ".tmp");
+            try (BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                for (Entry e : entries.values()) {
+                    if (e.size < 0) continue; // never finished writing
+                    out.write(e.hash + "\t" + e.path + "\t" + e.size + "\t" + e.lastUsed);
+                    out.newLine();
+                }
+            }
+            Files.move(tmp, root.resolve("index.tsv"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Could not write screenshot index: " + e.getMessage());
+        }
+    }
+
+    /** Keeps the index under the given directory from now on, reloading it on next use (tests only). */
+    static synchronized void useRoot(Path dir) {
+        root = dir == null ? DEFAULT_ROOT : dir;
+        entries = null;
+    }
+
+    private static synchronized Map<String, Entry> index() {
+        if (entries == null) {
+            Map<String, Entry> loaded = new ConcurrentHashMap<>();
+            Path index = root.resolve("index.tsv");
+            if (Files.exists(index)) {
+                int skipped = 0;
+                try (BufferedReader in = Files.newBufferedReader(index, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        Entry e = parse(line);
+                        if (e != null) {
+                            loaded.put(e.hash, e);
+                        } else if (!line.isBlank()) {
+                            skipped++;
+                        }
+                    }
+                } catch (Exception e) {
+                    System.err.println("Stopped reading screenshot index early: " + e.getMessage());
+                }
+                if (skipped > 0) {
+                    System.err.println("Skipped " + skipped + " malformed line(s) in " + index);
+                }
+            }
+            entries = loaded;
+        }
+        return entries;
+    }
+
+    // hash, path, size, last used; null if the line is damaged (e.g. a truncated write)
+    private static Entry parse(String line) {
+        String[] f = line.split("\t");
+        if (f.length != 4 || f[0].isEmpty() || f[1].isEmpty()) return null;
+        try {
+            return new Entry(f[0], f[1], Long.parseLong(f[2]), Long.parseLong(f[3]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static final class Entry {
+        private final String hash;
+        private final String path;
+        private volatile long size;
+        private volatile long lastUsed;
+
+        private Entry(String hash, String path, long size, long lastUsed) {
+            this.hash = hash;
+            this.path = path;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
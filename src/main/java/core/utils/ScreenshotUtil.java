@@ -1,39 +1,228 @@
 package core.utils;
 
+import core.config.ConfigManager;
 import core.driver.DriverManager;
+import core.reporting.ExtentManager;
+import core.reporting.RunMetrics;
 import org.openqa.selenium.*;
-import java.io.File;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 
 /**
- * Screenshot utilities
+ * Screenshot utilities.
+ * Only the capture itself (as PNG bytes) runs on the test thread; re-encoding and the disk write
+ * happen on a background I/O executor and the caller gets the final path straight away.
+ * With screenshot.store=ON files are content-addressed through {@link ScreenshotStore}, so
+ * identical screens are written once and share a path in the report.
  */
 public final class ScreenshotUtil {
 
+    private static final Set<CompletableFuture<String>> pending = ConcurrentHashMap.newKeySet();
+    private static final ExecutorService writer = Executors.newFixedThreadPool(2, r -> {
+        Thread t = new Thread(r, "screenshot-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
     private ScreenshotUtil() {}
 
     public static String takeScreenshot(String name) {
-        try {
-            File src = ((TakesScreenshot) DriverManager.getDriver())
-                    .getScreenshotAs(OutputType.FILE);
+        PendingWrite write = capture(name);
+        return write == null ? null : write.path;
+    }
+
+    /**
+     * Captures now and returns a future that completes with the file path once it is on disk.
+     * Returns null when no screenshot could be captured.
+     */
+    public static CompletableFuture<String> takeScreenshotAsync(String name) {
+        PendingWrite write = capture(name);
+        return write == null ? null : write.future;
+    }
 
-            String path = "reports/screenshots/" + name + "_" + System.currentTimeMillis() + ".png";
-            File dest = new File(path);
-            dest.getParentFile().mkdirs();
+    public static String takeViewportScreenshot() {
+        return takeScreenshot("viewport");
+    }
+
+    public static String takeFullPageScreenshot() {
+        return takeScreenshot("fullpage");
+    }
 
-            Files.copy(src.toPath(), dest.toPath());
-            return path;
+    /**
+     * Waits for queued screenshot writes, e.g. before the report is rendered at suite end.
+     */
+    public static void awaitPendingWrites() {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(60);
+        for (CompletableFuture<?> write : pending.toArray(new CompletableFuture<?>[0])) {
+            try {
+                write.get(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                System.err.println("Timed out waiting for " + pending.size() + " screenshot writes");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException ignored) {
+                // already reported by the writer
+            }
+        }
+    }
 
+    private static PendingWrite capture(String name) {
+        long start = System.nanoTime();
+        WebDriver driver = DriverManager.getStartedDriver();
+        if (driver == null) return null; // never start a browser just to photograph it
+        byte[] png;
+        try {
+            png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
         } catch (Exception e) {
             return null;
         }
+
+        String format = format();
+        String path;
+        String hash = null;
+        if (ScreenshotStore.isEnabled()) {
+            hash = ScreenshotStore.key(png, format + "@" + scale());
+            path = ScreenshotStore.blobPath(hash, extension(format));
+            if (!ScreenshotStore.claim(hash, path)) {
+                RunMetrics.increment("screenshot.count");
+                RunMetrics.add("screenshot.capture.us", (System.nanoTime() - start) / 1_000);
+                return new PendingWrite(path, CompletableFuture.completedFuture(path));
+            }
+        } else {
+            path = "reports/screenshots/" + name + "_" + System.currentTimeMillis() + "." + extension(format);
+        }
+        String blob = hash;
+        Consumer<String> reportWarning = ExtentManager.warningSink();
+
+        CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> {
+            long writeStart = System.nanoTime();
+            try {
+                byte[] data = encode(png, format);
+                Path dest = Paths.get(path);
+                Files.createDirectories(dest.getParent());
+                Files.write(dest, data);
+                if (blob != null) ScreenshotStore.stored(blob, data.length);
+                RunMetrics.add("screenshot.bytes.written", data.length);
+                RunMetrics.add("screenshot.write.ms", (System.nanoTime() - writeStart) / 1_000_000);
+                return path;
+            } catch (IOException e) {
+                if (blob != null) ScreenshotStore.abandon(blob);
+                reportWarning.accept("Screenshot " + path + " could not be written: " + e.getMessage());
+                throw new UncheckedIOException(e);
+            }
+        }, writer);
+        pending.add(future);
+        future.whenComplete((p, e) -> pending.remove(future));
+
+        RunMetrics.increment("screenshot.count");
+        RunMetrics.add("screenshot.capture.us", (System.nanoTime() - start) / 1_000);
+        return new PendingWrite(path, future);
     }
 
-    public static String takeViewportScreenshot() {
-        return takeScreenshot("viewport");
+    private static byte[] encode(byte[] png, String format) throws IOException {
+        double scale = scale();
+        if ("PNG".equals(format) && scale >= 1.0) {
+            return png; // already PNG from the driver, nothing to re-encode
+        }
+
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null) {
+            return png;
+        }
+        if (scale < 1.0) {
+            int w = Math.max(1, (int) (image.getWidth() * scale));
+            int h = Math.max(1, (int) (image.getHeight() * scale));
+            BufferedImage scaled = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = scaled.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, w, h, null);
+            g.dispose();
+            image = scaled;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if ("JPEG".equals(format)) {
+            writeJpeg(toRgb(image), out);
+        } else {
+            ImageIO.write(image, "png", out);
+        }
+        return out.toByteArray();
     }
 
-    public static String takeFullPageScreenshot() {
-        return takeScreenshot("fullpage");
+    private static void writeJpeg(BufferedImage image, ByteArrayOutputStream out) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        ImageWriter jpeg = writers.next();
+        ImageWriteParam param = jpeg.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(ConfigManager.getInt("screenshot.jpeg.quality", 80) / 100f);
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(out)) {
+            jpeg.setOutput(ios);
+            jpeg.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            jpeg.dispose();
+        }
+    }
+
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) return image;
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return rgb;
+    }
+
+    // WEBP has no encoder in the JDK's ImageIO, so it is written as PNG
+    private static String format() {
+        String format = ConfigManager.get("screenshot.format");
+        if (format == null) return "PNG";
+        format = format.trim().toUpperCase();
+        if ("JPG".equals(format)) return "JPEG";
+        return "JPEG".equals(format) ? format : "PNG";
+    }
+
+    private static String extension(String format) {
+        return "JPEG".equals(format) ? "jpg" : "png";
+    }
+
+    private static double scale() {
+        int percent = ConfigManager.getInt("screenshot.scale.percent", 100);
+        return Math.max(1, Math.min(100, percent)) / 100.0;
+    }
+
+    private static final class PendingWrite {
+        private final String path;
+        private final CompletableFuture<String> future;
+
+        private PendingWrite(String path, CompletableFuture<String> future) {
+            this.path = path;
+            this.future = future;
+        }
     }
 }
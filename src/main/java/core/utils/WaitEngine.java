@@ -0,0 +1,137 @@
+package core.utils;
+
+import core.config.ConfigManager;
+import core.driver.DriverManager;
+import core.reporting.ExtentManager;
+import core.reporting.RunMetrics;
+import org.openqa.selenium.*;
+
+import java.time.Duration;
+
+/**
+ * Element waits that resolve inside the browser.
+ * With wait.engine=EVENT (default) one executeAsyncScript call installs a MutationObserver plus a
+ * requestAnimationFrame check, so the wait returns the moment the condition holds. If scripting is
+ * unavailable or the page navigates mid-wait, it falls back to polling with exponential backoff.
+ */
+public final class WaitEngine {
+
+    public enum Condition { PRESENT, VISIBLE, CLICKABLE }
+
+    private static final String SCRIPT =
+            "var strategy = arguments[0], value = arguments[1], cond = arguments[2], timeout = arguments[3];"
+          + "var done = arguments[arguments.length - 1], finished = false, observer = null;"
+          + Locators.FIND_FUNCTION
+          + "function find() { return findElement(strategy, value); }"
+          + "function ok(e) {"
+          + "  if (!e) return false;"
+          + "  if (cond === 'PRESENT') return true;"
+          + "  var s = window.getComputedStyle(e), r = e.getBoundingClientRect();"
+          + "  if (s.visibility === 'hidden' || s.display === 'none' || r.width === 0 || r.height === 0) return false;"
+          + "  return cond !== 'CLICKABLE' || !e.disabled;"
+          + "}"
+          + "function finish(e) { finished = true; if (observer) observer.disconnect(); done(e); }"
+          + "function check() { if (finished) return; var e = find(); if (ok(e)) finish(e); }"
+          + "check();"
+          + "if (!finished) {"
+          + "  observer = new MutationObserver(check);"
+          + "  observer.observe(document, {childList: true, subtree: true, attributes: true});"
+          + "  (function tick() { check(); if (!finished) { requestAnimationFrame(tick); } })();"
+          + "  (function backup() { check(); if (!finished) { setTimeout(backup, 250); } })();"
+          + "  setTimeout(function () { if (!finished) finish(null); }, timeout);"
+          + "}";
+
+    private static final ThreadLocal<Object[]> scriptTimeoutSet = new ThreadLocal<>();
+
+    private WaitEngine() {}
+
+    public static WebElement waitFor(By locator, Condition condition, Duration timeout) {
+        WebDriver driver = DriverManager.getDriver();
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        int[] roundTrips = {0};
+        try {
+            if (!"POLLING".equalsIgnoreCase(ConfigManager.get("wait.engine"))
+                    && driver instanceof JavascriptExecutor && Locators.isScriptable(locator)) {
+                try {
+                    WebElement el = waitInBrowser(driver, Locators.strategy(locator), Locators.value(locator),
+                            condition, timeout, roundTrips);
+                    if (el != null) return el;
+                    throw timeout(locator, condition, timeout);
+                } catch (JavascriptException | ScriptTimeoutException | UnsupportedCommandException e) {
+                    // e.g. the page navigated while the observer was installed
+                    RunMetrics.increment("wait.script.fallbacks");
+                }
+            }
+            return poll(driver, locator, condition, deadline, timeout, roundTrips);
+        } finally {
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            RunMetrics.increment("wait.count");
+            RunMetrics.add("wait.ms", elapsedMs);
+            RunMetrics.add("wait.roundtrips", roundTrips[0]);
+            if (ConfigManager.isOn("wait.log")) {
+                ExtentManager.log("Wait " + condition + " " + locator + ": " + elapsedMs + " ms, "
+                        + roundTrips[0] + " round trips");
+            }
+        }
+    }
+
+    private static WebElement waitInBrowser(WebDriver driver, String strategy, String value, Condition condition,
+                                            Duration timeout, int[] roundTrips) {
+        ensureScriptTimeout(driver, timeout.plusSeconds(5), roundTrips);
+        roundTrips[0]++;
+        Object result = ElementCache.readOnlyScript(() -> ((JavascriptExecutor) driver).executeAsyncScript(SCRIPT,
+                strategy, value, condition.name(), timeout.toMillis()));
+        return result instanceof WebElement ? (WebElement) result : null;
+    }
+
+    /**
+     * Raises the session's script timeout to at least the given value; skipped (no round trip)
+     * when this thread already set a large enough timeout on the same driver.
+     */
+    static void ensureScriptTimeout(WebDriver driver, Duration scriptTimeout, int[] roundTrips) {
+        Object[] last = scriptTimeoutSet.get();
+        if (last == null || last[0] != driver || ((Duration) last[1]).compareTo(scriptTimeout) < 0) {
+            driver.manage().timeouts().scriptTimeout(scriptTimeout);
+            scriptTimeoutSet.set(new Object[] {driver, scriptTimeout});
+            roundTrips[0]++;
+        }
+    }
+
+    private static WebElement poll(WebDriver driver, By locator, Condition condition, long deadline,
+                                   Duration timeout, int[] roundTrips) {
+        long sleepMs = ConfigManager.getInt("wait.poll.initial.ms", 50);
+        long maxSleepMs = ConfigManager.getInt("wait.poll.max.ms", 1000);
+        while (true) {
+            try {
+                roundTrips[0]++;
+                WebElement el = driver.findElement(locator);
+                if (condition == Condition.PRESENT) return el;
+                roundTrips[0]++;
+                if (el.isDisplayed()) {
+                    if (condition == Condition.VISIBLE) return el;
+                    roundTrips[0]++;
+                    if (el.isEnabled()) return el;
+                }
+            } catch (NoSuchElementException | StaleElementReferenceException ignored) {
+                // not there yet
+            }
+            long remainingMs = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMs <= 0) {
+                throw timeout(locator, condition, timeout);
+            }
+            try {
+                Thread.sleep(Math.min(sleepMs, remainingMs));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new WebDriverException("Interrupted while waiting for " + locator, e);
+            }
+            sleepMs = Math.min(sleepMs * 2, maxSleepMs);
+        }
+    }
+
+    private static TimeoutException timeout(By locator, Condition condition, Duration timeout) {
+        return new TimeoutException("Expected condition failed: waiting for " + condition.name().toLowerCase()
+                + " element located by " + locator + " (tried for " + timeout.toMillis() + " ms)");
+    }
+}
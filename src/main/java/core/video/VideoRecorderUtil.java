@@ -1,31 +1,327 @@
 package core.video;
 
+import core.config.ConfigManager;
+import core.driver.DriverManager;
+import core.reporting.RunMetrics;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
 /**
- * Local video recording utility (FFmpeg hook)
+ * Per-session "record only on failure" video.
+ * Frames come from the driver itself (CDP screencast on Chromium, periodic screenshots otherwise)
+ * into a bounded in-memory ring buffer holding the last video.seconds at video.fps, capped at
+ * video.buffer.mb. Nothing is encoded for passing tests; on failure the buffer is written as a
+ * frame archive (ZIP) or an MP4 (when ffmpeg is on the PATH) on a background thread.
  */
 public class VideoRecorderUtil {
 
-    private static Process process;
+    private static final ThreadLocal<Recorder> current = new ThreadLocal<>();
+    private static final Map<WebDriver, AtomicReference<Recorder>> screencasts =
+            Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static volatile Boolean ffmpeg;
+
+    private static final ScheduledExecutorService capturer = Executors.newScheduledThreadPool(
+            Math.max(1, ConfigManager.getInt("video.capture.threads", 2)), r -> {
+                Thread t = new Thread(r, "video-capture");
+                t.setDaemon(true);
+                return t;
+            });
+    private static final ExecutorService encoder = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "video-encoder");
+        t.setDaemon(true);
+        return t;
+    });
 
     public static void start(String testName) {
+        if (!ConfigManager.isOn("video.enabled")) return;
+        WebDriver driver = DriverManager.getStartedDriver();
+        if (driver == null) return;
+        discard(current.get());
+
+        Recorder recorder = new Recorder(testName, driver);
+        current.set(recorder);
+        String source = ConfigManager.get("video.source");
+        boolean screencast = !"SCREENSHOT".equalsIgnoreCase(source) && startScreencast(recorder);
+        if (!screencast) {
+            long period = 1000L / recorder.fps;
+            recorder.task = capturer.scheduleAtFixedRate(recorder::captureScreenshot, 0, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops recording. On failure the buffered frames are encoded in the background and the path
+     * the video will have is returned; otherwise the frames are dropped and null is returned.
+     */
+    public static String stop(boolean failed) {
+        Recorder recorder = current.get();
+        current.remove();
+        if (recorder == null) return null;
+        recorder.stop();
+        if (!failed) {
+            recorder.drain();
+            RunMetrics.increment("video.discarded");
+            return null;
+        }
+        List<Frame> frames = recorder.drain();
+        if (frames.isEmpty()) return null;
+
+        boolean mp4 = "MP4".equalsIgnoreCase(ConfigManager.get("video.format")) && ffmpegAvailable();
+        String base = "reports/videos/" + recorder.testName + "_" + System.currentTimeMillis();
+        String path = base + (mp4 ? ".mp4" : ".zip");
+        int fps = recorder.fps;
+        CompletableFuture.runAsync(() -> encode(frames, fps, base, mp4), encoder);
+        RunMetrics.increment("video.encoded");
+        return path;
+    }
+
+    /** Stops recording without keeping anything (the outcome is unknown to the caller). */
+    public static void stop() {
+        stop(false);
+    }
+
+    private static void discard(Recorder recorder) {
+        if (recorder == null) return;
+        recorder.stop();
+        recorder.drain();
+        RunMetrics.increment("video.discarded");
+    }
+
+    // Page.startScreencast through generic CDP commands, so it does not depend on a devtools version
+    private static boolean startScreencast(Recorder recorder) {
+        if (!(recorder.driver instanceof HasDevTools) || !isChromium(recorder.driver)) return false;
         try {
-            ProcessBuilder pb = new ProcessBuilder(
-                "ffmpeg",
-                "-y",
-                "-f", "gdigrab",
-                "-framerate", "15",
-                "-i", "desktop",
-                "reports/video_" + testName + ".mp4"
-            );
-            process = pb.start();
+            DevTools devTools = ((HasDevTools) recorder.driver).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            AtomicReference<Recorder> existing = screencasts.get(recorder.driver);
+            AtomicReference<Recorder> target = existing != null ? existing : new AtomicReference<>();
+            if (existing == null) {
+                AtomicReference<Recorder> sink = target;
+                devTools.addListener(new Event<Map<String, Object>>("Page.screencastFrame", in -> in.read(Json.MAP_TYPE)),
+                        frame -> {
+                            Object session = frame.get("sessionId");
+                            // acknowledge off the connection thread, or Chrome stops sending frames
+                            capturer.execute(() -> ack(devTools, session));
+                            Recorder r = sink.get();
+                            if (r != null) r.screencastFrame((String) frame.get("data"));
+                        });
+                screencasts.put(recorder.driver, sink);
+            }
+            target.set(recorder);
+            int quality = ConfigManager.getInt("video.jpeg.quality", 60);
+            devTools.send(new Command<>("Page.startScreencast", Map.of("format", "jpeg", "quality", quality)));
+            recorder.stopAction = () -> {
+                target.compareAndSet(recorder, null);
+                devTools.send(new Command<>("Page.stopScreencast", Map.of()));
+            };
+            return true;
         } catch (Exception e) {
-            System.err.println("Video recording start failed");
+            System.err.println("Screencast unavailable, falling back to screenshots: " + e.getMessage());
+            return false;
         }
     }
 
-    public static void stop() {
-        if (process != null) {
+    private static boolean ffmpegAvailable() {
+        Boolean available = ffmpeg;
+        if (available == null) {
+            try {
+                Process p = new ProcessBuilder("ffmpeg", "-version").redirectErrorStream(true)
+                        .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+                available = p.waitFor(10, TimeUnit.SECONDS) && p.exitValue() == 0;
+            } catch (Exception e) {
+                available = false;
+            }
+            if (!available) System.err.println("ffmpeg not found; failure videos are written as frame archives");
+            ffmpeg = available;
+        }
+        return available;
+    }
+
+    private static void ack(DevTools devTools, Object session) {
+        try {
+            devTools.send(new Command<>("Page.screencastFrameAck", Map.of("sessionId", session)));
+        } catch (Exception ignored) {
+            // session closed
+        }
+    }
+
+    private static boolean isChromium(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities)) return false;
+        String browser = ((HasCapabilities) driver).getCapabilities().getBrowserName();
+        return "chrome".equalsIgnoreCase(browser) || "MicrosoftEdge".equalsIgnoreCase(browser) || "msedge".equalsIgnoreCase(browser);
+    }
+
+    private static void encode(List<Frame> frames, int fps, String base, boolean mp4) {
+        try {
+            Files.createDirectories(Paths.get("reports/videos"));
+            if (mp4) {
+                if (!writeMp4(frames, fps, Paths.get(base + ".mp4"))) {
+                    System.err.println("ffmpeg failed to encode " + base + ".mp4");
+                }
+                return;
+            }
+            writeZip(frames, Paths.get(base + ".zip"));
+        } catch (Exception e) {
+            System.err.println("Failure video " + base + " could not be written: " + e.getMessage());
+        }
+    }
+
+    private static void writeZip(List<Frame> frames, Path out) throws IOException {
+        long first = frames.get(0).timestamp;
+        StringBuilder index = new StringBuilder("# frame\toffset_ms\n");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(out))) {
+            zip.setLevel(Deflater.BEST_SPEED); // frames are already compressed images
+            for (int i = 0; i < frames.size(); i++) {
+                Frame frame = frames.get(i);
+                String name = String.format("frame_%05d.%s", i, frame.extension);
+                zip.putNextEntry(new ZipEntry(name));
+                zip.write(frame.data);
+                zip.closeEntry();
+                index.append(name).append('\t').append(frame.timestamp - first).append('\n');
+            }
+            zip.putNextEntry(new ZipEntry("frames.tsv"));
+            zip.write(index.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+    }
+
+    // frames are piped to ffmpeg, so nothing but the result touches the disk
+    private static boolean writeMp4(List<Frame> frames, int fps, Path out) {
+        Process process;
+        try {
+            process = new ProcessBuilder("ffmpeg", "-y", "-loglevel", "error",
+                    "-f", "image2pipe", "-framerate", String.valueOf(fps), "-i", "-",
+                    "-vf", "pad=ceil(iw/2)*2:ceil(ih/2)*2", "-pix_fmt", "yuv420p", out.toString())
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+        } catch (IOException e) {
+            return false;
+        }
+        try (OutputStream stdin = process.getOutputStream()) {
+            for (Frame frame : frames) {
+                stdin.write(frame.data);
+            }
+        } catch (IOException e) {
             process.destroy();
+            return false;
+        }
+        try {
+            return process.waitFor(120, TimeUnit.SECONDS) && process.exitValue() == 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroy();
+            return false;
+        }
+    }
+
+    private static final class Frame {
+        private final byte[] data;
+        private final long timestamp;
+        private final String extension;
+
+        private Frame(byte[] data, long timestamp, String extension) {
+            this.data = data;
+            this.timestamp = timestamp;
+            this.extension = extension;
+        }
+    }
+
+    private static final class Recorder {
+        private final String testName;
+        private final WebDriver driver;
+        private final int fps;
+        private final int maxFrames;
+        private final long maxBytes;
+        private final ArrayDeque<Frame> frames = new ArrayDeque<>();
+        private long bytes;
+        private long lastFrame;
+        private volatile boolean stopped;
+        private ScheduledFuture<?> task;
+        private Runnable stopAction;
+
+        private Recorder(String testName, WebDriver driver) {
+            this.testName = testName.replaceAll("[^A-Za-z0-9._-]", "_");
+            this.driver = driver;
+            this.fps = Math.max(1, Math.min(30, ConfigManager.getInt("video.fps", 2)));
+            this.maxFrames = Math.max(1, fps * ConfigManager.getInt("video.seconds", 10));
+            this.maxBytes = ConfigManager.getLong("video.buffer.mb", 32) * 1024 * 1024;
+        }
+
+        private void captureScreenshot() {
+            if (stopped) return;
+            try {
+                add(((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES), "png");
+            } catch (Exception ignored) {
+                // session busy or closing; the next tick tries again
+            }
+        }
+
+        private void screencastFrame(String base64) {
+            long now = System.currentTimeMillis();
+            if (stopped || base64 == null || now - lastFrame < 1000L / fps) return;
+            lastFrame = now;
+            add(Base64.getDecoder().decode(base64), "jpg");
+        }
+
+        private synchronized void add(byte[] data, String extension) {
+            if (stopped) return;
+            frames.addLast(new Frame(data, System.currentTimeMillis(), extension));
+            bytes += data.length;
+            while (frames.size() > 1 && (frames.size() > maxFrames || bytes > maxBytes)) {
+                bytes -= frames.removeFirst().data.length;
+                RunMetrics.increment("video.frames.evicted");
+            }
+            RunMetrics.increment("video.frames.captured");
+        }
+
+        private void stop() {
+            stopped = true;
+            if (task != null) task.cancel(false);
+            if (stopAction != null) {
+                try {
+                    stopAction.run();
+                } catch (Exception ignored) {
+                    // session may already be gone
+                }
+            }
+        }
+
+        private synchronized List<Frame> drain() {
+            List<Frame> out = new ArrayList<>(frames);
+            frames.clear();
+            bytes = 0;
+            return out;
         }
     }
 }
@@ -0,0 +1,71 @@
+package benchmarks;
+
+import benchmarks.support.StubDriver;
+import core.driver.CommandLatencyListener;
+import org.openjdk.jmh.annotations.*;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of command-latency timing: the same cheap calls on a plain stub driver, on one wrapped by
+ * Selenium's decorator with a no-op listener, and on one wrapped with {@link CommandLatencyListener}
+ * the way DriverFactory wraps real sessions, from 4 threads. The listener's own cost is the
+ * difference between the last two.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+public class CommandLatencyBenchmark {
+
+    private static final By MISSING = By.id("benchmark-missing");
+
+    private WebDriver plain;
+    private WebDriver noopDecorated;
+    private WebDriver decorated;
+
+    @Setup
+    public void setup() {
+        plain = new StubDriver();
+        noopDecorated = new EventFiringDecorator<>(new WebDriverListener() {}).decorate(new StubDriver());
+        decorated = new EventFiringDecorator<>(CommandLatencyListener.INSTANCE).decorate(new StubDriver());
+    }
+
+    @Benchmark
+    public String plainGetTitle() {
+        return plain.getTitle();
+    }
+
+    @Benchmark
+    public String noopDecoratedGetTitle() {
+        return noopDecorated.getTitle();
+    }
+
+    @Benchmark
+    public String decoratedGetTitle() {
+        return decorated.getTitle();
+    }
+
+    @Benchmark
+    public List<WebElement> plainFindElements() {
+        return plain.findElements(MISSING);
+    }
+
+    @Benchmark
+    public List<WebElement> noopDecoratedFindElements() {
+        return noopDecorated.findElements(MISSING);
+    }
+
+    @Benchmark
+    public List<WebElement> decoratedFindElements() {
+        return decorated.findElements(MISSING);
+    }
+}
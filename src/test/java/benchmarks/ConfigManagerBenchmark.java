@@ -0,0 +1,45 @@
+package benchmarks;
+
+import core.config.ConfigManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Config lookups from 8 threads at once, the way parallel tests and the framework's own hot
+ * paths (element cache, waits, screenshots) call them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+public class ConfigManagerBenchmark {
+
+    @Benchmark
+    public String getPresentKey() {
+        return ConfigManager.get("browser");
+    }
+
+    @Benchmark
+    public String getMissingKey() {
+        return ConfigManager.get("benchmark.no.such.key");
+    }
+
+    @Benchmark
+    public boolean isOn() {
+        return ConfigManager.isOn("element.cache");
+    }
+
+    @Benchmark
+    public int getInt() {
+        return ConfigManager.getInt("wait.poll.max.ms", 1000);
+    }
+
+    @Benchmark
+    public Duration getDuration() {
+        return ConfigManager.getDuration("wait.poll.max.ms", Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,74 @@
+package benchmarks;
+
+import core.config.ConfigManager;
+import core.reporting.ExtentManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * log/pass throughput from 4 test threads, each with its own test node, in each report mode.
+ * Every mode runs in its own fork since the report is configured once per JVM; nothing is
+ * flushed, so only the cost seen by the test thread is measured. Extent recomputes a test's
+ * status over all of its logs on every add, so threads move to a new node every
+ * {@value #LOGS_PER_TEST} calls, like a real suite does.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ExtentManagerBenchmark {
+
+    private static final int LOGS_PER_TEST = 200;
+
+    @State(Scope.Benchmark)
+    public static class Report {
+        @Param({"SYNC", "ASYNC", "STREAM"})
+        public String mode;
+
+        @Setup
+        public void setup() {
+            System.setProperty("report.mode", "STREAM".equals(mode) ? "STREAM" : "EXTENT");
+            System.setProperty("report.async", "ASYNC".equals(mode) ? "ON" : "OFF");
+            System.setProperty("report.async.backpressure", "BLOCK");
+            System.setProperty("report.stream.dir", "target/benchmark-stream");
+            ConfigManager.reload();
+            ExtentManager.init();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class TestNode {
+        private int tests;
+        private int logs;
+
+        @Setup
+        public void setup(Report report) {
+            newTest();
+        }
+
+        void next() {
+            if (++logs >= LOGS_PER_TEST) newTest();
+        }
+
+        private void newTest() {
+            ExtentManager.endTest();
+            ExtentManager.createTest("benchmark-" + Thread.currentThread().getName() + "-" + tests++);
+            logs = 0;
+        }
+    }
+
+    @Benchmark
+    public void log(TestNode node) {
+        node.next();
+        ExtentManager.log("Clicked element By.id: login-submit-btn");
+    }
+
+    @Benchmark
+    public void pass(TestNode node) {
+        node.next();
+        ExtentManager.pass("ASSERT PASS: title matches");
+    }
+}
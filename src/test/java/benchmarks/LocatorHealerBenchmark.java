@@ -0,0 +1,53 @@
+package benchmarks;
+
+import benchmarks.support.StubDriver;
+import benchmarks.support.SyntheticPage;
+import core.driver.DriverManager;
+import core.healing.DomSnapshot;
+import core.healing.ElementFingerprint;
+import core.healing.LocatorHealer;
+import org.openjdk.jmh.annotations.*;
+import org.openqa.selenium.By;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Healing a broken locator on a 5,000-element page: scoring alone against a captured snapshot,
+ * and the full {@link LocatorHealer#heal(By)} path through a stub driver (no browser involved).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class LocatorHealerBenchmark {
+
+    private static final By BROKEN = By.id("loginSubmitButton");
+
+    private DomSnapshot snapshot;
+    private ElementFingerprint fingerprint;
+    private StubDriver driver;
+
+    @Param({"5000"})
+    public int nodes;
+
+    @Setup
+    public void setup() {
+        SyntheticPage page = new SyntheticPage(nodes);
+        snapshot = page.snapshot();
+        fingerprint = page.oldTarget();
+        driver = new StubDriver();
+        driver.setScriptResult(page.scriptResult());
+    }
+
+    @Benchmark
+    public int healAgainstSnapshot() {
+        return LocatorHealer.bestMatch(fingerprint, snapshot, 0.5);
+    }
+
+    @Benchmark
+    public By healThroughDriver() {
+        DriverManager.setDriver(driver);
+        return LocatorHealer.heal(BROKEN);
+    }
+}
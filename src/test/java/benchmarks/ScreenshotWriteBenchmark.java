@@ -0,0 +1,60 @@
+package benchmarks;
+
+import benchmarks.support.StubDriver;
+import core.config.ConfigManager;
+import core.driver.DriverManager;
+import core.utils.ScreenshotUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Screenshot capture, encode and disk write against a stub driver returning a 1280x800 PNG,
+ * waiting for the background writer each time (queuing captures faster than they can be written
+ * would only measure the queue). Files written are deleted after each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScreenshotWriteBenchmark {
+
+    @Param({"PNG", "JPEG"})
+    public String format;
+
+    private final List<String> written = new ArrayList<>();
+    private StubDriver driver;
+
+    @Setup
+    public void setup() {
+        System.setProperty("screenshot.format", format);
+        System.setProperty("screenshot.store", "OFF");
+        ConfigManager.reload();
+        driver = new StubDriver();
+    }
+
+    @Benchmark
+    public String captureAndWrite() {
+        DriverManager.setDriver(driver);
+        String path = ScreenshotUtil.takeScreenshotAsync("benchmark").join();
+        written.add(path);
+        return path;
+    }
+
+    @TearDown(Level.Iteration)
+    public void cleanup() throws IOException {
+        ScreenshotUtil.awaitPendingWrites();
+        for (String path : written) {
+            Files.deleteIfExists(Paths.get(path));
+        }
+        written.clear();
+    }
+}
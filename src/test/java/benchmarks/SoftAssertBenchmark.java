@@ -0,0 +1,63 @@
+package benchmarks;
+
+import core.assertions.SoftAssertUtil;
+import core.reporting.ExtentManager;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SoftAssertUtil.verify on the passing and failing paths, reporting into a test node.
+ * Console output is discarded so the forked JVM's stdout pipe is not what gets measured, and a
+ * new test node is started every 200 asserts to keep Extent's per-log status update realistic.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class SoftAssertBenchmark {
+
+    private PrintStream console;
+    private int tests;
+    private int asserts;
+
+    @Setup
+    public void setup() {
+        console = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        ExtentManager.init();
+        ExtentManager.createTest("soft-assert-" + tests++);
+    }
+
+    @TearDown
+    public void restore() {
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public void verifyPass() {
+        nextTest();
+        SoftAssertUtil.verify(true, "title matches", "title mismatch");
+    }
+
+    @Benchmark
+    public Object verifyFail() {
+        nextTest();
+        try {
+            SoftAssertUtil.verify(false, "title matches", "title mismatch");
+            return null;
+        } catch (AssertionError e) {
+            return e;
+        }
+    }
+
+    private void nextTest() {
+        if (++asserts < 200) return;
+        ExtentManager.createTest("soft-assert-" + tests++);
+        asserts = 0;
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import core.config.ConfigManager;
+import core.db.ExecutionRecord;
+import core.db.SqlLogger;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end execution history throughput: queue 5,000 records from the calling thread and wait
+ * until the writer has committed them to a scratch H2 file under target/. The score is records
+ * per second (target: well above 10k/s).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlLoggerBenchmark {
+
+    private static final int RECORDS = 5_000;
+
+    private int n;
+
+    @Setup
+    public void setup() {
+        System.setProperty("history.db", "ON");
+        System.setProperty("history.db.url", "jdbc:h2:./target/benchmark-history/executions-" + ProcessHandle.current().pid());
+        System.setProperty("history.queue.capacity", String.valueOf(RECORDS * 2));
+        ConfigManager.reload();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public boolean recordAndCommit() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < RECORDS; i++) {
+            int id = n++;
+            SqlLogger.record(new ExecutionRecord("benchmark", "tests.Checkout.test" + (id % 400), "worker-" + (id % 8),
+                    now - 1500, now, id % 17 == 0 ? "FAIL" : "PASS",
+                    id % 17 == 0 ? "org.openqa.selenium.TimeoutException: Expected condition failed @ tests.Checkout.pay" : null,
+                    null));
+        }
+        return SqlLogger.flush(60_000);
+    }
+
+    @TearDown
+    public void shutdown() {
+        SqlLogger.shutdown();
+    }
+}
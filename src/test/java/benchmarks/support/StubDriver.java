@@ -0,0 +1,140 @@
+package benchmarks.support;
+
+import org.openqa.selenium.*;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * In-memory WebDriver for benchmarks: returns a fixed PNG for screenshots and a fixed value for
+ * every script, finds nothing and never talks to a browser.
+ */
+public final class StubDriver implements WebDriver, JavascriptExecutor, TakesScreenshot {
+
+    private final byte[] screenshot;
+    private volatile Object scriptResult;
+
+    public StubDriver() {
+        this(png(1280, 800));
+    }
+
+    public StubDriver(byte[] screenshot) {
+        this.screenshot = screenshot;
+    }
+
+    public void setScriptResult(Object scriptResult) {
+        this.scriptResult = scriptResult;
+    }
+
+    @Override
+    public <X> X getScreenshotAs(OutputType<X> target) {
+        return target.convertFromPngBytes(screenshot);
+    }
+
+    @Override
+    public Object executeScript(String script, Object... args) {
+        return scriptResult;
+    }
+
+    @Override
+    public Object executeAsyncScript(String script, Object... args) {
+        return scriptResult;
+    }
+
+    @Override
+    public void get(String url) {}
+
+    @Override
+    public String getCurrentUrl() {
+        return "about:stub";
+    }
+
+    @Override
+    public String getTitle() {
+        return "stub";
+    }
+
+    @Override
+    public List<WebElement> findElements(By by) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public WebElement findElement(By by) {
+        throw new NoSuchElementException("Stub driver has no elements: " + by);
+    }
+
+    @Override
+    public String getPageSource() {
+        return "<html></html>";
+    }
+
+    @Override
+    public void close() {}
+
+    @Override
+    public void quit() {}
+
+    @Override
+    public Set<String> getWindowHandles() {
+        return Collections.singleton("stub");
+    }
+
+    @Override
+    public String getWindowHandle() {
+        return "stub";
+    }
+
+    @Override
+    public TargetLocator switchTo() {
+        throw new UnsupportedOperationException("switchTo");
+    }
+
+    @Override
+    public Navigation navigate() {
+        throw new UnsupportedOperationException("navigate");
+    }
+
+    @Override
+    public Options manage() {
+        throw new UnsupportedOperationException("manage");
+    }
+
+    /** A page-like PNG (header, text blocks, buttons) so encoders see realistic content. */
+    public static byte[] png(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        Random rnd = new Random(7);
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, width, height);
+        g.setColor(new Color(33, 37, 41));
+        g.fillRect(0, 0, width, 64);
+        g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 14));
+        for (int y = 96; y < height - 40; y += 28) {
+            g.setColor(new Color(rnd.nextInt(80), rnd.nextInt(80), rnd.nextInt(80)));
+            g.drawString("Lorem ipsum dolor sit amet " + rnd.nextInt(100000) + " consectetur adipiscing", 40, y);
+            if (rnd.nextInt(5) == 0) {
+                g.setColor(new Color(13, 110, 253));
+                g.fillRoundRect(width - 240, y - 18, 160, 24, 6, 6);
+            }
+        }
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,89 @@
+package benchmarks.support;
+
+import core.healing.DomSnapshot;
+import core.healing.ElementFingerprint;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A reproducible synthetic page: random elements plus one target button whose id was renamed
+ * after a "redesign". Available as a {@link DomSnapshot} or as the raw script result the
+ * snapshot script returns, for driving {@link StubDriver}.
+ */
+public final class SyntheticPage {
+
+    private static final String[] TAGS = {"div", "span", "a", "input", "button", "li", "p", "label"};
+    private static final String[] WORDS = {"login", "user", "password", "submit", "nav", "item", "card",
+            "header", "footer", "search", "checkout", "profile", "menu", "title", "price", "cart"};
+
+    public final String[] tag, id, name, cls, text;
+    public final int[] x, y, w, h;
+    public final int target;
+
+    public SyntheticPage(int nodes) {
+        Random rnd = new Random(42);
+        tag = new String[nodes];
+        id = new String[nodes];
+        name = new String[nodes];
+        cls = new String[nodes];
+        text = new String[nodes];
+        x = new int[nodes];
+        y = new int[nodes];
+        w = new int[nodes];
+        h = new int[nodes];
+        for (int i = 0; i < nodes; i++) {
+            tag[i] = TAGS[rnd.nextInt(TAGS.length)];
+            id[i] = rnd.nextInt(4) == 0 ? word(rnd) + "-" + word(rnd) + "-" + i : "";
+            name[i] = rnd.nextInt(6) == 0 ? word(rnd) + "_" + word(rnd) : "";
+            cls[i] = "c-" + word(rnd) + " c-" + word(rnd);
+            text[i] = rnd.nextInt(3) == 0 ? word(rnd) + " " + word(rnd) + " " + word(rnd) : "";
+            x[i] = rnd.nextInt(1280);
+            y[i] = rnd.nextInt(4000);
+            w[i] = 10 + rnd.nextInt(300);
+            h[i] = 10 + rnd.nextInt(60);
+        }
+        target = nodes / 2;
+        tag[target] = "button";
+        id[target] = "login-submit-btn";
+        name[target] = "loginSubmit";
+        cls[target] = "btn btn-primary";
+        text[target] = "Sign in";
+    }
+
+    public DomSnapshot snapshot() {
+        return new DomSnapshot(tag, id, name, cls, text, x, y, w, h);
+    }
+
+    /** What the element looked like before its id was renamed. */
+    public ElementFingerprint oldTarget() {
+        return new ElementFingerprint("button", "loginSubmitButton", "loginSubmit", "btn btn-primary",
+                "Sign in", x[target], y[target]);
+    }
+
+    /** The page in the shape returned by the snapshot script (columns plus a flat rect list). */
+    public Map<String, List<Object>> scriptResult() {
+        Map<String, List<Object>> raw = new HashMap<>();
+        raw.put("tag", List.of((Object[]) tag));
+        raw.put("id", List.of((Object[]) id));
+        raw.put("name", List.of((Object[]) name));
+        raw.put("cls", List.of((Object[]) cls));
+        raw.put("text", List.of((Object[]) text));
+        List<Object> rect = new ArrayList<>(tag.length * 4);
+        for (int i = 0; i < tag.length; i++) {
+            rect.add((long) x[i]);
+            rect.add((long) y[i]);
+            rect.add((long) w[i]);
+            rect.add((long) h[i]);
+        }
+        raw.put("rect", rect);
+        return raw;
+    }
+
+    private static String word(Random rnd) {
+        return WORDS[rnd.nextInt(WORDS.length)];
+    }
+}
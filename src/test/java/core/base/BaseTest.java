@@ -1,10 +1,12 @@
 package core.base;
 
-import core.driver.DriverFactory;
 import core.driver.DriverManager;
+import core.driver.NetworkProfile;
+import core.driver.SessionStateCache;
+import core.execution.TestContext;
 import core.video.VideoRecorderUtil;
 import core.reporting.ExtentManager;
-import org.openqa.selenium.WebDriver;
+import org.testng.ITestContext;
 import org.testng.ITestResult;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
@@ -17,44 +19,49 @@ import java.lang.reflect.Method;
  */
 public class BaseTest {
 
-    private static ThreadLocal<Boolean> created = ThreadLocal.withInitial(() -> false);
-    private static ThreadLocal<Boolean> extentCreated = ThreadLocal.withInitial(() -> false);
-
     @BeforeMethod
-    public void setup(Method method) {
+    public void setup(Method method, ITestContext testContext) {
         // Ensure an Extent test exists for IDE/manual runs when listener isn't present
         try {
             if (!ExtentManager.hasTest()) {
                 ExtentManager.startTest(method.getName());
-                extentCreated.set(true);
+                TestContext.get().setBaseTestCreatedReport(true);
             }
         } catch (Exception ignored) {}
 
         if (DriverManager.getDriver() == null) {
-            WebDriver wd = DriverFactory.createDriver();
-            DriverManager.setDriver(wd);
-            created.set(true);
+            TestContext.get().setNetworkProfile(NetworkProfile.forTest(method, testContext));
+            TestContext.get().setSessionRole(SessionStateCache.roleFor(method));
+            DriverManager.initDriver();
+            TestContext.get().setBaseTestCreatedDriver(true);
 
-            // Start video for this test (best-effort)
+            // Start video for this test once its session starts (best-effort)
             try {
-                VideoRecorderUtil.start(method.getName());
+                DriverManager.whenStarted(() -> VideoRecorderUtil.start(method.getName()));
             } catch (Exception ignored) {}
         }
     }
 
     @AfterMethod
     public void teardown(ITestResult result) {
-        if (Boolean.TRUE.equals(created.get())) {
-            try { VideoRecorderUtil.stop(); } catch (Exception ignored) {}
+        TestContext context = TestContext.get();
+        if (context.isBaseTestCreatedDriver()) {
+            try {
+                String video = VideoRecorderUtil.stop(!result.isSuccess());
+                if (video != null) {
+                    ExtentManager.log("Failure video: <a href='" + ExtentManager.href(video) + "'>" + video + "</a>");
+                }
+            } catch (Exception ignored) {}
             DriverManager.quitDriver();
-            created.remove();
+            context.setBaseTestCreatedDriver(false);
         }
 
         // Flush Extent report only if BaseTest created it (listener will flush itself)
         try {
-            if (Boolean.TRUE.equals(extentCreated.get())) {
+            if (context.isBaseTestCreatedReport()) {
+                ExtentManager.endTest();
                 ExtentManager.flush();
-                extentCreated.remove();
+                context.setBaseTestCreatedReport(false);
             }
         } catch (Exception ignored) {}
     }
@@ -0,0 +1,75 @@
+package core.config;
+
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Snapshot resolution from a temporary config directory with explicit environment and system
+ * properties, so nothing global is touched.
+ */
+public class ConfigManagerTest {
+
+    private Path dir;
+
+    @BeforeMethod
+    public void configDir() throws Exception {
+        dir = Files.createTempDirectory(Paths.get("target"), "config");
+        write("config.properties", "browser=chrome\nwait.timeout=10s\nheadless=OFF\nretries=1\nretries=2\n");
+        write("config-ci.properties", "headless=ON\nretries=3\n");
+    }
+
+    @Test
+    public void precedenceIsSystemThenEnvironmentThenProfileThenBase() throws Exception {
+        Properties system = new Properties();
+        system.setProperty("config.profile", "ci");
+        system.setProperty("retries", "5");
+        Map<String, String> env = Map.of("E2E_HEADLESS", "OFF", "E2E_RETRIES", "4", "E2E_WAIT_TIMEOUT", "30s");
+
+        ConfigManager.Snapshot s = ConfigManager.Snapshot.load(dir, env, system);
+        Assert.assertEquals(s.get("browser"), "chrome", "base file");
+        Assert.assertEquals(s.get("wait.timeout"), "30s", "environment over base");
+        Assert.assertEquals(s.get("headless"), "OFF", "environment over profile");
+        Assert.assertEquals(s.get("retries"), "5", "system property over everything");
+
+        Assert.assertEquals(ConfigManager.Snapshot.load(dir, Map.of(), system).get("headless"), "ON", "profile over base");
+    }
+
+    @Test
+    public void onlyPrefixedEnvironmentVariablesOverride() throws Exception {
+        Map<String, String> env = Map.of("BROWSER", "firefox", "HOME", "/root", "E2E_GRID_CAPACITY", "6");
+        ConfigManager.Snapshot s = ConfigManager.Snapshot.load(dir, env, new Properties());
+        Assert.assertEquals(s.get("browser"), "chrome");
+        Assert.assertNull(s.get("home"));
+        Assert.assertEquals(s.get("grid.capacity"), "6", "keys absent from every file still come from E2E_ variables");
+        Assert.assertEquals(ConfigManager.envName("driver.pool-size"), "E2E_DRIVER_POOL_SIZE");
+    }
+
+    @Test
+    public void profileComesFromThePrefixedEnvironment() throws Exception {
+        ConfigManager.Snapshot s = ConfigManager.Snapshot.load(dir, Map.of("E2E_CONFIG_PROFILE", "ci"), new Properties());
+        Assert.assertEquals(s.get("retries"), "3");
+    }
+
+    @Test
+    public void keysRepeatedInAFileAreReported() throws Exception {
+        Properties system = new Properties();
+        system.setProperty("config.profile", "ci");
+        ConfigManager.Snapshot s = ConfigManager.Snapshot.load(dir, Map.of(), system);
+        Assert.assertEquals(s.duplicates, Set.of("retries (config.properties)"),
+                "the same key in the base file and the profile is an override, not a duplicate");
+        Assert.assertEquals(s.get("retries"), "3");
+    }
+
+    private void write(String name, String content) throws Exception {
+        Files.writeString(dir.resolve(name), content, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,182 @@
+package core.driver;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * DriverBinaryResolver's manifest decisions against a temporary manifest, with the download,
+ * browser stamp, offline switch and clock replaced.
+ */
+public class DriverBinaryResolverTest {
+
+    private static final String STAMP = "/opt/chrome|1000|1700000000000";
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toMillis(1000));
+    private final AtomicInteger downloads = new AtomicInteger();
+    private volatile String stamp = STAMP;
+    private volatile boolean offline;
+    private volatile boolean downloadFails;
+
+    private Path dir;
+    private Path manifest;
+    private Path cachedDriver;
+    private Path downloadedDriver;
+    private Supplier<Path> originalPath;
+    private Function<String, String> originalStamp;
+    private BiConsumer<String, Properties> originalDownload;
+    private BooleanSupplier originalOffline;
+    private LongSupplier originalClock;
+    private String originalProperty;
+
+    @BeforeMethod
+    public void tempManifest() throws Exception {
+        downloads.set(0);
+        stamp = STAMP;
+        offline = false;
+        downloadFails = false;
+        dir = Files.createTempDirectory(Paths.get("target"), "driver-manifest");
+        manifest = dir.resolve("driver-manifest.properties");
+        cachedDriver = executable("chromedriver-cached");
+        downloadedDriver = executable("chromedriver-new");
+        originalPath = DriverBinaryResolver.manifestPath;
+        originalStamp = DriverBinaryResolver.browserStamp;
+        originalDownload = DriverBinaryResolver.download;
+        originalOffline = DriverBinaryResolver.offline;
+        originalClock = DriverBinaryResolver.clock;
+        originalProperty = System.getProperty("webdriver.chrome.driver");
+        DriverBinaryResolver.manifestPath = () -> manifest;
+        DriverBinaryResolver.browserStamp = browser -> stamp;
+        DriverBinaryResolver.download = (browser, props) -> {
+            downloads.incrementAndGet();
+            if (downloadFails) throw new RuntimeException("no network");
+            props.setProperty(browser + ".driver.path", downloadedDriver.toString());
+            props.setProperty(browser + ".driver.version", "126.0");
+        };
+        DriverBinaryResolver.offline = () -> offline;
+        DriverBinaryResolver.clock = now::get;
+        DriverBinaryResolver.reset();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void restore() {
+        DriverBinaryResolver.manifestPath = originalPath;
+        DriverBinaryResolver.browserStamp = originalStamp;
+        DriverBinaryResolver.download = originalDownload;
+        DriverBinaryResolver.offline = originalOffline;
+        DriverBinaryResolver.clock = originalClock;
+        DriverBinaryResolver.reset();
+        if (originalProperty == null) {
+            System.clearProperty("webdriver.chrome.driver");
+        } else {
+            System.setProperty("webdriver.chrome.driver", originalProperty);
+        }
+    }
+
+    @Test
+    public void freshEntryIsUsedWithoutDownloading() throws Exception {
+        writeManifest(STAMP, String.valueOf(now.get() - TimeUnit.DAYS.toMillis(29)));
+        DriverBinaryResolver.resolve("Chrome");
+        Assert.assertEquals(downloads.get(), 0);
+        Assert.assertEquals(System.getProperty("webdriver.chrome.driver"), cachedDriver.toString());
+
+        DriverBinaryResolver.resolve("chrome");
+        Assert.assertEquals(downloads.get(), 0, "resolved once per JVM");
+    }
+
+    @Test
+    public void oldEntryIsResolvedAgainAndRecorded() throws Exception {
+        writeManifest(STAMP, String.valueOf(now.get() - TimeUnit.DAYS.toMillis(31))); // driver.manifest.max.age.days=30
+        DriverBinaryResolver.resolve("chrome");
+        Assert.assertEquals(downloads.get(), 1);
+
+        Properties saved = readManifest();
+        Assert.assertEquals(saved.getProperty("chrome.driver.path"), downloadedDriver.toString());
+        Assert.assertEquals(saved.getProperty("chrome.driver.version"), "126.0");
+        Assert.assertEquals(saved.getProperty("chrome.browser.stamp"), STAMP);
+        Assert.assertEquals(saved.getProperty("chrome.resolved.at"), String.valueOf(now.get()));
+    }
+
+    @Test
+    public void browserUpgradeMakesTheEntryStale() throws Exception {
+        writeManifest(STAMP, String.valueOf(now.get()));
+        stamp = "/opt/chrome|1200|1800000000000"; // same path, new binary
+        DriverBinaryResolver.resolve("chrome");
+        Assert.assertEquals(downloads.get(), 1);
+        Assert.assertEquals(readManifest().getProperty("chrome.browser.stamp"), stamp);
+    }
+
+    @Test
+    public void unparsableTimestampIsResolvedAgainInsteadOfFailing() throws Exception {
+        writeManifest(STAMP, "2024-05-01"); // hand-edited
+        DriverBinaryResolver.resolve("chrome");
+        Assert.assertEquals(downloads.get(), 1);
+        Assert.assertEquals(readManifest().getProperty("chrome.resolved.at"), String.valueOf(now.get()));
+    }
+
+    @Test
+    public void offlineFallsBackToAStaleEntry() throws Exception {
+        writeManifest("/opt/chrome|900|1600000000000", "0");
+        offline = true;
+        DriverBinaryResolver.resolve("chrome");
+        Assert.assertEquals(downloads.get(), 0, "offline never downloads");
+        Assert.assertEquals(System.getProperty("webdriver.chrome.driver"), cachedDriver.toString());
+    }
+
+    @Test
+    public void offlineWithoutAnEntryFails() {
+        offline = true;
+        RuntimeException e = Assert.expectThrows(RuntimeException.class, () -> DriverBinaryResolver.resolve("chrome"));
+        Assert.assertTrue(e.getMessage().contains(manifest.toString()), e.getMessage());
+    }
+
+    @Test
+    public void failedDownloadFallsBackToTheCachedDriver() throws Exception {
+        writeManifest(STAMP, "0");
+        downloadFails = true;
+        DriverBinaryResolver.resolve("chrome");
+        Assert.assertEquals(downloads.get(), 1);
+        Assert.assertEquals(System.getProperty("webdriver.chrome.driver"), cachedDriver.toString());
+    }
+
+    private Path executable(String name) throws Exception {
+        Path file = Files.createFile(dir.resolve(name));
+        Assert.assertTrue(file.toFile().setExecutable(true), "cannot mark " + file + " executable");
+        return file;
+    }
+
+    private void writeManifest(String browserStamp, String resolvedAt) throws Exception {
+        Properties props = new Properties();
+        props.setProperty("chrome.driver.path", cachedDriver.toString());
+        props.setProperty("chrome.driver.version", "125.0");
+        props.setProperty("chrome.browser.stamp", browserStamp);
+        props.setProperty("chrome.resolved.at", resolvedAt);
+        try (OutputStream out = Files.newOutputStream(manifest)) {
+            props.store(out, null);
+        }
+    }
+
+    private Properties readManifest() throws Exception {
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(manifest)) {
+            props.load(in);
+        }
+        return props;
+    }
+}
@@ -0,0 +1,25 @@
+package core.driver;
+
+import org.openqa.selenium.WebDriver;
+
+import java.util.function.Supplier;
+
+/**
+ * Access to core.driver's test hooks for tests in other packages.
+ */
+public final class DriverFixtures {
+
+    private DriverFixtures() {}
+
+    /** Makes DriverPool create sessions with the factory; returns the one it replaced. */
+    public static Supplier<WebDriver> usePoolFactory(Supplier<WebDriver> factory) {
+        Supplier<WebDriver> previous = DriverPool.factory;
+        DriverPool.factory = factory;
+        return previous;
+    }
+
+    /** Lets DriverPrefetcher prefetch again after a test shut it down. */
+    public static void reopenPrefetcher() {
+        DriverPrefetcher.reset();
+    }
+}
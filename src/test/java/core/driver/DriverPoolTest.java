@@ -0,0 +1,188 @@
+package core.driver;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoAlertPresentException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.chromium.HasCdp;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * DriverPool lease/return, recycling and reset against in-memory sessions.
+ */
+public class DriverPoolTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final List<FakeSession> created = new ArrayList<>();
+    private boolean cdp = true;
+    private Supplier<WebDriver> originalFactory;
+    private LongSupplier originalClock;
+
+    @BeforeMethod
+    public void fakeSessions() {
+        originalFactory = DriverPool.factory;
+        originalClock = DriverPool.clock;
+        DriverPool.factory = () -> {
+            FakeSession session = new FakeSession(cdp);
+            created.add(session);
+            return session.driver;
+        };
+        DriverPool.clock = now::get;
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void restore() {
+        DriverPool.shutdown();
+        DriverPool.factory = originalFactory;
+        DriverPool.clock = originalClock;
+        created.clear();
+        cdp = true;
+    }
+
+    @Test
+    public void returnedSessionIsResetAndReused() {
+        WebDriver first = DriverPool.lease();
+        FakeSession session = created.get(0);
+        session.visit("https://app.test/login", "https://sso.test/auth", "https://app.test/home");
+        session.windows.add("popup");
+
+        DriverPool.release(first);
+        Assert.assertSame(DriverPool.lease(), first, "the warm session is handed out again");
+        Assert.assertEquals(created.size(), 1);
+        Assert.assertEquals(session.windows.size(), 1, "old windows are replaced by one fresh tab");
+        Assert.assertFalse(session.windows.contains("main"));
+        Assert.assertTrue(session.cdpCommands.contains("Network.clearBrowserCookies"));
+        Assert.assertEquals(session.clearedOrigins, Set.of("https://app.test", "https://sso.test"),
+                "storage is cleared for every origin the test visited, not just the last one");
+    }
+
+    @Test
+    public void nonChromiumSessionsAreQuitOnReturn() {
+        cdp = false;
+        WebDriver driver = DriverPool.lease();
+        DriverPool.release(driver);
+        Assert.assertTrue(created.get(0).quit);
+        Assert.assertEquals(DriverPool.idleCount(), 0);
+        Assert.assertNotSame(DriverPool.lease(), driver);
+    }
+
+    @Test
+    public void expiredAndUnhealthySessionsAreReplaced() {
+        WebDriver first = DriverPool.lease();
+        DriverPool.release(first);
+        now.addAndGet(301_000); // past driver.pool.idle.timeout.seconds=300
+        WebDriver second = DriverPool.lease();
+        Assert.assertNotSame(second, first);
+        Assert.assertTrue(created.get(0).quit, "expired session is quit");
+
+        DriverPool.release(second);
+        created.get(1).healthy = false;
+        Assert.assertNotSame(DriverPool.lease(), second);
+        Assert.assertTrue(created.get(1).quit, "unhealthy session is quit");
+    }
+
+    @Test
+    public void sessionIsRecycledAfterMaxUses() {
+        WebDriver first = DriverPool.lease();
+        for (int i = 1; i < 50; i++) { // driver.pool.max.uses=50
+            DriverPool.release(first);
+            Assert.assertSame(DriverPool.lease(), first);
+        }
+        DriverPool.release(first);
+        Assert.assertTrue(created.get(0).quit);
+        Assert.assertNotSame(DriverPool.lease(), first);
+    }
+
+    @Test
+    public void shutdownQuitsLeasedSessionsAndFreesTheirSlots() {
+        DriverPool.lease();
+        DriverPool.lease();
+        DriverPool.shutdown();
+        Assert.assertTrue(created.get(0).quit);
+        Assert.assertTrue(created.get(1).quit);
+        Assert.assertEquals(DriverPool.leasedCount(), 0);
+        for (int i = 0; i < 4; i++) { // driver.pool.size=4: every permit is available again
+            DriverPool.lease();
+        }
+        Assert.assertEquals(DriverPool.leasedCount(), 4);
+    }
+
+    /** Windows with per-tab history, plus the DevTools commands the pool sends. */
+    private static final class FakeSession {
+        private final WebDriver driver;
+        private final Set<String> windows = new LinkedHashSet<>(List.of("main"));
+        private final Map<String, List<String>> history = new HashMap<>();
+        private final List<String> cdpCommands = new ArrayList<>();
+        private final Set<String> clearedOrigins = new LinkedHashSet<>();
+        private String current = "main";
+        private int tabs;
+        private boolean healthy = true;
+        private boolean quit;
+
+        FakeSession(boolean cdp) {
+            Class<?>[] interfaces = cdp
+                    ? new Class<?>[]{WebDriver.class, JavascriptExecutor.class, HasCdp.class}
+                    : new Class<?>[]{WebDriver.class, JavascriptExecutor.class};
+            WebDriver.TargetLocator locator = (WebDriver.TargetLocator) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class<?>[]{WebDriver.TargetLocator.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "alert": throw new NoAlertPresentException();
+                            case "window": current = (String) args[0]; return driver();
+                            case "newWindow":
+                                current = "tab-" + (++tabs);
+                                windows.add(current);
+                                return driver();
+                            default: return driver();
+                        }
+                    });
+            driver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(), interfaces, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getWindowHandle":
+                        if (!healthy) throw new WebDriverException("session gone");
+                        return current;
+                    case "getWindowHandles": return new LinkedHashSet<>(windows);
+                    case "switchTo": return locator;
+                    case "close": windows.remove(current); return null;
+                    case "quit": quit = true; return null;
+                    case "executeCdpCommand":
+                        String command = (String) args[0];
+                        cdpCommands.add(command);
+                        if ("Page.getNavigationHistory".equals(command)) {
+                            List<Map<String, Object>> entries = new ArrayList<>();
+                            for (String url : history.getOrDefault(current, List.of())) entries.add(Map.of("url", url));
+                            return Map.of("currentIndex", entries.size() - 1, "entries", entries);
+                        }
+                        if ("Storage.clearDataForOrigin".equals(command)) {
+                            clearedOrigins.add((String) ((Map<?, ?>) args[1]).get("origin"));
+                        }
+                        return Map.of();
+                    case "hashCode": return System.identityHashCode(proxy);
+                    case "equals": return proxy == args[0];
+                    default: return null;
+                }
+            });
+        }
+
+        private WebDriver driver() {
+            return driver;
+        }
+
+        void visit(String... urls) {
+            history.computeIfAbsent(current, k -> new ArrayList<>()).addAll(List.of(urls));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package core.driver;
+
+import core.execution.TestContext;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * DriverPrefetcher hand-out, profile capture and terminal shutdown against in-memory sessions.
+ * Shutdown is final until reset(), so that test runs last and the class resets it for later tests.
+ */
+public class DriverPrefetcherTest {
+
+    private final List<WebDriver> created = new CopyOnWriteArrayList<>();
+    private final Map<WebDriver, NetworkProfile> profiles = new ConcurrentHashMap<>();
+    private final Set<WebDriver> quit = ConcurrentHashMap.newKeySet();
+    private Function<NetworkProfile, WebDriver> originalFactory;
+
+    @BeforeClass
+    public void fakeSessions() {
+        originalFactory = DriverPrefetcher.factory;
+        DriverPrefetcher.factory = profile -> {
+            WebDriver driver = fakeDriver();
+            if (profile != null) profiles.put(driver, profile);
+            created.add(driver);
+            return driver;
+        };
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void clearProfile() {
+        TestContext.get().setNetworkProfile(null);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void restore() {
+        DriverPrefetcher.shutdown(); // quits anything the reset test prefetched
+        DriverPrefetcher.reset();
+        DriverPrefetcher.factory = originalFactory;
+    }
+
+    @Test
+    public void nextSessionIsStartedWithTheRequestingTestsProfile() {
+        TestContext.get().setNetworkProfile("lean");
+        WebDriver first = DriverPrefetcher.take();
+        Assert.assertEquals(profiles.get(first).getName(), "lean");
+
+        WebDriver second = DriverPrefetcher.take();
+        Assert.assertNotSame(second, first);
+        Assert.assertEquals(created.indexOf(second), 1, "the second test collects the session prefetched for it");
+        Assert.assertEquals(profiles.get(second).getName(), "lean", "created off-thread with the requesting test's profile");
+    }
+
+    @Test(dependsOnMethods = "nextSessionIsStartedWithTheRequestingTestsProfile")
+    public void sessionWithOtherPageLoadStrategyIsReplaced() throws InterruptedException {
+        TestContext.get().setNetworkProfile("none");
+        WebDriver prefetched = awaitCreated(3); // started eager for the previous test
+        WebDriver driver = DriverPrefetcher.take();
+        Assert.assertNotSame(driver, prefetched);
+        Assert.assertNull(profiles.get(driver));
+        Assert.assertTrue(quit.contains(prefetched), "the mismatched session is quit");
+    }
+
+    @Test(dependsOnMethods = "sessionWithOtherPageLoadStrategyIsReplaced")
+    public void shutdownIsTerminal() throws InterruptedException {
+        WebDriver prefetched = awaitCreated(5);
+        DriverPrefetcher.shutdown();
+        Assert.assertTrue(quit.contains(prefetched), "the unclaimed session is quit");
+
+        int before = created.size();
+        WebDriver driver = DriverPrefetcher.take();
+        Assert.assertNotSame(driver, prefetched, "a session claimed by shutdown is never handed out");
+        Assert.assertEquals(created.size(), before + 1, "later tests create inline and nothing is prefetched");
+        DriverPrefetcher.take();
+        Assert.assertEquals(created.size(), before + 2);
+    }
+
+    @Test(dependsOnMethods = "shutdownIsTerminal")
+    public void resetReopensPrefetchingForLaterTests() throws InterruptedException {
+        DriverPrefetcher.reset();
+        int before = created.size();
+        WebDriver driver = DriverPrefetcher.take();
+        Assert.assertSame(driver, created.get(before), "created inline");
+        WebDriver prefetched = awaitCreated(before + 2);
+        Assert.assertSame(DriverPrefetcher.take(), prefetched, "and the next one is prefetched again");
+    }
+
+    // background starts land in created asynchronously; returns the n-th session once it exists
+    private WebDriver awaitCreated(int n) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (created.size() < n && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(created.size(), n);
+        return created.get(n - 1);
+    }
+
+    private WebDriver fakeDriver() {
+        return (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{WebDriver.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "quit": quit.add((WebDriver) proxy); return null;
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals": return proxy == args[0];
+                        default: return null;
+                    }
+                });
+    }
+}
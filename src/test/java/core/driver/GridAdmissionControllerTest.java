@@ -0,0 +1,158 @@
+package core.driver;
+
+import com.sun.net.httpserver.HttpServer;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * GridAdmissionController against a stub hub serving a scripted /status.
+ */
+public class GridAdmissionControllerTest {
+
+    private HttpServer hub;
+    private final AtomicReference<String> status = new AtomicReference<>();
+    private final AtomicInteger code = new AtomicInteger(200);
+    private final AtomicInteger polls = new AtomicInteger();
+
+    @BeforeClass
+    public void startHub() throws Exception {
+        hub = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        hub.createContext("/status", exchange -> {
+            polls.incrementAndGet();
+            byte[] body = status.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(code.get(), body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        hub.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopHub() {
+        if (hub != null) hub.stop(0);
+    }
+
+    @Test
+    public void admitsWhenASlotIsFree() {
+        serve(1, 1);
+        GridAdmissionController.Admission admission = controller(Duration.ofSeconds(2)).admit();
+        admission.started();
+        Assert.assertTrue(admission.waitedMs() < 1000, "waited " + admission.waitedMs() + " ms");
+    }
+
+    @Test
+    public void grid3HubWithoutSlotsIsAdmittedWhenReady() {
+        status.set("{\"value\":{\"ready\":true,\"message\":\"Hub has capacity\"}}");
+        code.set(200);
+        controller(Duration.ofSeconds(2)).admit().started();
+    }
+
+    @Test
+    public void queuedRequestsAreAdmittedInArrivalOrder() throws Exception {
+        serve(0, 1);
+        GridAdmissionController controller = controller(Duration.ofSeconds(10));
+        List<Integer> admitted = new CopyOnWriteArrayList<>();
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int id = i;
+            Thread t = new Thread(() -> {
+                GridAdmissionController.Admission admission = controller.admit();
+                serve(0, 1); // the hub now shows the new session in the slot
+                admission.started();
+                admitted.add(id);
+            });
+            t.start();
+            threads.add(t);
+            awaitQueued(controller, i + 1);
+        }
+        for (int i = 0; i < 3; i++) {
+            serve(1, 0); // one session ended
+            controller.sessionClosed();
+            awaitAdmitted(admitted, i + 1);
+        }
+        for (Thread t : threads) t.join(5000);
+        Assert.assertEquals(admitted, List.of(0, 1, 2));
+    }
+
+    @Test
+    public void waitIsBounded() {
+        serve(0, 2);
+        long start = System.nanoTime();
+        try {
+            controller(Duration.ofMillis(300)).admit();
+            Assert.fail("admitted without a free slot");
+        } catch (SessionNotCreatedException expected) {
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            Assert.assertTrue(elapsedMs >= 300 && elapsedMs < 3000, "gave up after " + elapsedMs + " ms");
+            Assert.assertTrue(expected.getMessage().contains("No free chrome slot"), expected.getMessage());
+        }
+    }
+
+    @Test
+    public void circuitOpensOnUnhealthyHubAndClosesAfterProbe() throws Exception {
+        serve(1, 0);
+        code.set(500);
+        GridAdmissionController controller = new GridAdmissionController(uri(), "chrome", Duration.ofSeconds(5), 2,
+                Duration.ofMillis(400), Duration.ofMillis(10), Duration.ofMillis(10), Duration.ofMillis(20));
+        Assert.expectThrows(SessionNotCreatedException.class, controller::admit);
+        Assert.assertEquals(controller.state(), GridAdmissionController.State.OPEN);
+
+        int before = polls.get();
+        long start = System.nanoTime();
+        Assert.expectThrows(SessionNotCreatedException.class, controller::admit);
+        Assert.assertTrue((System.nanoTime() - start) / 1_000_000 < 200, "open circuit should fail fast");
+        Assert.assertEquals(polls.get(), before, "open circuit should not poll the hub");
+
+        code.set(200);
+        Thread.sleep(450);
+        controller.admit().started();
+        Assert.assertEquals(controller.state(), GridAdmissionController.State.CLOSED);
+    }
+
+    private GridAdmissionController controller(Duration maxWait) {
+        return new GridAdmissionController(uri(), "chrome", maxWait, 3, Duration.ofSeconds(30),
+                Duration.ofMillis(10), Duration.ofMillis(10), Duration.ofMillis(50));
+    }
+
+    private URI uri() {
+        return URI.create("http://127.0.0.1:" + hub.getAddress().getPort() + "/status");
+    }
+
+    // a Grid 4 style status with one UP node holding free and busy chrome slots
+    private void serve(int free, int busy) {
+        StringBuilder slots = new StringBuilder();
+        for (int i = 0; i < free + busy; i++) {
+            if (i > 0) slots.append(',');
+            slots.append("{\"session\":").append(i < busy ? "{\"sessionId\":\"s" + i + "\"}" : "null")
+                    .append(",\"stereotype\":{\"browserName\":\"chrome\"}}");
+        }
+        status.set("{\"value\":{\"ready\":true,\"message\":\"Selenium Grid ready.\",\"nodes\":[{\"availability\":\"UP\",\"slots\":["
+                + slots + "]}]}}");
+        code.set(200);
+    }
+
+    private static void awaitQueued(GridAdmissionController controller, int n) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (controller.queued() < n && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        Assert.assertEquals(controller.queued(), n);
+    }
+
+    private static void awaitAdmitted(List<Integer> admitted, int n) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (admitted.size() < n && System.currentTimeMillis() < deadline) Thread.sleep(5);
+        Assert.assertEquals(admitted.size(), n);
+    }
+}
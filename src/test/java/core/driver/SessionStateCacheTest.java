@@ -0,0 +1,190 @@
+package core.driver;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * SessionStateCache against in-memory browsers (cookies, storage and visited URLs), so the
+ * login/restore protocol can be checked without a real session.
+ */
+public class SessionStateCacheTest {
+
+    private static final String APP = "http://app.test";
+
+    private final AtomicInteger logins = new AtomicInteger();
+
+    @AfterMethod(alwaysRun = true)
+    public void clearCache() {
+        SessionStateCache.clear();
+        logins.set(0);
+    }
+
+    @Test
+    public void parallelTestsShareOneLogin() throws Exception {
+        SessionStateCache.register("app1", Duration.ofMinutes(5), this::login);
+        List<FakeBrowser> browsers = new ArrayList<>();
+        List<Throwable> errors = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            FakeBrowser browser = new FakeBrowser();
+            browsers.add(browser);
+            Thread t = new Thread(() -> {
+                try {
+                    start.await();
+                    SessionStateCache.apply(browser.driver(), "app1");
+                } catch (Throwable e) {
+                    errors.add(e);
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        start.countDown();
+        for (Thread t : threads) t.join(10_000);
+
+        Assert.assertTrue(errors.isEmpty(), "errors: " + errors);
+        Assert.assertEquals(logins.get(), 1, "one UI login for all parallel sessions");
+        int restored = 0;
+        for (FakeBrowser browser : browsers) {
+            Assert.assertEquals(browser.cookies.iterator().next().getValue(), "session-1");
+            Assert.assertEquals(browser.local.get("token"), "token-1");
+            Assert.assertEquals(browser.session.get("tab"), "main");
+            if (browser.visited.equals(List.of(APP + "/"))) restored++;
+        }
+        Assert.assertEquals(restored, 7, "every other session restores instead of logging in");
+    }
+
+    @Test
+    public void expiredStateLogsInAgain() throws Exception {
+        SessionStateCache.register("app1", Duration.ofMillis(150), this::login);
+        SessionStateCache.apply(new FakeBrowser().driver(), "app1");
+        SessionStateCache.apply(new FakeBrowser().driver(), "app1");
+        Assert.assertEquals(logins.get(), 1);
+
+        Thread.sleep(250);
+        FakeBrowser afterExpiry = new FakeBrowser();
+        SessionStateCache.apply(afterExpiry.driver(), "app1");
+        Assert.assertEquals(logins.get(), 2, "expired state triggers a fresh login");
+        Assert.assertEquals(afterExpiry.local.get("token"), "token-2");
+    }
+
+    @Test
+    public void cookieExpiryShortensTheTtl() throws Exception {
+        SessionStateCache.register("app1", Duration.ofHours(1), (driver, credentials) -> {
+            login(driver, credentials);
+            // the cache treats cookies as expired 30 s early, so this one leaves ~200 ms
+            driver.manage().addCookie(new Cookie("short", "x", "/", new Date(System.currentTimeMillis() + 30_200)));
+        });
+        SessionStateCache.apply(new FakeBrowser().driver(), "app1");
+        Thread.sleep(400);
+        SessionStateCache.apply(new FakeBrowser().driver(), "app1");
+        Assert.assertEquals(logins.get(), 2);
+    }
+
+    @Test
+    public void failedLoginIsNotCached() {
+        AtomicInteger attempts = new AtomicInteger();
+        SessionStateCache.register("app1", Duration.ofMinutes(5), (driver, credentials) -> {
+            if (attempts.incrementAndGet() == 1) throw new IllegalStateException("login page did not load");
+            login(driver, credentials);
+        });
+        Assert.expectThrows(IllegalStateException.class, () -> SessionStateCache.apply(new FakeBrowser().driver(), "app1"));
+        SessionStateCache.apply(new FakeBrowser().driver(), "app1");
+        Assert.assertEquals(attempts.get(), 2);
+    }
+
+    @Test
+    public void unregisteredRoleFails() {
+        Assert.expectThrows(IllegalStateException.class, () -> SessionStateCache.apply(new FakeBrowser().driver(), "nobody"));
+    }
+
+    @Test
+    public void roleComesFromAnnotations() throws Exception {
+        Assert.assertEquals(SessionStateCache.roleFor(Annotated.class.getMethod("inherited")), "app1");
+        Assert.assertNull(SessionStateCache.roleFor(Annotated.class.getMethod("loggedOut")));
+        Assert.assertNull(SessionStateCache.roleFor(getClass().getMethod("roleComesFromAnnotations")));
+    }
+
+    // slow enough that parallel callers pile up behind the first login
+    private void login(WebDriver driver, Map<String, String> credentials) {
+        Assert.assertEquals(credentials.get("username"), "testuser");
+        int n = logins.incrementAndGet();
+        driver.get(APP + "/login");
+        try {
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        driver.get(APP + "/home");
+        driver.manage().addCookie(new Cookie("sid", "session-" + n));
+        ((JavascriptExecutor) driver).executeScript("load", Map.of("token", "token-" + n), Map.of("tab", "main"));
+    }
+
+    @LoggedInAs("app1")
+    public static class Annotated {
+        public void inherited() {}
+
+        @LoggedInAs("none")
+        public void loggedOut() {}
+    }
+
+    /** Just enough of a browser for the cache: navigation, cookies and storage. */
+    private static final class FakeBrowser {
+        private final List<String> visited = new ArrayList<>();
+        private final Set<Cookie> cookies = new HashSet<>();
+        private final Map<String, String> local = new LinkedHashMap<>();
+        private final Map<String, String> session = new LinkedHashMap<>();
+        private String url = "about:blank";
+
+        WebDriver driver() {
+            WebDriver.Options options = (WebDriver.Options) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{WebDriver.Options.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "getCookies": return new HashSet<>(cookies);
+                            case "addCookie": cookies.add((Cookie) args[0]); return null;
+                            default: throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+            return (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{WebDriver.class, JavascriptExecutor.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "get": url = (String) args[0]; visited.add(url); return null;
+                            case "getCurrentUrl": return url;
+                            case "manage": return options;
+                            case "executeScript":
+                                Object[] scriptArgs = (Object[]) args[1];
+                                if (scriptArgs.length == 0) {
+                                    return List.of(new LinkedHashMap<>(local), new LinkedHashMap<>(session));
+                                }
+                                local.putAll(strings(scriptArgs[0]));
+                                session.putAll(strings(scriptArgs[1]));
+                                return null;
+                            default: throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Map<String, String> strings(Object map) {
+            return (Map<String, String>) map;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package core.execution;
+
+import core.driver.DriverFixtures;
+import core.driver.DriverPool;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * What an abort does to warm and running sessions. An abort skips every test that starts while it
+ * is set, so this class runs in its own &lt;test&gt;, after the others.
+ */
+public class FailFastAbortTest {
+
+    private final Set<WebDriver> quit = ConcurrentHashMap.newKeySet();
+    private Supplier<WebDriver> originalFactory;
+
+    @BeforeMethod
+    public void fakeSessions() {
+        FailFast.reset();
+        originalFactory = DriverFixtures.usePoolFactory(this::fakeChromium);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void restore() {
+        FailFast.reset();
+        DriverPool.shutdown();
+        DriverFixtures.usePoolFactory(originalFactory);
+        DriverFixtures.reopenPrefetcher();
+    }
+
+    @Test
+    public void runningTestsKeepTheirSessionUntilTheyReleaseIt() {
+        WebDriver running = DriverPool.lease();
+        WebDriver warm = DriverPool.lease();
+        DriverPool.release(warm);
+        Assert.assertEquals(DriverPool.idleCount(), 1);
+
+        FailFast.abort("1 failures (test)");
+        Assert.assertTrue(FailFast.isAborted());
+        Assert.assertTrue(quit.contains(warm), "idle sessions are quit at once");
+        Assert.assertFalse(quit.contains(running), "the running test's browser stays up");
+        Assert.expectThrows(IllegalStateException.class, DriverPool::lease);
+
+        DriverPool.release(running);
+        Assert.assertTrue(quit.contains(running), "and is quit when the test returns it");
+        Assert.assertEquals(DriverPool.idleCount(), 0);
+        Assert.assertEquals(DriverPool.leasedCount(), 0);
+    }
+
+    // just enough DevTools for the pool to reset and reuse the session
+    private WebDriver fakeChromium() {
+        Object[] self = new Object[1];
+        WebDriver.TargetLocator locator = (WebDriver.TargetLocator) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebDriver.TargetLocator.class}, (proxy, method, args) -> self[0]);
+        WebDriver driver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebDriver.class, HasCdp.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getWindowHandle": return "main";
+                        case "getWindowHandles": return Set.of("main");
+                        case "switchTo": return locator;
+                        case "executeCdpCommand": return Map.of();
+                        case "quit": quit.add((WebDriver) proxy); return null;
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals": return proxy == args[0];
+                        default: return null;
+                    }
+                });
+        self[0] = driver;
+        return driver;
+    }
+}
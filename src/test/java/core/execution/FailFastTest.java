@@ -0,0 +1,32 @@
+package core.execution;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * FailFast limits, checked without aborting the suite that runs them.
+ */
+public class FailFastTest {
+
+    @Test
+    public void failureCountLimit() {
+        Assert.assertNull(FailFast.limitReached(2, 5, 3, 0, 10));
+        Assert.assertEquals(FailFast.limitReached(3, 5, 3, 0, 10), "3 failures (failfast.max.failures=3)");
+        Assert.assertNotNull(FailFast.limitReached(4, 4, 3, 0, 10), "past the limit still stops");
+    }
+
+    @Test
+    public void failureRateWaitsForMinimumTests() {
+        Assert.assertNull(FailFast.limitReached(5, 9, 0, 50, 10), "9 results are too few to judge a rate");
+        Assert.assertEquals(FailFast.limitReached(5, 10, 0, 50, 10), "5 of 10 tests failed (failfast.max.rate=50%)");
+        Assert.assertNull(FailFast.limitReached(4, 10, 0, 50, 10), "40% is below the limit");
+        Assert.assertNotNull(FailFast.limitReached(1, 3, 0, 30, 0), "34% with no minimum");
+    }
+
+    @Test
+    public void zeroDisablesALimit() {
+        Assert.assertNull(FailFast.limitReached(100, 100, 0, 0, 0));
+        Assert.assertEquals(FailFast.limitReached(2, 2, 2, 100, 1), "2 failures (failfast.max.failures=2)",
+                "the count is checked first");
+    }
+}
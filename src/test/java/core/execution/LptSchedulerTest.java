@@ -0,0 +1,44 @@
+package core.execution;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * LPT makespan prediction and the duration history it is computed from.
+ */
+public class LptSchedulerTest {
+
+    @AfterClass(alwaysRun = true)
+    public void restore() {
+        DurationHistory.useFile(null);
+    }
+
+    @Test
+    public void makespanPacksLongestFirstOntoTheLeastLoadedThread() {
+        // 7 | 5 | 4 -> 4 joins the 4, 3 joins the 5, then 3s join 7 and 8: loads 10, 11, 8
+        Assert.assertEquals(LptScheduler.makespan(List.of(3.0, 7.0, 4.0, 3.0, 5.0, 4.0, 3.0), 3), 11);
+        Assert.assertEquals(LptScheduler.makespan(List.of(3.0, 7.0, 4.0, 3.0, 5.0, 4.0, 3.0), 1), 29);
+        Assert.assertEquals(LptScheduler.makespan(List.of(2.0, 9.0), 8), 9, "more threads than units");
+        Assert.assertEquals(LptScheduler.makespan(List.of(2.0, 9.0), 0), 11, "no threads counts as one");
+        Assert.assertEquals(LptScheduler.makespan(List.of(), 4), 0);
+    }
+
+    @Test
+    public void estimatesComeFromHistoryWithTheMedianForUnknownMethods() throws Exception {
+        Path file = Files.createTempDirectory(Paths.get("target"), "history").resolve("durations.properties");
+        Files.writeString(file, "a.T.slow=9000\na.T.mid=4000\na.T.fast=1000\na.T.broken=n/a\n", StandardCharsets.UTF_8);
+        DurationHistory.useFile(file);
+
+        Assert.assertEquals(DurationHistory.lookup("a.T.slow"), 9000.0);
+        Assert.assertEquals(DurationHistory.lookup("a.T.new"), -1.0);
+        Assert.assertEquals(DurationHistory.estimate("a.T.new"), 4000.0, "median of the known methods");
+        Assert.assertEquals(DurationHistory.defaultEstimate(), 4000.0);
+    }
+}
@@ -0,0 +1,73 @@
+package core.execution;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The shard plan every process computes on its own: it must come out the same everywhere.
+ */
+public class ShardSelectorTest {
+
+    // one duration history, with ties so the name order matters
+    private static final Map<String, Double> HISTORY = Map.of(
+            "s::t::a.Login#ok", 9000.0, "s::t::a.Login#locked", 4000.0, "s::t::a.Cart#add", 4000.0,
+            "s::t::a.Cart#remove", 4000.0, "s::t::a.Search#*", 7000.0, "s::t::a.Profile#edit", 2500.0,
+            "s::t::a.Profile#avatar", 1000.0, "s::t::a.Checkout#pay", 6000.0, "s::t::a.Checkout#refund", 1000.0);
+
+    @Test
+    public void everyShardComputesTheSameDisjointCompletePartition() {
+        for (int shards = 1; shards <= 4; shards++) {
+            // two processes reading the same history, iterating it in different orders
+            List<String> names = new ArrayList<>(HISTORY.keySet());
+            Collections.sort(names);
+            Map<String, Double> first = new LinkedHashMap<>();
+            for (String name : names) first.put(name, HISTORY.get(name));
+            Collections.reverse(names);
+            Map<String, Double> second = new LinkedHashMap<>();
+            for (String name : names) second.put(name, HISTORY.get(name));
+
+            Map<String, Integer> a = ShardSelector.pack(first, shards);
+            Map<String, Integer> b = ShardSelector.pack(second, shards);
+            Assert.assertEquals(b, a, shards + " shards");
+
+            Set<String> seen = new HashSet<>();
+            for (int index = 0; index < shards; index++) {
+                for (Map.Entry<String, Integer> e : a.entrySet()) {
+                    if (e.getValue() == index) Assert.assertTrue(seen.add(e.getKey()), e.getKey() + " is on two shards");
+                }
+            }
+            Assert.assertEquals(seen, HISTORY.keySet(), "every unit is on exactly one shard");
+        }
+    }
+
+    @Test
+    public void longestUnitsAreSpreadFirst() {
+        Map<String, Integer> packed = ShardSelector.pack(HISTORY, 3);
+        // 9 | 7 | 6, then 4 (Cart#add) -> 6, 4 (Cart#remove) -> 7, 4 (Login#locked) -> 9, ...
+        Assert.assertEquals(packed.get("s::t::a.Login#ok"), 0);
+        Assert.assertEquals(packed.get("s::t::a.Search#*"), 1);
+        Assert.assertEquals(packed.get("s::t::a.Checkout#pay"), 2);
+        Assert.assertEquals(packed.get("s::t::a.Cart#add"), 2, "ties go in name order");
+        Assert.assertEquals(packed.get("s::t::a.Cart#remove"), 1);
+        Assert.assertEquals(packed.get("s::t::a.Login#locked"), 0);
+
+        double[] loads = new double[3];
+        packed.forEach((unit, shard) -> loads[shard] += HISTORY.get(unit));
+        Assert.assertEquals(loads, new double[]{13000.0, 13000.0, 12500.0});
+    }
+
+    @Test
+    public void moreShardsThanUnitsLeavesSomeEmpty() {
+        Map<String, Integer> packed = ShardSelector.pack(Map.of("s::t::x", 5.0, "s::t::y", 5.0), 4);
+        Assert.assertEquals(packed, Map.of("s::t::x", 0, "s::t::y", 1));
+        Assert.assertTrue(ShardSelector.pack(Map.of(), 3).isEmpty());
+    }
+}
@@ -0,0 +1,82 @@
+package core.execution;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The worker executor TestNG gets from VirtualThreadExecutorFactory, on Java 21+ and on older runtimes.
+ */
+public class VirtualThreadExecutorFactoryTest {
+
+    private final VirtualThreadExecutorFactory factory = new VirtualThreadExecutorFactory();
+
+    @AfterMethod(alwaysRun = true)
+    public void reset() {
+        VirtualThreadExecutorFactory.active = false; // or driver prefetching stays off for the rest of the suite
+    }
+
+    @Test
+    public void eachTaskGetsItsOwnVirtualThreadWithinThreadCount() throws Exception {
+        if (Runtime.version().feature() < 21) throw new SkipException("virtual threads need Java 21+");
+        ExecutorService executor = create(2);
+        Assert.assertFalse(executor instanceof ThreadPoolExecutor, "no pool sized by thread-count");
+        Assert.assertTrue(VirtualThreadExecutorFactory.isActive());
+
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        List<Future<?>> tasks = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tasks.add(executor.submit(() -> {
+                threads.add(Thread.currentThread());
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> task : tasks) task.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Assert.assertEquals(threads.size(), 8, "one thread per task");
+        for (Thread t : threads) {
+            Assert.assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(t), t + " is virtual");
+        }
+        Assert.assertEquals(peak.get(), 2, "never more than thread-count tasks at once");
+    }
+
+    @Test
+    public void olderRuntimesKeepTestNGsPool() throws Exception {
+        if (Runtime.version().feature() >= 21) throw new SkipException("only without virtual threads");
+        ExecutorService executor = create(3);
+        Assert.assertTrue(executor instanceof ThreadPoolExecutor);
+        Assert.assertEquals(((ThreadPoolExecutor) executor).getMaximumPoolSize(), 3);
+        Assert.assertFalse(VirtualThreadExecutorFactory.isActive());
+        Assert.assertEquals(executor.submit(() -> Thread.currentThread().getName()).get(10, TimeUnit.SECONDS), "platform-worker");
+        executor.shutdown();
+    }
+
+    private ExecutorService create(int threads) {
+        return factory.create(threads, threads, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                r -> new Thread(r, "platform-worker"));
+    }
+}
@@ -0,0 +1,138 @@
+package core.healing;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * HealedLocatorStore persistence, counts, confidence decay and expiry against a temporary store file.
+ */
+public class HealedLocatorStoreTest {
+
+    private static final By BROKEN = By.id("login-old");
+    private static final By HEALED = By.id("login");
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.DAYS.toMillis(1000));
+    private final WebDriver driver = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+            new Class<?>[]{WebDriver.class}, (proxy, method, args) ->
+                    "getCurrentUrl".equals(method.getName()) ? "https://app.test/orders/1234?tab=2" : null);
+    private Path store;
+    private Supplier<Path> originalPath;
+    private Supplier<Path> originalReport;
+    private LongSupplier originalClock;
+
+    @BeforeMethod
+    public void tempStore() throws Exception {
+        Path dir = Files.createTempDirectory(Paths.get("target"), "heals");
+        store = dir.resolve("healed-locators.properties");
+        originalPath = HealedLocatorStore.storePath;
+        originalReport = HealedLocatorStore.reportPath;
+        originalClock = HealedLocatorStore.clock;
+        HealedLocatorStore.storePath = () -> store;
+        HealedLocatorStore.reportPath = () -> dir.resolve("healing-report.json");
+        HealedLocatorStore.clock = now::get;
+        HealedLocatorStore.reload();
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void restore() {
+        HealedLocatorStore.storePath = originalPath;
+        HealedLocatorStore.reportPath = originalReport;
+        HealedLocatorStore.clock = originalClock;
+        HealedLocatorStore.reload();
+    }
+
+    @Test
+    public void healsAndHitsSurviveARestart() {
+        HealedLocatorStore.remember(driver, BROKEN, HEALED);
+        HealedLocatorStore.recordHit(BROKEN, HEALED);
+        HealedLocatorStore.recordHit(BROKEN, HEALED);
+        HealedLocatorStore.export();
+
+        HealedLocatorStore.reload();
+        Assert.assertEquals(HealedLocatorStore.lookup(driver, BROKEN), HEALED);
+        String report = read(store.resolveSibling("healing-report.json"));
+        Assert.assertTrue(report.contains("\"healed\" : \"By.id: login\"") && report.contains("\"hitsThisRun\" : 2"), report);
+        Assert.assertTrue(read().contains("orders/*|By.id\\:\\ login-old=2 1 " + now.get() + " id\\:login"), read());
+    }
+
+    @Test
+    public void positionalHealsAreNotRemembered() {
+        HealedLocatorStore.remember(driver, BROKEN, By.xpath("(//*)[42]"));
+        Assert.assertNull(HealedLocatorStore.lookup(driver, BROKEN));
+    }
+
+    @Test
+    public void confidenceDecaysWhileUnusedAndGrowsWithUse() throws Exception {
+        By brokenCart = By.id("cart-old");
+        By cart = By.id("cart");
+        HealedLocatorStore.remember(driver, BROKEN, HEALED); // 1 use: confidence 0.5
+        HealedLocatorStore.remember(driver, brokenCart, cart);
+        for (int i = 0; i < 9; i++) {
+            HealedLocatorStore.recordHit(brokenCart, cart); // 10 uses: confidence 0.91
+        }
+        HealedLocatorStore.export();
+
+        // healing.store.half.life.days=10, healing.store.min.confidence=10
+        now.addAndGet(TimeUnit.DAYS.toMillis(22)); // 0.5 -> 0.109, 0.91 -> 0.198
+        HealedLocatorStore.reload();
+        Assert.assertEquals(HealedLocatorStore.lookup(driver, BROKEN), HEALED);
+        Assert.assertEquals(HealedLocatorStore.lookup(driver, brokenCart), cart);
+
+        now.addAndGet(TimeUnit.DAYS.toMillis(2)); // 0.5 -> 0.095, 0.91 -> 0.172
+        HealedLocatorStore.reload();
+        Assert.assertNull(HealedLocatorStore.lookup(driver, BROKEN), "a single old heal is no longer trusted");
+        Assert.assertEquals(HealedLocatorStore.lookup(driver, brokenCart), cart);
+        HealedLocatorStore.export();
+        Assert.assertTrue(read(store.resolveSibling("healing-report.json")).contains("\"confidence\" : 0.17"));
+
+        now.addAndGet(TimeUnit.DAYS.toMillis(7)); // 31 days idle, past healing.store.expiry.days=30
+        HealedLocatorStore.reload();
+        Assert.assertNull(HealedLocatorStore.lookup(driver, brokenCart), "expiry caps even well-used heals");
+    }
+
+    @Test
+    public void useResetsTheDecay() throws Exception {
+        HealedLocatorStore.remember(driver, BROKEN, HEALED);
+        now.addAndGet(TimeUnit.DAYS.toMillis(20));
+        HealedLocatorStore.recordHit(BROKEN, HEALED); // use keeps it alive
+        HealedLocatorStore.export();
+
+        now.addAndGet(TimeUnit.DAYS.toMillis(20)); // 2 uses, 20 days idle: 0.667 -> 0.167
+        HealedLocatorStore.reload();
+        Assert.assertEquals(HealedLocatorStore.lookup(driver, BROKEN), HEALED);
+    }
+
+    @Test
+    public void olderStoresAndStoredPositionalHealsLoad() throws Exception {
+        Files.writeString(store, "https\\://app.test/orders/*|By.id\\:\\ login-old=id\\:login\n"
+                + "https\\://app.test/orders/*|By.id\\:\\ cart=xpath\\:(//*)[7]\n", StandardCharsets.ISO_8859_1);
+        Assert.assertEquals(HealedLocatorStore.lookup(driver, BROKEN), HEALED);
+        Assert.assertNull(HealedLocatorStore.lookup(driver, By.id("cart")), "a stored positional heal is dropped");
+    }
+
+    private String read() {
+        return read(store);
+    }
+
+    private static String read(Path file) {
+        try {
+            return Files.readString(file, StandardCharsets.ISO_8859_1);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
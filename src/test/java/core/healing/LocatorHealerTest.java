@@ -0,0 +1,84 @@
+package core.healing;
+
+import org.openqa.selenium.By;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * LocatorHealer scoring against an in-memory page snapshot.
+ */
+public class LocatorHealerTest {
+
+    //                                      0            1           2           3              4             5
+    private static final DomSnapshot PAGE = new DomSnapshot(
+            new String[]{"form",       "input",    "input",    "button",      "button",     "a"},
+            new String[]{"login-form", "username", "password", "login-btn",   "cancel-btn", ""},
+            new String[]{"",           "user",     "pass",     "",            "",           ""},
+            new String[]{"form",       "field",    "field",    "btn primary", "btn",        ""},
+            new String[]{"",           "",         "",         "Sign in",     "Cancel",     "Sign in help"},
+            new int[]{0, 10, 10, 10, 120, 10},
+            new int[]{0, 10, 50, 90, 90, 140},
+            new int[]{400, 200, 200, 100, 100, 80},
+            new int[]{200, 30, 30, 30, 30, 20});
+
+    @Test
+    public void similarityIsDiceOverCaseInsensitiveBigrams() {
+        Assert.assertEquals(LocatorHealer.similarity("Submit", "submit"), 1.0);
+        Assert.assertEquals(LocatorHealer.similarity("night", "nacht"), 0.25); // only "ht" is shared
+        Assert.assertEquals(LocatorHealer.similarity("login-button", "login-btn"), 12.0 / 19, 1e-9);
+        Assert.assertEquals(LocatorHealer.similarity("abc", "xyz"), 0.0);
+        Assert.assertEquals(LocatorHealer.similarity("", "abc"), 0.0);
+        Assert.assertEquals(LocatorHealer.similarity("a", "b"), 0.0, "one character has no bigram");
+        String prefix = "x".repeat(64);
+        Assert.assertEquals(LocatorHealer.similarity(prefix + "tail", prefix + "other end"), 1.0,
+                "only the first 64 characters are compared");
+    }
+
+    @Test
+    public void bestMatchWeighsEveryKnownAttribute() {
+        ElementFingerprint renamed = new ElementFingerprint("button", "login-button", "", "btn primary", "Sign in", -1, -1);
+        Assert.assertEquals(LocatorHealer.bestMatch(renamed, PAGE, 0.5), 3);
+
+        ElementFingerprint link = new ElementFingerprint("a", "", "", "", "Sign in help", -1, -1);
+        Assert.assertEquals(LocatorHealer.bestMatch(link, PAGE, 0.5), 5, "text and tag beat the button's shorter text");
+
+        ElementFingerprint user = ElementFingerprint.fromLocator(By.name("usr"));
+        Assert.assertEquals(LocatorHealer.bestMatch(user, PAGE, 0.3), 1);
+    }
+
+    @Test
+    public void positionBreaksTiesBetweenLookalikes() {
+        DomSnapshot twins = new DomSnapshot(new String[]{"button", "button"}, new String[]{"", ""},
+                new String[]{"", ""}, new String[]{"btn", "btn"}, new String[]{"Delete", "Delete"},
+                new int[]{10, 300}, new int[]{400, 400}, new int[]{80, 80}, new int[]{30, 30});
+        Assert.assertEquals(LocatorHealer.bestMatch(new ElementFingerprint("button", "", "", "btn", "Delete", 290, 410), twins, 0.5), 1);
+        Assert.assertEquals(LocatorHealer.bestMatch(new ElementFingerprint("button", "", "", "btn", "Delete", 5, 395), twins, 0.5), 0);
+    }
+
+    @Test
+    public void nothingBelowTheMinimumScore() {
+        Assert.assertEquals(LocatorHealer.bestMatch(new ElementFingerprint("", "zzz-qqq", "", "", "", -1, -1), PAGE, 0.5), -1);
+        Assert.assertEquals(LocatorHealer.bestMatch(new ElementFingerprint("", "", "", "", "", -1, -1), PAGE, 0.0), -1,
+                "an empty fingerprint matches nothing");
+    }
+
+    @Test
+    public void healedLocatorPrefersUniqueIdThenNameThenPosition() {
+        Assert.assertEquals(LocatorHealer.heal(By.id("login-button"), PAGE), By.id("login-btn"));
+        Assert.assertEquals(LocatorHealer.heal(By.id("nothing-like-it"), PAGE), By.id("nothing-like-it"), "unhealed");
+
+        DomSnapshot duplicateIds = new DomSnapshot(new String[]{"input", "input"}, new String[]{"email", "email"},
+                new String[]{"email", "email-confirm"}, new String[]{"", ""}, new String[]{"", ""},
+                new int[]{0, 0}, new int[]{0, 40}, new int[]{100, 100}, new int[]{20, 20});
+        Assert.assertEquals(LocatorHealer.heal(By.name("email-confirmation"), duplicateIds), By.name("email-confirm"));
+        Assert.assertEquals(LocatorHealer.heal(By.cssSelector("input#email"), duplicateIds), By.name("email"),
+                "the id is not unique, the name is");
+
+        DomSnapshot lookalikes = new DomSnapshot(new String[]{"input", "input"}, new String[]{"email", "email"},
+                new String[]{"email", "email"}, new String[]{"", ""}, new String[]{"", ""},
+                new int[]{0, 0}, new int[]{0, 40}, new int[]{100, 100}, new int[]{20, 20});
+        By positional = LocatorHealer.heal(By.cssSelector("input#email"), lookalikes);
+        Assert.assertEquals(positional, By.xpath("(//*)[1]"));
+        Assert.assertTrue(LocatorHealer.isPositional(positional));
+    }
+}
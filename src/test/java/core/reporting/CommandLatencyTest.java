@@ -0,0 +1,25 @@
+package core.reporting;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * CommandLatency recorders when every task runs on a new thread.
+ */
+public class CommandLatencyTest {
+
+    @Test
+    public void releasedRecordersAreReusedByLaterThreads() throws Exception {
+        int before = CommandLatency.recorderCount();
+        for (int i = 0; i < 20; i++) {
+            Thread task = new Thread(() -> {
+                CommandLatency.startTest(); // binds a recorder without adding samples to the suite's report
+                CommandLatency.releaseThread();
+            });
+            task.start();
+            task.join();
+        }
+        Assert.assertTrue(CommandLatency.recorderCount() - before <= 1,
+                "20 short-lived threads share one recorder, got " + (CommandLatency.recorderCount() - before));
+    }
+}
@@ -0,0 +1,109 @@
+package core.reporting;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * LatencyHistogram bucketing: exact below 64 us, within about 3% above, and bounded memory for
+ * absurd values.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram h = new LatencyHistogram();
+        Assert.assertEquals(h.count(), 0);
+        Assert.assertEquals(h.max(), 0);
+        Assert.assertEquals(h.percentile(50), 0);
+        Assert.assertEquals(h.percentile(99), 0);
+    }
+
+    @Test
+    public void smallValuesAreExact() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int us = 0; us < 64; us++) {
+            h.record(us);
+        }
+        Assert.assertEquals(h.count(), 64);
+        Assert.assertEquals(h.percentile(50), 31);
+        Assert.assertEquals(h.percentile(100), 63);
+        Assert.assertEquals(h.percentile(0), 0, "p0 is the smallest sample");
+    }
+
+    @Test
+    public void negativeValuesCountAsZero() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(-5);
+        Assert.assertEquals(h.count(), 1);
+        Assert.assertEquals(h.percentile(50), 0);
+    }
+
+    @Test
+    public void largeValuesStayWithinThreePercent() {
+        long[] samples = {64, 65, 100, 1_000, 1_234, 65_535, 250_000, 1_000_000, 3_700_000_000L};
+        for (long v : samples) {
+            LatencyHistogram h = new LatencyHistogram();
+            h.record(v);
+            h.record(v * 4); // raises max so the bucket bound, not max, is reported for p50
+            long p50 = h.percentile(50);
+            Assert.assertTrue(p50 >= v && p50 <= v + v / 32,
+                    v + " us reported as " + p50 + " us");
+        }
+    }
+
+    @Test
+    public void percentileNeverExceedsMax() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(1_001);
+        Assert.assertEquals(h.percentile(99), 1_001);
+        Assert.assertEquals(h.max(), 1_001);
+    }
+
+    @Test
+    public void percentilesFollowTheDistribution() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 1; i <= 1_000; i++) {
+            h.record(i * 100L);
+        }
+        assertNear(h.percentile(50), 50_000);
+        assertNear(h.percentile(95), 95_000);
+        assertNear(h.percentile(99), 99_000);
+        Assert.assertEquals(h.percentile(100), 100_000);
+    }
+
+    @Test
+    public void hugeValuesLandInTheLastBucket() {
+        LatencyHistogram h = new LatencyHistogram();
+        h.record(Long.MAX_VALUE);
+        h.record(1L << 50);
+        Assert.assertEquals(h.count(), 2);
+        Assert.assertEquals(h.max(), Long.MAX_VALUE);
+        Assert.assertEquals(h.percentile(50), (1L << 41) - 1, "values past 2^41 us share the top bucket");
+    }
+
+    @Test
+    public void addMergesAndResetClears() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        for (int i = 0; i < 10; i++) {
+            a.record(10);
+            b.record(5_000);
+        }
+        a.add(b);
+        Assert.assertEquals(a.count(), 20);
+        Assert.assertEquals(a.max(), 5_000);
+        Assert.assertEquals(a.percentile(50), 10);
+        assertNear(a.percentile(90), 5_000);
+        Assert.assertEquals(b.count(), 10, "add leaves the source untouched");
+
+        a.reset();
+        Assert.assertEquals(a.count(), 0);
+        Assert.assertEquals(a.max(), 0);
+        Assert.assertEquals(a.percentile(50), 0);
+    }
+
+    private static void assertNear(long actual, long expected) {
+        Assert.assertTrue(actual >= expected && actual <= expected + expected / 32,
+                "expected about " + expected + " us, got " + actual);
+    }
+}
@@ -0,0 +1,110 @@
+package core.reporting;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Backpressure and batching of the async report writer. Holding the tree lock stalls the writer,
+ * so the queue fills up on demand.
+ */
+public class ReportEventPipelineTest {
+
+    private final ReentrantLock tree = new ReentrantLock(true);
+
+    @Test
+    public void blockPolicyParksTheSubmitterUntilTheWriterCatchesUp() throws Exception {
+        ExtentTest node = new ExtentReports().createTest("block");
+        ReportEventPipeline pipeline = new ReportEventPipeline(2, "BLOCK", tree);
+        tree.lock();
+        Thread third;
+        try {
+            pipeline.submit(node, Status.INFO, "one", null);
+            pipeline.submit(node, Status.INFO, "two", null);
+            third = submitAsync(pipeline, node, Status.INFO, "three");
+            third.join(300);
+            Assert.assertTrue(third.isAlive(), "a full queue blocks the submitter");
+            Assert.assertEquals(pipeline.queued(), 2);
+        } finally {
+            tree.unlock();
+        }
+        third.join(5_000);
+        Assert.assertFalse(third.isAlive());
+        Assert.assertTrue(pipeline.drain(5_000));
+        Assert.assertEquals(node.getModel().getLogs().size(), 3, "nothing is lost");
+        Assert.assertEquals(pipeline.dropped(), 0);
+    }
+
+    @Test
+    public void dropPolicyOnlyDropsInfoEvents() throws Exception {
+        ExtentTest node = new ExtentReports().createTest("drop");
+        ReportEventPipeline pipeline = new ReportEventPipeline(2, "DROP", tree);
+        tree.lock();
+        Thread failure;
+        try {
+            pipeline.submit(node, Status.INFO, "one", null);
+            pipeline.submit(node, Status.INFO, "two", null);
+            pipeline.submit(node, Status.INFO, "three", null); // returns at once
+            Assert.assertEquals(pipeline.dropped(), 1);
+            failure = submitAsync(pipeline, node, Status.FAIL, "boom");
+            failure.join(300);
+            Assert.assertTrue(failure.isAlive(), "FAIL still waits for a slot");
+        } finally {
+            tree.unlock();
+        }
+        failure.join(5_000);
+        Assert.assertTrue(pipeline.drain(5_000));
+        Assert.assertEquals(node.getModel().getLogs().size(), 3);
+        Assert.assertEquals(node.getModel().getLogs().get(2).getStatus(), Status.FAIL);
+        Assert.assertEquals(pipeline.submitted(), 3);
+    }
+
+    @Test
+    public void writerReleasesTheLockBetweenBatches() throws Exception {
+        ExtentTest node = new ExtentReports().createTest("batches");
+        ReportEventPipeline pipeline = new ReportEventPipeline(1000, "BLOCK", tree);
+        AtomicInteger appliedWhenLocked = new AtomicInteger(-1);
+        Thread contender;
+        tree.lock();
+        try {
+            for (int i = 0; i < 600; i++) pipeline.submit(node, Status.INFO, "event " + i, null);
+            await(() -> tree.getQueueLength() == 1); // the writer waits for the lock
+            contender = new Thread(() -> {
+                tree.lock();
+                try {
+                    appliedWhenLocked.set(node.getModel().getLogs().size());
+                } finally {
+                    tree.unlock();
+                }
+            });
+            contender.start();
+            await(() -> tree.getQueueLength() == 2);
+        } finally {
+            tree.unlock();
+        }
+        contender.join(5_000);
+        Assert.assertEquals(appliedWhenLocked.get(), 256, "a flush or createTest gets the lock after one batch");
+        Assert.assertTrue(pipeline.drain(5_000));
+        Assert.assertEquals(node.getModel().getLogs().size(), 600);
+    }
+
+    private static Thread submitAsync(ReportEventPipeline pipeline, ExtentTest node, Status status, String message) {
+        Thread t = new Thread(() -> pipeline.submit(node, status, message, null));
+        t.start();
+        return t;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            Assert.assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package core.reporting;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Rendering of log markup and run metadata in the streaming report.
+ */
+public class StreamingReportRendererTest {
+
+    @Test
+    public void reportLinksAndLineBreaksRenderAndEverythingElseIsEscaped() throws Exception {
+        Path runDir = Files.createTempDirectory(Paths.get("target"), "stream-run");
+        String video = Paths.get("reports", "videos", "login.mp4").toAbsolutePath().toString().replace('\\', '/');
+        Files.writeString(runDir.resolve("shard-1.jsonl"), "{\"name\":\"login\",\"status\":\"FAIL\",\"thread\":\"w-1\","
+                + "\"durationMs\":5,\"logs\":["
+                + "\"Failure video: <a href='videos/login.mp4'>reports/videos/login.mp4</a>\","
+                + "\"WebDriver command latency (ms, p50/p95/p99, count):<br>get: 1/2/3 (4)\","
+                + "\"<script>alert(1)</script>\","
+                + "\"<a href='javascript:alert(1)'>x</a>\"]}\n", StandardCharsets.UTF_8);
+        Files.writeString(runDir.resolve("run.json"),
+                "{\"runId\":\"r1\",\"systemInfo\":{\"browser\":\"chrome\",\"shard\":\"1/2 <b>\"}}", StandardCharsets.UTF_8);
+        Path out = runDir.resolve("report.html");
+
+        StreamingReportRenderer.render(runDir, out);
+        String html = Files.readString(out, StandardCharsets.UTF_8);
+
+        String href = out.toAbsolutePath().getParent().relativize(Paths.get(video)).toString().replace('\\', '/');
+        Assert.assertTrue(html.contains("<a href=\"" + href + "\">reports/videos/login.mp4</a>"), html);
+        Assert.assertTrue(html.contains("count):<br>get: 1/2/3 (4)"), html);
+        Assert.assertTrue(html.contains("&lt;script&gt;alert(1)&lt;/script&gt;"), html);
+        Assert.assertFalse(html.contains("href=\"javascript:"), html);
+        Assert.assertTrue(html.contains("<tr><th>browser</th><td>chrome</td></tr>"), html);
+        Assert.assertTrue(html.contains("<tr><th>shard</th><td>1/2 &lt;b&gt;</td></tr>"), html);
+    }
+}
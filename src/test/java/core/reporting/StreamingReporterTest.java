@@ -0,0 +1,68 @@
+package core.reporting;
+
+import com.aventstack.extentreports.Status;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * StreamingReporter shard files against a temporary run directory.
+ */
+public class StreamingReporterTest {
+
+    @AfterMethod(alwaysRun = true)
+    public void restore() {
+        StreamingReporter.useRunDir(null);
+    }
+
+    @Test
+    public void finishClosesEveryShardBeforeRendering() throws Exception {
+        Path runDir = Files.createTempDirectory(Paths.get("target"), "stream");
+        StreamingReporter.useRunDir(runDir);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            String name = "test-" + i;
+            Thread t = new Thread(() -> {
+                StreamingReporter.TestRecord record = new StreamingReporter.TestRecord(name);
+                record.add(Status.PASS, "done", null);
+                StreamingReporter.append(record);
+            });
+            t.start();
+            workers.add(t);
+        }
+        for (Thread t : workers) t.join(10_000);
+        Assert.assertTrue(StreamingReporter.openShards() <= 6);
+
+        StreamingReporter.finish();
+        Assert.assertEquals(StreamingReporter.openShards(), 0, "no file handle outlives the run");
+        Assert.assertTrue(Files.exists(runDir.resolve("report.html")));
+        Assert.assertEquals(records(runDir), 6, "every record is complete on disk");
+
+        StreamingReporter.append(new StreamingReporter.TestRecord("late"));
+        StreamingReporter.finish();
+        Assert.assertEquals(records(runDir), 7, "a late record goes to a new shard");
+    }
+
+    private static int records(Path runDir) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        int count = 0;
+        try (Stream<Path> files = Files.list(runDir)) {
+            for (Path shard : (Iterable<Path>) files.filter(f -> f.toString().endsWith(".jsonl"))::iterator) {
+                for (String line : Files.readAllLines(shard, StandardCharsets.UTF_8)) {
+                    Assert.assertTrue(mapper.readTree(line).has("name"), line);
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,124 @@
+package core.utils;
+
+import core.config.ConfigManager;
+import core.driver.DriverManager;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ElementCache invalidation against an in-memory driver decorated like DriverFactory does it.
+ */
+public class ElementCacheTest {
+
+    private static final By LOGIN = By.id("login");
+
+    private final AtomicInteger lookups = new AtomicInteger();
+    private final AtomicInteger clicks = new AtomicInteger();
+    private WebElement element;
+
+    @BeforeClass
+    public void enableCache() {
+        System.setProperty("element.cache", "ON");
+        ConfigManager.reload();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void restore() {
+        DriverManager.setDriver(null);
+        System.clearProperty("element.cache");
+        ConfigManager.reload();
+    }
+
+    @BeforeMethod
+    public void bindDriver() {
+        element = fakeElement(true, false);
+        WebDriver.Timeouts timeouts = (WebDriver.Timeouts) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebDriver.Timeouts.class}, (proxy, method, args) -> proxy);
+        WebDriver.Options options = (WebDriver.Options) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebDriver.Options.class}, (proxy, method, args) -> timeouts);
+        WebDriver fake = (WebDriver) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{WebDriver.class, JavascriptExecutor.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "manage": return options;
+                        case "executeAsyncScript": return element; // the awaited element is there
+                        default: return null;
+                    }
+                });
+        DriverManager.setDriver(new EventFiringDecorator<>(ElementCache.INVALIDATOR).decorate(fake));
+        ElementCache.invalidate();
+        lookups.set(0);
+        clicks.set(0);
+    }
+
+    @Test
+    public void waitThenFindIsACacheHit() {
+        find();
+        WaitEngine.waitFor(LOGIN, WaitEngine.Condition.VISIBLE, Duration.ofSeconds(1));
+        find();
+        Assert.assertEquals(lookups.get(), 1, "the wait's own script does not drop the cache");
+    }
+
+    @Test
+    public void userScriptsStillInvalidate() {
+        find();
+        ((JavascriptExecutor) DriverManager.getDriver()).executeScript("document.body.innerHTML = ''");
+        find();
+        Assert.assertEquals(lookups.get(), 2);
+    }
+
+    @Test
+    public void staleCachedElementIsLookedUpAgain() {
+        WebElement stale = fakeElement(true, true);
+        WebElement first = ElementCache.find(LOGIN, locator -> {
+            lookups.incrementAndGet();
+            return lookups.get() == 1 ? stale : element;
+        });
+        Assert.assertEquals(first.getText(), "Sign in", "the re-render is hidden from the caller");
+        Assert.assertEquals(lookups.get(), 2);
+        find().getText();
+        Assert.assertEquals(lookups.get(), 2, "the fresh element replaced the stale one in the cache");
+    }
+
+    @Test
+    public void disabledCachedElementIsWaitedForInsteadOfClicked() {
+        WebElement disabled = fakeElement(false, false);
+        ElementCache.put(LOGIN, disabled);
+        ElementUtil.click(LOGIN);
+        Assert.assertEquals(clicks.get(), 1, "only the element the clickable wait returned is clicked");
+    }
+
+    private WebElement find() {
+        return ElementCache.find(LOGIN, locator -> {
+            lookups.incrementAndGet();
+            return element;
+        });
+    }
+
+    private WebElement fakeElement(boolean enabled, boolean stale) {
+        return (WebElement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{WebElement.class},
+                (proxy, method, args) -> {
+                    if (stale) throw new StaleElementReferenceException("gone");
+                    switch (method.getName()) {
+                        case "isEnabled": return enabled;
+                        case "getText": return "Sign in";
+                        case "click": if (enabled) clicks.incrementAndGet(); return null; // a disabled button ignores it
+                        case "hashCode": return System.identityHashCode(proxy);
+                        case "equals": return proxy == args[0];
+                        default: return null;
+                    }
+                });
+    }
+}
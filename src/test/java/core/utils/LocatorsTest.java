@@ -0,0 +1,44 @@
+package core.utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.support.ByIdOrName;
+import org.openqa.selenium.support.pagefactory.ByAll;
+import org.openqa.selenium.support.pagefactory.ByChained;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Locator strategy parsing and which locators in-browser scripts can resolve.
+ */
+public class LocatorsTest {
+
+    @Test
+    public void singleStrategyLocatorsAreScriptableAndRoundTrip() {
+        By[] locators = {By.id("a"), By.name("b"), By.cssSelector("div > a:nth-child(2)"), By.className("c"),
+                By.tagName("input"), By.xpath("//a[@href='x:y']"), By.linkText("Log in")};
+        for (By locator : locators) {
+            Assert.assertTrue(Locators.isScriptable(locator), locator.toString());
+            Assert.assertEquals(Locators.parse(Locators.serialize(locator)), locator);
+        }
+        Assert.assertEquals(Locators.strategy(By.cssSelector("a:hover")), "cssSelector");
+        Assert.assertEquals(Locators.value(By.xpath("//a[@href='x:y']")), "//a[@href='x:y']");
+    }
+
+    @Test
+    public void partialLinkTextIsNotScriptable() {
+        By locator = By.partialLinkText("Log");
+        Assert.assertEquals(Locators.strategy(locator), "partialLinkText");
+        Assert.assertFalse(Locators.isScriptable(locator));
+    }
+
+    @Test
+    public void compositeLocatorsHaveNoStrategy() {
+        By[] locators = {new ByChained(By.id("form"), By.name("user")), new ByAll(By.id("a"), By.name("a")),
+                new ByIdOrName("user")};
+        for (By locator : locators) {
+            Assert.assertNull(Locators.strategy(locator), locator.toString());
+            Assert.assertFalse(Locators.isScriptable(locator), locator.toString());
+            Assert.expectThrows(IllegalArgumentException.class, () -> Locators.serialize(locator));
+        }
+    }
+}
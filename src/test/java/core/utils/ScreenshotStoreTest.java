@@ -0,0 +1,106 @@
+package core.utils;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * ScreenshotStore's index and LRU quota against a temporary store with blobs from earlier runs.
+ */
+public class ScreenshotStoreTest {
+
+    private Path dir;
+
+    @BeforeMethod
+    public void earlierRuns() throws Exception {
+        dir = Files.createTempDirectory(Paths.get("target"), "screenshots");
+        StringBuilder index = new StringBuilder();
+        long lastUsed = 1000;
+        for (String hash : List.of("aa", "bb", "cc", "dd")) { // oldest first
+            Path blob = dir.resolve(hash + ".png");
+            Files.write(blob, new byte[400]);
+            index.append(hash).append('\t').append(blob).append("\t400\t").append(lastUsed).append('\n');
+            lastUsed += 1000;
+        }
+        Files.writeString(dir.resolve("index.tsv"), index, StandardCharsets.UTF_8);
+        ScreenshotStore.useRoot(dir);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void restore() {
+        ScreenshotStore.useRoot(null);
+    }
+
+    @Test
+    public void leastRecentlyUsedBlobsGoFirstUntilUnderQuota() throws Exception {
+        Assert.assertFalse(ScreenshotStore.claim("bb", dir.resolve("bb.png").toString()), "stored before: no write");
+
+        ScreenshotStore.persist(1000); // 1600 bytes stored
+        Assert.assertFalse(Files.exists(dir.resolve("aa.png")), "oldest is evicted");
+        Assert.assertFalse(Files.exists(dir.resolve("cc.png")), "bb was used this run, so cc goes next");
+        Assert.assertTrue(Files.exists(dir.resolve("bb.png")));
+        Assert.assertTrue(Files.exists(dir.resolve("dd.png")), "800 bytes fit the quota");
+
+        ScreenshotStore.useRoot(dir); // reload the rewritten index
+        Assert.assertNull(ScreenshotStore.resolve("aa"));
+        Assert.assertNull(ScreenshotStore.resolve("cc"));
+        Assert.assertEquals(ScreenshotStore.resolve("bb"), dir.resolve("bb.png").toString());
+        Assert.assertEquals(ScreenshotStore.resolve("dd"), dir.resolve("dd.png").toString());
+    }
+
+    @Test
+    public void blobsOfThisRunAreKeptOverQuota() throws Exception {
+        for (String hash : List.of("aa", "bb", "cc", "dd")) {
+            ScreenshotStore.claim(hash, dir.resolve(hash + ".png").toString());
+        }
+        Path fresh = dir.resolve("ee.png");
+        Assert.assertTrue(ScreenshotStore.claim("ee", fresh.toString()), "new image: caller writes it");
+        Assert.assertFalse(ScreenshotStore.claim("ee", fresh.toString()), "a second claim waits for the first write");
+        Files.write(fresh, new byte[400]);
+        ScreenshotStore.stored("ee", 400);
+        Assert.assertTrue(ScreenshotStore.claim("ff", dir.resolve("ff.png").toString()));
+        // ff is never written
+
+        ScreenshotStore.persist(0);
+        for (String hash : List.of("aa", "bb", "cc", "dd", "ee")) {
+            Assert.assertTrue(Files.exists(dir.resolve(hash + ".png")), hash + " was used by this run");
+        }
+        ScreenshotStore.useRoot(dir);
+        Assert.assertNotNull(ScreenshotStore.resolve("ee"));
+        Assert.assertNull(ScreenshotStore.resolve("ff"), "unfinished writes are not indexed");
+    }
+
+    @Test
+    public void malformedIndexLinesAreSkippedOneByOne() throws Exception {
+        Path index = dir.resolve("index.tsv");
+        List<String> lines = Files.readAllLines(index, StandardCharsets.UTF_8);
+        lines.add(1, "xx\t" + dir.resolve("xx.png") + "\tnot-a-size\t1500");
+        lines.add(3, "yy\t" + dir.resolve("yy.png") + "\t400"); // truncated write
+        lines.add(4, "");
+        Files.write(index, lines, StandardCharsets.UTF_8);
+        ScreenshotStore.useRoot(dir);
+
+        Assert.assertNull(ScreenshotStore.resolve("xx"));
+        Assert.assertNull(ScreenshotStore.resolve("yy"));
+        for (String hash : List.of("aa", "bb", "cc", "dd")) {
+            Assert.assertEquals(ScreenshotStore.resolve(hash), dir.resolve(hash + ".png").toString(),
+                    hash + " is kept even when it follows a bad line");
+        }
+    }
+
+    @Test
+    public void blobPathsLiveUnderTheStoreRoot() {
+        String path = ScreenshotStore.blobPath("ab12", "png");
+        Assert.assertEquals(path, dir.resolve("blobs").resolve("ab").resolve("ab12.png").toString().replace('\\', '/'));
+
+        ScreenshotStore.useRoot(null);
+        Assert.assertEquals(ScreenshotStore.blobPath("ab12", "webp"), "reports/screenshots/blobs/ab/ab12.webp");
+    }
+}
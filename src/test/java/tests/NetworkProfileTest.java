@@ -0,0 +1,135 @@
+package tests;
+
+import com.sun.net.httpserver.HttpServer;
+import core.base.BaseTest;
+import core.driver.DriverManager;
+import core.driver.NetworkProfile;
+import core.driver.WithNetworkProfile;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import org.testng.Assert;
+import org.testng.ITestContext;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Network profiles against pages/network.html, served over HTTP so DevTools sees real requests.
+ * Each test loads the page under its own path prefix and checks which requests reached the server.
+ */
+public class NetworkProfileTest extends BaseTest {
+
+    private HttpServer server;
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+
+    @BeforeClass
+    public void startServer() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB), "png", png);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            requests.add(path);
+            // /<run>/<file>: the run prefix only tells tests apart
+            String file = path.substring(path.lastIndexOf('/') + 1);
+            Path page = Paths.get("src/test/resources/pages", file);
+            byte[] body;
+            if ("hero.png".equals(file)) {
+                body = png.toByteArray();
+                exchange.getResponseHeaders().add("Content-Type", "image/png");
+            } else if (Files.isRegularFile(page)) {
+                body = Files.readAllBytes(page);
+                exchange.getResponseHeaders().add("Content-Type", file.endsWith(".js") ? "application/javascript" : "text/html");
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void stopServer() {
+        if (server != null) server.stop(0);
+    }
+
+    @Test
+    @WithNetworkProfile("lean")
+    public void leanProfileBlocksImagesAndStubsAnalytics() {
+        String run = load();
+        Assert.assertEquals(heroWidth(), 0L, "hero image should be blocked");
+        Assert.assertEquals(script("return window.analyticsLoaded === true;"), false, "analytics.js should be stubbed");
+        Assert.assertFalse(requests.contains(run + "hero.png"), "blocked image reached the server");
+        Assert.assertFalse(requests.contains(run + "analytics.js"), "stubbed script reached the server");
+    }
+
+    @Test
+    @WithNetworkProfile("none")
+    public void withoutProfileEverythingLoads() {
+        String run = load();
+        Assert.assertEquals(heroWidth(), 1L);
+        Assert.assertEquals(script("return window.analyticsLoaded === true;"), true);
+        Assert.assertTrue(requests.contains(run + "hero.png"));
+    }
+
+    @Test
+    public void profileSelection(ITestContext context) throws Exception {
+        Assert.assertEquals(NetworkProfile.forTest(Annotated.class.getMethod("inherited"), context), "lean");
+        Assert.assertEquals(NetworkProfile.forTest(Annotated.class.getMethod("optedOut"), context), "none");
+        Assert.assertNull(NetworkProfile.forTest(getClass().getMethod("profileSelection", ITestContext.class), context),
+                "no annotation or network.profile parameter falls back to the config");
+
+        NetworkProfile lean = NetworkProfile.named("lean");
+        Assert.assertEquals(lean.getName(), "lean");
+        Assert.assertTrue(lean.isEager());
+        Assert.assertSame(NetworkProfile.named(" lean "), lean);
+        Assert.assertNull(NetworkProfile.named("none"));
+        Assert.assertNull(NetworkProfile.named(""));
+        Assert.expectThrows(IllegalArgumentException.class, () -> NetworkProfile.named("no-such-profile"));
+    }
+
+    private String load() {
+        String run = "/" + UUID.randomUUID() + "/";
+        WebDriver driver = DriverManager.getDriver();
+        driver.get("http://127.0.0.1:" + server.getAddress().getPort() + run + "network.html");
+        Assert.assertEquals(driver.findElement(By.id("title")).getText(), "Network profile fixture");
+        return run;
+    }
+
+    // eager loads return before images settle, so wait for the image to finish (or fail)
+    private long heroWidth() {
+        new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(10))
+                .until(d -> Boolean.TRUE.equals(script("return document.getElementById('hero').complete;")));
+        return ((Number) script("return document.getElementById('hero').naturalWidth;")).longValue();
+    }
+
+    private Object script(String js) {
+        return ((JavascriptExecutor) DriverManager.getDriver()).executeScript(js);
+    }
+
+    @WithNetworkProfile("lean")
+    public static class Annotated {
+        public void inherited() {}
+
+        @WithNetworkProfile("none")
+        public void optedOut() {}
+    }
+}